@@ -0,0 +1,177 @@
+package com.gamesbykevin.chainreaction.bench;
+
+import java.lang.management.ManagementFactory;
+
+import com.gamesbykevin.chainreaction.balls.Ball;
+import com.gamesbykevin.chainreaction.balls.Balls;
+import com.gamesbykevin.chainreaction.balls.SpriteAtlas;
+import com.gamesbykevin.chainreaction.game.Game;
+import com.gamesbykevin.chainreaction.panel.GamePanel;
+import com.gamesbykevin.chainreaction.player.Player;
+import com.gamesbykevin.chainreaction.render.RenderBuffer;
+import com.gamesbykevin.chainreaction.thread.Quality;
+
+/**
+ * Make sure playing the game does not allocate memory.<br>
+ * Simulated ticks of the balls and player are run, each frame recorded and replayed onto a {@link Raster} the same way
+ * the game draws it, and the bytes allocated by the thread are counted. Any allocation per tick is a regression, as
+ * garbage collection pauses cause dropped frames. The bytes are counted by the JVM, so the check is run on a desktop
+ * with "ant allocation" from the bench folder, and fails the build if anything was allocated.
+ * @author GOD
+ */
+public final class AllocationCheck
+{
+	/**
+	 * The number of ticks before counting, so the lists, pools and buffers reach their steady size
+	 */
+	public static final int WARMUP_TICKS = 300;
+
+	/**
+	 * The number of ticks counted
+	 */
+	public static final int TICKS = 600;
+
+	/**
+	 * The number of balls placed in reaction mode, the same as the last level
+	 */
+	private static final int BALLS = 60;
+
+	//counts the bytes allocated by each thread
+	private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+	private AllocationCheck()
+	{
+		//static class
+	}
+
+	/**
+	 * Check every mode and print the summary
+	 * @param args Not used
+	 * @throws Exception If any allocation was counted
+	 */
+	public static void main(final String[] args) throws Exception
+	{
+		final StringBuilder summary = new StringBuilder();
+		summary.append("Mode,Bytes per tick\n");
+
+		boolean allocated = false;
+
+		//play every mode once first, so the classes of the whole game are loaded before anything is counted
+		for (int modeIndex = Game.MODE_REACTION; modeIndex <= Game.MODE_CAPTURE; modeIndex++)
+		{
+			measure(modeIndex, TICKS);
+		}
+
+		for (int modeIndex = Game.MODE_REACTION; modeIndex <= Game.MODE_CAPTURE; modeIndex++)
+		{
+			final double bytes = measure(modeIndex, TICKS);
+
+			summary.append(modeIndex).append(',').append(bytes).append('\n');
+
+			if (bytes > 0)
+				allocated = true;
+		}
+
+		System.out.println(summary);
+
+		if (allocated)
+			throw new Exception("Playing the game allocated memory");
+	}
+
+	/**
+	 * Measure the bytes allocated
+	 * @param modeIndex The mode to simulate
+	 * @param ticks The number of ticks counted
+	 * @return The average bytes allocated per tick
+	 * @throws Exception
+	 */
+	public static double measure(final int modeIndex, final int ticks) throws Exception
+	{
+		//every mode is drawn at the same quality
+		Quality.setLevel(Quality.LEVEL_HIGH);
+
+		final RasterBackend backend = new RasterBackend();
+		backend.setAtlas(SpriteAtlas.ID_BALLS, RasterBenchmark.createSheet(Ball.SPRITE_DIMENSION, SpriteAtlas.BALL_COLS, SpriteAtlas.BALL_ROWS), Ball.SPRITE_DIMENSION, SpriteAtlas.BALL_COLS);
+		backend.setAtlas(SpriteAtlas.ID_EXPLOSION, RasterBenchmark.createSheet(Ball.EXPLOSION_DIMENSION, SpriteAtlas.EXPLOSION_FRAMES, 1), Ball.EXPLOSION_DIMENSION, SpriteAtlas.EXPLOSION_FRAMES);
+
+		final Raster raster = new Raster(GamePanel.WIDTH, GamePanel.HEIGHT);
+		final RenderBuffer commands = new RenderBuffer();
+
+		final Player player = new Player();
+		final Balls balls = new Balls(player);
+
+		try
+		{
+			//place the balls, nothing is heard, capture mode spawns its own
+			balls.setSound(false);
+			balls.reset((modeIndex == Game.MODE_REACTION) ? BALLS : 0, 0, modeIndex);
+
+			//place the player's ball in the middle
+			player.getBall().setX(GamePanel.WIDTH / 2);
+			player.getBall().setY(GamePanel.HEIGHT / 2);
+
+			//let the balls move around
+			for (int i = 0; i < WARMUP_TICKS; i++)
+			{
+				tick(player, balls, commands, backend, raster);
+			}
+
+			//start a chain reaction, so the expand, pause, shrink and remove are counted
+			if (modeIndex == Game.MODE_REACTION)
+			{
+				player.getBall().setExpand(true);
+				player.setTurn(false);
+			}
+
+			//the bytes allocated by reading the counter itself
+			final long overhead = -(getAllocated() - getAllocated());
+
+			//count only what is allocated during the ticks
+			final long start = getAllocated();
+
+			for (int i = 0; i < ticks; i++)
+			{
+				tick(player, balls, commands, backend, raster);
+			}
+
+			final long bytes = getAllocated() - start - overhead;
+
+			return Math.max(0, bytes) / (double)ticks;
+		}
+		finally
+		{
+			balls.dispose();
+			player.dispose();
+		}
+	}
+
+	/**
+	 * Get the bytes allocated by this thread so far
+	 * @return The number of bytes
+	 */
+	private static long getAllocated()
+	{
+		return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Run a single tick of the game, recording and replaying the frame
+	 * @param player The player
+	 * @param balls The balls
+	 * @param commands The commands of the frame
+	 * @param backend Replays the commands
+	 * @param raster Where the frame is drawn
+	 * @throws Exception
+	 */
+	private static void tick(final Player player, final Balls balls, final RenderBuffer commands, final RasterBackend backend, final Raster raster) throws Exception
+	{
+		balls.update();
+		player.update();
+
+		commands.clear();
+		player.record(commands, 0, 0);
+		balls.record(commands);
+		raster.drawColor(0xFF000000);
+		backend.replay(commands, raster);
+	}
+}
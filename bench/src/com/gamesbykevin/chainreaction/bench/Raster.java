@@ -0,0 +1,546 @@
+package com.gamesbykevin.chainreaction.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+/**
+ * A drawing surface of ARGB pixels that does not need a device.<br>
+ * It has the drawing the game uses (bitmap blits with scale and alpha, colour fills, circles and text) so whole frames
+ * of recorded commands can be drawn on any machine. Every pixel is blended the same way on every machine, so frames can
+ * be compared against saved images, and the draws and pixels written are counted for benchmarks.<br>
+ * Bitmaps are sampled without filtering, and text is drawn with a small block font.
+ * @author GOD
+ */
+public final class Raster
+{
+	/**
+	 * The width of each character in the font (dots)
+	 */
+	private static final int GLYPH_WIDTH = 3;
+
+	/**
+	 * The height of each character in the font (dots)
+	 */
+	private static final int GLYPH_HEIGHT = 5;
+
+	/**
+	 * The characters in the font, lower case letters are drawn as upper case
+	 */
+	private static final String GLYPH_CHARACTERS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ:.-,/()!?";
+
+	/**
+	 * The dots of each character, a row at a time from the top
+	 */
+	private static final String[] GLYPH_DOTS =
+	{
+		"###/#.#/#.#/#.#/###", ".#./##./.#./.#./###", "###/..#/###/#../###", "###/..#/###/..#/###",
+		"#.#/#.#/###/..#/..#", "###/#../###/..#/###", "###/#../###/#.#/###", "###/..#/..#/..#/..#",
+		"###/#.#/###/#.#/###", "###/#.#/###/..#/###",
+		".#./#.#/###/#.#/#.#", "##./#.#/##./#.#/##.", "###/#../#../#../###", "##./#.#/#.#/#.#/##.",
+		"###/#../###/#../###", "###/#../###/#../#..", "###/#../#.#/#.#/###", "#.#/#.#/###/#.#/#.#",
+		"###/.#./.#./.#./###", "..#/..#/..#/#.#/###", "#.#/#.#/##./#.#/#.#", "#../#../#../#../###",
+		"#.#/###/###/#.#/#.#", "##./#.#/#.#/#.#/#.#", "###/#.#/#.#/#.#/###", "###/#.#/###/#../#..",
+		"###/#.#/#.#/###/..#", "###/#.#/##./#.#/#.#", "###/#../###/..#/###", "###/.#./.#./.#./.#.",
+		"#.#/#.#/#.#/#.#/###", "#.#/#.#/#.#/#.#/.#.", "#.#/#.#/###/###/#.#", "#.#/#.#/.#./#.#/#.#",
+		"#.#/#.#/.#./.#./.#.", "###/..#/.#./#../###",
+		".../.#./.../.#./...", ".../.../.../.../.#.", ".../.../###/.../...", ".../.../.../.#./#..",
+		"..#/..#/.#./#../#..", ".#./#../#../#../.#.", ".#./..#/..#/..#/.#.", ".#./.#./.#./.../.#.",
+		"###/..#/.#./.../.#.",
+	};
+
+	/**
+	 * The dots of each character, a bit for each dot starting from the top left
+	 */
+	private static final int[] GLYPHS = new int[GLYPH_DOTS.length];
+
+	static
+	{
+		for (int i = 0; i < GLYPH_DOTS.length; i++)
+		{
+			final String dots = GLYPH_DOTS[i].replace("/", "");
+
+			for (int dot = 0; dot < dots.length(); dot++)
+			{
+				if (dots.charAt(dot) == '#')
+					GLYPHS[i] |= 1 << dot;
+			}
+		}
+	}
+
+	/**
+	 * The header of the image files, a portable arbitrary map with an alpha channel
+	 */
+	private static final String FILE_HEADER = "P7\nWIDTH %d\nHEIGHT %d\nDEPTH 4\nMAXVAL 255\nTUPLTYPE RGB_ALPHA\nENDHDR\n";
+
+	//the size of the surface
+	private final int width, height;
+
+	//the pixels, a row at a time from the top
+	private final int[] pixels;
+
+	//the number of draws since the counters were reset
+	private int draws;
+
+	//the number of pixels written since the counters were reset
+	private long written;
+
+	/**
+	 * Create a transparent surface
+	 * @param width The width (pixels)
+	 * @param height The height (pixels)
+	 */
+	public Raster(final int width, final int height)
+	{
+		this.width = width;
+		this.height = height;
+		this.pixels = new int[width * height];
+	}
+
+	/**
+	 * Get the width
+	 * @return The width (pixels)
+	 */
+	public int getWidth()
+	{
+		return this.width;
+	}
+
+	/**
+	 * Get the height
+	 * @return The height (pixels)
+	 */
+	public int getHeight()
+	{
+		return this.height;
+	}
+
+	/**
+	 * Get the pixels
+	 * @return The ARGB pixels, a row at a time from the top
+	 */
+	public int[] getPixels()
+	{
+		return this.pixels;
+	}
+
+	/**
+	 * Get a pixel
+	 * @param x (x-coordinate)
+	 * @param y (y-coordinate)
+	 * @return The ARGB color
+	 */
+	public int getPixel(final int x, final int y)
+	{
+		return pixels[y * width + x];
+	}
+
+	/**
+	 * Get the number of draws
+	 * @return The draws since the counters were reset
+	 */
+	public int getDraws()
+	{
+		return this.draws;
+	}
+
+	/**
+	 * Get the number of pixels written, the fill rate of the draws
+	 * @return The pixels written since the counters were reset
+	 */
+	public long getWritten()
+	{
+		return this.written;
+	}
+
+	/**
+	 * Reset the draw and pixel counters
+	 */
+	public void resetCounters()
+	{
+		this.draws = 0;
+		this.written = 0;
+	}
+
+	/**
+	 * Draw a color over every pixel
+	 * @param color The ARGB color
+	 */
+	public void drawColor(final int color)
+	{
+		draws++;
+
+		for (int i = 0; i < pixels.length; i++)
+		{
+			pixels[i] = blend(pixels[i], color, 255);
+		}
+
+		written += pixels.length;
+	}
+
+	/**
+	 * Draw a color over every pixel
+	 * @param alpha The visibility, 0 (hidden) - 255 (fully visible)
+	 * @param red The red 0 - 255
+	 * @param green The green 0 - 255
+	 * @param blue The blue 0 - 255
+	 */
+	public void drawARGB(final int alpha, final int red, final int green, final int blue)
+	{
+		drawColor((alpha << 24) | (red << 16) | (green << 8) | blue);
+	}
+
+	/**
+	 * Draw the whole of another surface at its own size
+	 * @param source The surface to draw
+	 * @param x (x-coordinate) of the top left
+	 * @param y (y-coordinate) of the top left
+	 * @param alpha The visibility, 0 (hidden) - 255 (fully visible)
+	 */
+	public void drawBitmap(final Raster source, final float x, final float y, final int alpha)
+	{
+		drawBitmap(source, 0, 0, source.getWidth(), source.getHeight(), x, y, x + source.getWidth(), y + source.getHeight(), alpha);
+	}
+
+	/**
+	 * Draw part of another surface scaled into the destination, each pixel takes the nearest source pixel
+	 * @param source The surface to draw
+	 * @param sourceLeft The left of the part to draw
+	 * @param sourceTop The top of the part to draw
+	 * @param sourceRight The right of the part to draw
+	 * @param sourceBottom The bottom of the part to draw
+	 * @param left The left of the destination
+	 * @param top The top of the destination
+	 * @param right The right of the destination
+	 * @param bottom The bottom of the destination
+	 * @param alpha The visibility, 0 (hidden) - 255 (fully visible)
+	 */
+	public void drawBitmap(final Raster source, final int sourceLeft, final int sourceTop, final int sourceRight, final int sourceBottom,
+		final float left, final float top, final float right, final float bottom, final int alpha)
+	{
+		draws++;
+
+		if (right <= left || bottom <= top || sourceRight <= sourceLeft || sourceBottom <= sourceTop)
+			return;
+
+		//the pixels covered, a pixel is covered when its center is inside
+		final int startX = Math.max(0, (int)Math.ceil(left - 0.5f));
+		final int startY = Math.max(0, (int)Math.ceil(top - 0.5f));
+		final int endX = Math.min(width, (int)Math.ceil(right - 0.5f));
+		final int endY = Math.min(height, (int)Math.ceil(bottom - 0.5f));
+
+		//the source pixels per destination pixel
+		final float scaleX = (sourceRight - sourceLeft) / (right - left);
+		final float scaleY = (sourceBottom - sourceTop) / (bottom - top);
+
+		for (int y = startY; y < endY; y++)
+		{
+			final int sourceY = Math.min(sourceBottom - 1, sourceTop + (int)((y + 0.5f - top) * scaleY));
+			final int row = y * width;
+			final int sourceRow = sourceY * source.width;
+
+			for (int x = startX; x < endX; x++)
+			{
+				final int sourceX = Math.min(sourceRight - 1, sourceLeft + (int)((x + 0.5f - left) * scaleX));
+
+				pixels[row + x] = blend(pixels[row + x], source.pixels[sourceRow + sourceX], alpha);
+			}
+		}
+
+		written += (long)Math.max(0, endX - startX) * Math.max(0, endY - startY);
+	}
+
+	/**
+	 * Draw a filled circle, a pixel is covered when its center is inside
+	 * @param centerX (x-coordinate) of the center
+	 * @param centerY (y-coordinate) of the center
+	 * @param radius The radius
+	 * @param color The ARGB color
+	 */
+	public void drawCircle(final float centerX, final float centerY, final float radius, final int color)
+	{
+		draws++;
+
+		final int startX = Math.max(0, (int)Math.floor(centerX - radius));
+		final int startY = Math.max(0, (int)Math.floor(centerY - radius));
+		final int endX = Math.min(width, (int)Math.ceil(centerX + radius));
+		final int endY = Math.min(height, (int)Math.ceil(centerY + radius));
+
+		for (int y = startY; y < endY; y++)
+		{
+			final float dy = y + 0.5f - centerY;
+
+			for (int x = startX; x < endX; x++)
+			{
+				final float dx = x + 0.5f - centerX;
+
+				if (dx * dx + dy * dy <= radius * radius)
+				{
+					pixels[y * width + x] = blend(pixels[y * width + x], color, 255);
+					written++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Draw text with the block font
+	 * @param text The characters
+	 * @param index The first character to draw
+	 * @param count The number of characters to draw
+	 * @param x (x-coordinate) of the left
+	 * @param y (y-coordinate) of the baseline
+	 * @param size The size of the text, the same as the text size of a paint
+	 * @param color The ARGB color
+	 */
+	public void drawText(final char[] text, final int index, final int count, final float x, final float y, final float size, final int color)
+	{
+		draws++;
+
+		//the size of each dot, so the capitals are about as tall as a font of the size
+		final int dot = Math.max(1, Math.round(size * 0.7f / GLYPH_HEIGHT));
+		final int top = Math.round(y) - GLYPH_HEIGHT * dot;
+
+		int left = Math.round(x);
+
+		for (int i = index; i < index + count; i++)
+		{
+			final int glyph = getGlyph(text[i]);
+
+			for (int dotY = 0; dotY < GLYPH_HEIGHT; dotY++)
+			{
+				for (int dotX = 0; dotX < GLYPH_WIDTH; dotX++)
+				{
+					if ((glyph & (1 << (dotY * GLYPH_WIDTH + dotX))) != 0)
+						fillRect(left + dotX * dot, top + dotY * dot, dot, dot, color);
+				}
+			}
+
+			//a dot between each character
+			left += (GLYPH_WIDTH + 1) * dot;
+		}
+	}
+
+	/**
+	 * Draw text with the block font
+	 * @param text The text
+	 * @param x (x-coordinate) of the left
+	 * @param y (y-coordinate) of the baseline
+	 * @param size The size of the text, the same as the text size of a paint
+	 * @param color The ARGB color
+	 */
+	public void drawText(final String text, final float x, final float y, final float size, final int color)
+	{
+		drawText(text.toCharArray(), 0, text.length(), x, y, size, color);
+	}
+
+	/**
+	 * Get the dots of a character
+	 * @param character The character
+	 * @return The dots, nothing for a space and a question mark for a character not in the font
+	 */
+	private static int getGlyph(final char character)
+	{
+		if (character == ' ')
+			return 0;
+
+		final int index = GLYPH_CHARACTERS.indexOf(Character.toUpperCase(character));
+
+		return GLYPHS[(index < 0) ? GLYPH_CHARACTERS.indexOf('?') : index];
+	}
+
+	/**
+	 * Blend a color over a rectangle of pixels
+	 * @param x (x-coordinate) of the top left
+	 * @param y (y-coordinate) of the top left
+	 * @param w The width
+	 * @param h The height
+	 * @param color The ARGB color
+	 */
+	private void fillRect(final int x, final int y, final int w, final int h, final int color)
+	{
+		for (int row = Math.max(0, y); row < Math.min(height, y + h); row++)
+		{
+			for (int col = Math.max(0, x); col < Math.min(width, x + w); col++)
+			{
+				pixels[row * width + col] = blend(pixels[row * width + col], color, 255);
+				written++;
+			}
+		}
+	}
+
+	/**
+	 * Blend a color over another
+	 * @param destination The ARGB color underneath
+	 * @param source The ARGB color drawn
+	 * @param alpha The visibility of the color drawn, 0 (hidden) - 255 (fully visible)
+	 * @return The blended ARGB color
+	 */
+	private static int blend(final int destination, final int source, final int alpha)
+	{
+		final int sourceAlpha = (source >>> 24) * alpha / 255;
+
+		//nothing is drawn
+		if (sourceAlpha == 0)
+			return destination;
+
+		//the color replaces what is underneath
+		if (sourceAlpha == 255)
+			return source | 0xFF000000;
+
+		//the part of the color underneath that shows through
+		final int destinationAlpha = (destination >>> 24) * (255 - sourceAlpha) / 255;
+		final int resultAlpha = sourceAlpha + destinationAlpha;
+
+		final int red = (((source >> 16) & 0xFF) * sourceAlpha + ((destination >> 16) & 0xFF) * destinationAlpha) / resultAlpha;
+		final int green = (((source >> 8) & 0xFF) * sourceAlpha + ((destination >> 8) & 0xFF) * destinationAlpha) / resultAlpha;
+		final int blue = ((source & 0xFF) * sourceAlpha + (destination & 0xFF) * destinationAlpha) / resultAlpha;
+
+		return (resultAlpha << 24) | (red << 16) | (green << 8) | blue;
+	}
+
+	/**
+	 * Get the checksum of the pixels, so a frame can be compared to a known frame without keeping the image
+	 * @return The checksum
+	 */
+	public long getChecksum()
+	{
+		final CRC32 crc = new CRC32();
+
+		for (int i = 0; i < pixels.length; i++)
+		{
+			crc.update(pixels[i] >>> 24);
+			crc.update(pixels[i] >>> 16);
+			crc.update(pixels[i] >>> 8);
+			crc.update(pixels[i]);
+		}
+
+		return crc.getValue();
+	}
+
+	/**
+	 * Count the pixels that are different from another surface
+	 * @param other The surface to compare to, the same size
+	 * @param tolerance The difference allowed in each channel before a pixel is counted
+	 * @return The number of pixels that are different, every pixel if the sizes are not the same
+	 */
+	public int getDifference(final Raster other, final int tolerance)
+	{
+		if (other.width != width || other.height != height)
+			return pixels.length;
+
+		int count = 0;
+
+		for (int i = 0; i < pixels.length; i++)
+		{
+			for (int shift = 0; shift < 32; shift += 8)
+			{
+				if (Math.abs(((pixels[i] >>> shift) & 0xFF) - ((other.pixels[i] >>> shift) & 0xFF)) > tolerance)
+				{
+					count++;
+					break;
+				}
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Write the pixels as an image with an alpha channel
+	 * @param output Where the image is written
+	 * @throws IOException
+	 */
+	public void write(final OutputStream output) throws IOException
+	{
+		output.write(String.format(Locale.US, FILE_HEADER, width, height).getBytes("US-ASCII"));
+
+		final byte[] row = new byte[width * 4];
+
+		for (int y = 0; y < height; y++)
+		{
+			for (int x = 0; x < width; x++)
+			{
+				final int pixel = pixels[y * width + x];
+
+				row[x * 4] = (byte)(pixel >> 16);
+				row[x * 4 + 1] = (byte)(pixel >> 8);
+				row[x * 4 + 2] = (byte)pixel;
+				row[x * 4 + 3] = (byte)(pixel >>> 24);
+			}
+
+			output.write(row);
+		}
+
+		output.flush();
+	}
+
+	/**
+	 * Read an image written by {@link #write(OutputStream)}
+	 * @param input Where the image is read from
+	 * @return The surface
+	 * @throws IOException If the image is not in the same format
+	 */
+	public static Raster read(final InputStream input) throws IOException
+	{
+		final DataInputStream data = new DataInputStream(input);
+
+		//read the header a line at a time
+		int width = -1, height = -1;
+
+		while (true)
+		{
+			final String line = readLine(data);
+
+			if (line.equals("ENDHDR"))
+				break;
+
+			if (line.startsWith("WIDTH "))
+				width = Integer.parseInt(line.substring(6).trim());
+			else if (line.startsWith("HEIGHT "))
+				height = Integer.parseInt(line.substring(7).trim());
+			else if (line.startsWith("DEPTH ") && !line.substring(6).trim().equals("4"))
+				throw new IOException("Only images with an alpha channel are read: " + line);
+		}
+
+		if (width < 0 || height < 0)
+			throw new IOException("The image size is missing");
+
+		final Raster raster = new Raster(width, height);
+		final byte[] row = new byte[width * 4];
+
+		for (int y = 0; y < height; y++)
+		{
+			data.readFully(row);
+
+			for (int x = 0; x < width; x++)
+			{
+				raster.pixels[y * width + x] = ((row[x * 4 + 3] & 0xFF) << 24) | ((row[x * 4] & 0xFF) << 16) | ((row[x * 4 + 1] & 0xFF) << 8) | (row[x * 4 + 2] & 0xFF);
+			}
+		}
+
+		return raster;
+	}
+
+	/**
+	 * Read a line of the header
+	 * @param data Where the header is read from
+	 * @return The line without the new line
+	 * @throws IOException If the end is reached first
+	 */
+	private static String readLine(final DataInputStream data) throws IOException
+	{
+		final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+		for (int value = data.readUnsignedByte(); value != '\n'; value = data.readUnsignedByte())
+		{
+			line.write(value);
+		}
+
+		return line.toString("US-ASCII");
+	}
+}
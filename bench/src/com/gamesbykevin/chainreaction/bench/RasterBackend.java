@@ -0,0 +1,89 @@
+package com.gamesbykevin.chainreaction.bench;
+
+import com.gamesbykevin.chainreaction.render.CanvasBackend;
+import com.gamesbykevin.chainreaction.render.RenderBuffer;
+
+/**
+ * Replay the draw commands onto a {@link Raster}, the headless counterpart of {@link CanvasBackend}.<br>
+ * Each atlas is a sprite sheet of square cells, drawn without the mip levels of the device atlas
+ * @author GOD
+ */
+public final class RasterBackend
+{
+	/**
+	 * The number of atlases a sprite can refer to
+	 */
+	private static final int ATLASES = 2;
+
+	//the sprite sheet of each atlas
+	private final Raster[] sheets = new Raster[ATLASES];
+
+	//the size of the cells and the number of columns of each atlas
+	private final int[] dimensions = new int[ATLASES], cols = new int[ATLASES];
+
+	/**
+	 * Assign the sprite sheet of an atlas
+	 * @param id The id of the atlas, the same as the device atlas
+	 * @param sheet The sprite sheet
+	 * @param dimension The size of each cell (pixels)
+	 * @param cols The number of columns of cells
+	 */
+	public void setAtlas(final int id, final Raster sheet, final int dimension, final int cols)
+	{
+		this.sheets[id] = sheet;
+		this.dimensions[id] = dimension;
+		this.cols[id] = cols;
+	}
+
+	/**
+	 * Draw every command in the buffer, layer by layer
+	 * @param buffer The commands of the frame
+	 * @param raster Where to write the pixel data, in game coordinates
+	 */
+	public void replay(final RenderBuffer buffer, final Raster raster)
+	{
+		for (int position = 0; position < buffer.getCount(); position++)
+		{
+			final int index = buffer.getOrder(position);
+
+			render(raster, buffer.getSprite(index), buffer.getLeft(index), buffer.getTop(index), buffer.getRight(index), buffer.getBottom(index), buffer.getAlpha(index));
+		}
+	}
+
+	/**
+	 * Draw a single sprite
+	 * @param raster Where to write the pixel data, in game coordinates
+	 * @param sprite The sprite to draw
+	 * @param left The left of the destination
+	 * @param top The top of the destination
+	 * @param right The right of the destination
+	 * @param bottom The bottom of the destination
+	 * @param alpha The visibility, 0 (hidden) - 255 (fully visible)
+	 */
+	public void render(final Raster raster, final int sprite, final float left, final float top, final float right, final float bottom, final int alpha)
+	{
+		final int id = RenderBuffer.getAtlas(sprite);
+		final Raster sheet = sheets[id];
+
+		//the atlas has not been assigned
+		if (sheet == null)
+			return;
+
+		//the location of the cell in the sprite sheet
+		final int dimension = dimensions[id];
+		final int x = (RenderBuffer.getCell(sprite) % cols[id]) * dimension;
+		final int y = (RenderBuffer.getCell(sprite) / cols[id]) * dimension;
+
+		if (RenderBuffer.isCircle(sprite))
+		{
+			//the color of the cell is taken from its center
+			final int color = sheet.getPixel(x + dimension / 2, y + dimension / 2);
+
+			raster.drawCircle((left + right) / 2, (top + bottom) / 2, (right - left) / 2, (((color >>> 24) * alpha / 255) << 24) | (color & 0xFFFFFF));
+		}
+		else
+		{
+			raster.drawBitmap(sheet, x, y, x + dimension, y + dimension, left, top, right, bottom, alpha);
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package com.gamesbykevin.chainreaction.bench;
+
+import com.gamesbykevin.chainreaction.balls.Ball;
+import com.gamesbykevin.chainreaction.balls.Balls;
+import com.gamesbykevin.chainreaction.balls.SpriteAtlas;
+import com.gamesbykevin.chainreaction.game.Stress;
+import com.gamesbykevin.chainreaction.panel.GamePanel;
+import com.gamesbykevin.chainreaction.player.Player;
+import com.gamesbykevin.chainreaction.render.RenderBuffer;
+import com.gamesbykevin.chainreaction.thread.MainThread;
+import com.gamesbykevin.chainreaction.thread.Quality;
+
+/**
+ * The stress boards drawn on a {@link Raster}, so the render path can be measured without a device.<br>
+ * Each stage places the same board as {@link Stress}, starts a cascade in the middle of the screen, and records and
+ * replays every frame until the cascade is over. The sprite sheets are made of plain circles, so no assets are needed.
+ * The summary has the time, draws and pixels written for each stage. Run with "ant benchmark" from the bench folder.
+ * @author GOD
+ */
+public final class RasterBenchmark
+{
+	/**
+	 * The most frames drawn in a stage, in case the cascade never ends
+	 */
+	private static final int FRAME_LIMIT = MainThread.FPS * 30;
+
+	private RasterBenchmark()
+	{
+		//static class
+	}
+
+	/**
+	 * Run every stage and print the summary
+	 * @param args Not used
+	 * @throws Exception
+	 */
+	public static void main(final String[] args) throws Exception
+	{
+		System.out.println(run());
+	}
+
+	/**
+	 * Run every stage
+	 * @return The summary
+	 * @throws Exception
+	 */
+	public static String run() throws Exception
+	{
+		//every stage is drawn at the same quality
+		Quality.setLevel(Quality.LEVEL_HIGH);
+
+		final RasterBackend backend = new RasterBackend();
+		backend.setAtlas(SpriteAtlas.ID_BALLS, createSheet(Ball.SPRITE_DIMENSION, SpriteAtlas.BALL_COLS, SpriteAtlas.BALL_ROWS), Ball.SPRITE_DIMENSION, SpriteAtlas.BALL_COLS);
+		backend.setAtlas(SpriteAtlas.ID_EXPLOSION, createSheet(Ball.EXPLOSION_DIMENSION, SpriteAtlas.EXPLOSION_FRAMES, 1), Ball.EXPLOSION_DIMENSION, SpriteAtlas.EXPLOSION_FRAMES);
+
+		final Raster raster = new Raster(GamePanel.WIDTH, GamePanel.HEIGHT);
+		final RenderBuffer commands = new RenderBuffer();
+
+		final StringBuilder summary = new StringBuilder();
+		summary.append("Balls,Frames,Average frame ms,Worst frame ms,Draws per frame,Pixels per frame,Megapixels per second\n");
+
+		for (int stage = 0; stage < Stress.getStageCount(); stage++)
+		{
+			final Player player = new Player();
+			final Balls balls = new Balls(player);
+
+			try
+			{
+				//place the board, nothing is heard
+				balls.setSound(false);
+				balls.reset(Stress.getBalls(stage), Stress.getSeed(stage));
+
+				//start the cascade in the middle of the screen
+				Stress.startCascade(player);
+
+				int frames = 0;
+				long total = 0, worst = 0;
+
+				raster.resetCounters();
+
+				while (!isOver(player, balls) && frames < FRAME_LIMIT)
+				{
+					player.update();
+					balls.update();
+
+					final long start = System.nanoTime();
+
+					//record and draw the frame the same way the game does
+					commands.clear();
+					player.record(commands, 0, 0);
+					balls.record(commands);
+					raster.drawColor(0xFF000000);
+					backend.replay(commands, raster);
+
+					final long time = System.nanoTime() - start;
+
+					frames++;
+					total += time;
+					worst = Math.max(worst, time);
+				}
+
+				final int count = Math.max(1, frames);
+
+				summary.append(Stress.getBalls(stage)).append(',');
+				summary.append(frames).append(',');
+				summary.append(Stress.format(Stress.getMilliseconds(total, frames))).append(',');
+				summary.append(Stress.format(Stress.getMilliseconds(worst, 1))).append(',');
+				summary.append(raster.getDraws() / count).append(',');
+				summary.append(raster.getWritten() / count).append(',');
+				summary.append(Stress.format((total == 0) ? 0 : raster.getWritten() * 1000.0 / total)).append('\n');
+			}
+			finally
+			{
+				balls.dispose();
+				player.dispose();
+			}
+		}
+
+		return summary.toString();
+	}
+
+	/**
+	 * Is the cascade over?<br>
+	 * This is the same test the game uses to end a turn
+	 * @param player The player
+	 * @param balls The balls on the board
+	 * @return true if the player's ball is gone and no ball is expanded, false otherwise
+	 */
+	private static boolean isOver(final Player player, final Balls balls)
+	{
+		return (player.getBall().isDead() && balls.getExpandedCount() < 1);
+	}
+
+	/**
+	 * Create a sprite sheet of plain circles, each cell a different color
+	 * @param dimension The size of each cell (pixels)
+	 * @param cols The number of columns of cells
+	 * @param rows The number of rows of cells
+	 * @return The sprite sheet
+	 */
+	public static Raster createSheet(final int dimension, final int cols, final int rows)
+	{
+		final Raster sheet = new Raster(dimension * cols, dimension * rows);
+
+		for (int row = 0; row < rows; row++)
+		{
+			for (int col = 0; col < cols; col++)
+			{
+				final int cell = row * cols + col;
+				final int color = 0xFF000000 | ((cell * 0x3F7A91) & 0xFFFFFF) | 0x404040;
+
+				sheet.drawCircle((col + 0.5f) * dimension, (row + 0.5f) * dimension, dimension / 2f, color);
+			}
+		}
+
+		return sheet;
+	}
+}
@@ -1,6 +1,8 @@
 package com.gamesbykevin.chainreaction;
 
+import com.gamesbykevin.chainreaction.assets.AssetCache;
 import com.gamesbykevin.chainreaction.panel.GamePanel;
+import com.gamesbykevin.chainreaction.storage.Persistence;
 
 import android.app.Activity;
 import android.content.Intent;
@@ -78,11 +80,19 @@ public class MainActivity extends Activity
     @Override
     public void finish()
     {
-        //cleanup game panel if it exists
-        if (getGamePanel() != null)
+        try
+        {
+            //cleanup game panel if it exists
+            if (getGamePanel() != null)
+            {
+                getGamePanel().dispose();
+                setGamePanel(null);
+            }
+        }
+        finally
         {
-            getGamePanel().dispose();
-            setGamePanel(null);
+            //make sure the score and settings are written, even if the cleanup failed
+            Persistence.flush();
         }
         
         //call parent
@@ -131,6 +141,27 @@ public class MainActivity extends Activity
         super.onPause();
     }
     
+    /**
+     * The system is low on memory, release what we can
+     * @param level The amount of memory the system needs
+     */
+    @Override
+    public void onTrimMemory(final int level)
+    {
+        //call parent
+        super.onTrimMemory(level);
+        
+        //let the game panel trim on the game thread, or trim now if the game is gone
+        if (getGamePanel() != null)
+        {
+            getGamePanel().trimMemory(level);
+        }
+        else
+        {
+            AssetCache.trim(level);
+        }
+    }
+    
     /**
      * Navigate to the desired web page
      * @param url The desired url
@@ -1,7 +1,7 @@
 package com.gamesbykevin.chainreaction;
 
 import com.gamesbykevin.chainreaction.R;
-import com.gamesbykevin.chainreaction.assets.Assets;
+import com.gamesbykevin.chainreaction.thread.Startup;
 
 import android.app.Activity;
 import android.content.Intent;
@@ -16,10 +16,33 @@ import android.view.WindowManager;
  */
 public class Splash extends Activity
 {
+    //posts the start of the main activity to the ui thread
+    private Handler handler;
+    
+    //has the main activity been started
+    private boolean started = false;
+    
     /**
-     * Time delay to show the splash screen
+     * Start the main activity and close the splash
      */
-    private static final long TIME_DELAY = 1000L;
+    private final Runnable launch = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            //only start once, and not if the splash was closed
+            if (started || isFinishing())
+                return;
+            
+            started = true;
+            
+            //start our main activity
+            startActivity(new Intent(Splash.this, MainActivity.class));
+            
+            //close this activity
+            finish();
+        }
+    };
     
     /**
      * Called when the activity is first created
@@ -43,15 +66,18 @@ public class Splash extends Activity
         //set our content view to show the image
         super.setContentView(R.layout.splash);
         
-        try
-        {
-            //load the game assets
-            Assets.load(this);
-        }
-        catch (Exception e)
+        //the handler belongs to the ui thread
+        this.handler = new Handler();
+        
+        //warm up in the background while the splash is displayed, then move on once it has been displayed long enough
+        Startup.start(this, new Runnable()
         {
-            e.printStackTrace();
-        }
+            @Override
+            public void run()
+            {
+                handler.postDelayed(launch, Startup.getDelay());
+            }
+        });
     }
     
     /**
@@ -71,23 +97,6 @@ public class Splash extends Activity
     {
         //call parent functionality
         super.onStart();
-        
-        //add a delay to show the splash image before starting main activity
-        new Handler().postDelayed(new Runnable() {
- 
-            /**
-             * Run will be executed once the time delay is over
-             */
-            @Override
-            public void run() {
-                
-                //start our main activity
-                startActivity(new Intent(Splash.this, MainActivity.class));
- 
-                //close this activity
-                finish();
-            }
-        }, TIME_DELAY);
     }
     
     /**
@@ -105,6 +114,10 @@ public class Splash extends Activity
     @Override
     public void onDestroy()
     {
+        //the main activity is no longer started from here
+        if (handler != null)
+            handler.removeCallbacks(launch);
+        
         //perform final cleanup
         super.onDestroy();
     }
@@ -0,0 +1,200 @@
+package com.gamesbykevin.chainreaction.assets;
+
+import android.app.Activity;
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keep track of which assets are in use.<br>
+ * Assets are acquired by the objects that need them and released when done. Loaded assets are kept
+ * (even with no references) so a new surface or activity can use them right away, and only when the system
+ * is low on memory are the images with no references recycled, least recently used first.<br>
+ * Sounds are counted as well, but are not evicted since the framework has no way to remove a single sound.
+ * @author GOD
+ */
+public final class AssetCache
+{
+    //the number of references for each key, in access order (least recently used first)
+    private static final LinkedHashMap<Enum<?>, int[]> REFERENCES = new LinkedHashMap<Enum<?>, int[]>(16, 0.75f, true);
+
+    private AssetCache()
+    {
+        //no instances
+    }
+
+    /**
+     * Acquire the assets.<br>
+     * If an image was evicted it will be loaded again before returning
+     * @param activity Object containing AssetManager needed to load assets
+     * @param keys The keys of the assets we need
+     * @throws Exception
+     */
+    public static synchronized void acquire(final Activity activity, final Enum<?>... keys) throws Exception
+    {
+        for (Enum<?> key : keys)
+        {
+            //get the current count
+            int[] count = REFERENCES.get(key);
+
+            if (count == null)
+            {
+                count = new int[1];
+                REFERENCES.put(key, count);
+            }
+
+            //add reference
+            count[0]++;
+
+            //make sure the image exists
+            if (isImage(key) && !isLoaded(key))
+                AssetLoader.reload(activity, key);
+        }
+    }
+
+    /**
+     * Release the assets.<br>
+     * The assets are not removed, but may now be evicted when memory is low
+     * @param keys The keys of the assets we no longer need
+     */
+    public static synchronized void release(final Enum<?>... keys)
+    {
+        for (Enum<?> key : keys)
+        {
+            //get the current count, this also marks it as the most recently used
+            final int[] count = REFERENCES.get(key);
+
+            //remove reference
+            if (count != null && count[0] > 0)
+                count[0]--;
+        }
+    }
+
+    /**
+     * Get the number of references
+     * @param key The key of the asset
+     * @return The number of objects currently using the asset
+     */
+    public static synchronized int getReferences(final Enum<?> key)
+    {
+        final int[] count = REFERENCES.get(key);
+
+        return (count == null) ? 0 : count[0];
+    }
+
+    /**
+     * Is the key for an image?
+     * @param key The key of the asset
+     * @return true if the key is an ImageMenuKey or ImageGameKey, false otherwise
+     */
+    private static boolean isImage(final Enum<?> key)
+    {
+        return (key instanceof Assets.ImageMenuKey || key instanceof Assets.ImageGameKey);
+    }
+
+    /**
+     * Is the image loaded?
+     * @param key The key of the image
+     * @return true if the image exists and has not been recycled, false otherwise
+     */
+    private static boolean isLoaded(final Enum<?> key)
+    {
+        final Bitmap bitmap = Assets.getImage(key);
+
+        return (bitmap != null && !bitmap.isRecycled());
+    }
+
+    /**
+     * Free memory depending on how much the system needs.<br>
+     * Only images that are not in use are evicted. If the app is in the background and nothing is in use,
+     * all assets are recycled.
+     * @param level The level provided by onTrimMemory
+     * @return The number of images evicted
+     */
+    public static synchronized int trim(final int level)
+    {
+        //how much do we need to free
+        final boolean all;
+
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL)
+        {
+            all = true;
+        }
+        else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW)
+        {
+            all = false;
+        }
+        else
+        {
+            //keep everything so resuming is instant
+            return 0;
+        }
+
+        //if we are about to be killed and nothing is in use, recycle everything
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE && !hasReferences())
+        {
+            Assets.recycle();
+            REFERENCES.clear();
+            return 0;
+        }
+
+        //the images we can evict, least recently used first
+        final List<Enum<?>> candidates = new ArrayList<Enum<?>>();
+
+        //images never acquired have not been used at all
+        addCandidates(candidates, Assets.ImageMenuKey.values());
+        addCandidates(candidates, Assets.ImageGameKey.values());
+
+        //then the released images in order of use
+        for (Map.Entry<Enum<?>, int[]> entry : REFERENCES.entrySet())
+        {
+            if (entry.getValue()[0] == 0 && isImage(entry.getKey()) && isLoaded(entry.getKey()))
+                candidates.add(entry.getKey());
+        }
+
+        //the number of images we will evict
+        final int limit = (all) ? candidates.size() : (candidates.size() + 1) / 2;
+
+        for (int i = 0; i < limit; i++)
+        {
+            //recycle the image, it will be loaded again when acquired
+            Assets.getImage(candidates.get(i)).recycle();
+        }
+
+        return limit;
+    }
+
+    /**
+     * Add the loaded images that have never been acquired
+     * @param candidates The list of images we can evict
+     * @param keys The keys to check
+     */
+    private static void addCandidates(final List<Enum<?>> candidates, final Enum<?>[] keys)
+    {
+        for (Enum<?> key : keys)
+        {
+            if (!REFERENCES.containsKey(key) && isLoaded(key))
+                candidates.add(key);
+        }
+    }
+
+    /**
+     * Is any asset in use?
+     * @return true if at least 1 asset has a reference, false otherwise
+     */
+    private static boolean hasReferences()
+    {
+        for (int[] count : REFERENCES.values())
+        {
+            if (count[0] > 0)
+                return true;
+        }
+
+        return false;
+    }
+}
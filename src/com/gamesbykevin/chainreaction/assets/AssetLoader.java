@@ -0,0 +1,538 @@
+package com.gamesbykevin.chainreaction.assets;
+
+import android.app.Activity;
+
+import com.gamesbykevin.androidframework.resources.Audio;
+import com.gamesbykevin.androidframework.resources.Files;
+import com.gamesbykevin.androidframework.resources.Font;
+import com.gamesbykevin.androidframework.resources.Images;
+
+import java.util.EnumMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load our assets in the background.<br>
+ * Assets are loaded in groups by priority (splash, menu, game, music) so each screen can be displayed as soon as its own assets are ready.<br>
+ * Images, fonts and text are loaded on one worker and audio on another so the two decode in parallel. Each asset is
+ * added while holding {@link Assets#LOCK}, one at a time, so the game thread is only held up for a single asset.
+ * @author GOD
+ */
+public final class AssetLoader
+{
+    /**
+     * The groups of assets, in the order they are loaded
+     */
+    public enum Group
+    {
+        /**
+         * The image displayed while the game is loading
+         */
+        Splash,
+
+        /**
+         * Everything needed to display the menu screens
+         */
+        Menu,
+
+        /**
+         * Everything needed to play the game
+         */
+        Game,
+
+        /**
+         * The background music for the menu and game
+         */
+        Music
+    }
+
+    /**
+     * Listener notified when a group of assets is ready
+     */
+    public interface Listener
+    {
+        /**
+         * The group of assets has been loaded.<br>
+         * This is called from the background worker
+         * @param group The group that is now ready
+         */
+        public void onReady(final Group group);
+    }
+
+    /**
+     * How long we will wait for the workers to finish when we are cancelling (milliseconds)
+     */
+    private static final long CANCEL_TIMEOUT = 1000L;
+
+    //worker loading images, fonts and text
+    private static ExecutorService IMAGE_WORKER;
+
+    //worker loading audio
+    private static ExecutorService AUDIO_WORKER;
+
+    //the readiness of each group, each worker with work in the group counts down once finished
+    private static final EnumMap<Group, CountDownLatch> READY = new EnumMap<Group, CountDownLatch>(Group.class);
+
+    //the listener to notify (if any)
+    private static volatile Listener LISTENER;
+
+    private AssetLoader()
+    {
+        //no instances
+    }
+
+    /**
+     * Assign the listener to be notified when each group is ready.<br>
+     * If a group is already ready the listener is not notified for it
+     * @param listener The listener, null if none
+     */
+    public static void setListener(final Listener listener)
+    {
+        LISTENER = listener;
+    }
+
+    /**
+     * Start loading all assets in the background.<br>
+     * If the assets are already loading (or loaded), nothing happens
+     * @param activity Object containing AssetManager needed to load assets
+     */
+    public static synchronized void start(final Activity activity)
+    {
+        //if we already started, there is nothing to do
+        if (IMAGE_WORKER != null)
+            return;
+
+        //create our workers
+        IMAGE_WORKER = Executors.newSingleThreadExecutor(new Factory("Image loader"));
+        AUDIO_WORKER = Executors.newSingleThreadExecutor(new Factory("Audio loader"));
+
+        //the number of workers that have work in each group
+        READY.put(Group.Splash, new CountDownLatch(1));
+        READY.put(Group.Menu, new CountDownLatch(2));
+        READY.put(Group.Game, new CountDownLatch(2));
+        READY.put(Group.Music, new CountDownLatch(1));
+
+        //each worker runs its tasks in order, so submitting by priority loads the splash first and music last
+        submit(IMAGE_WORKER, Group.Splash, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    //the splash image is displayed while everything else loads
+                    loadImage(activity, Assets.ImageMenuKey.Splash, Assets.DIRECTORY_MENU_IMAGE);
+                }
+                catch (Exception e)
+                {
+                    e.printStackTrace();
+                }
+            }
+        });
+
+        submit(IMAGE_WORKER, Group.Menu, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    //load all images for the menu
+                    for (Assets.ImageMenuKey key : Assets.ImageMenuKey.values())
+                    {
+                        loadImage(activity, key, Assets.DIRECTORY_MENU_IMAGE);
+                    }
+
+                    //load all fonts for the menu
+                    for (Assets.FontMenuKey key : Assets.FontMenuKey.values())
+                    {
+                        loadFont(activity, key, Assets.DIRECTORY_MENU_FONT);
+                    }
+
+                    //the game over screen uses the game font
+                    for (Assets.FontGameKey key : Assets.FontGameKey.values())
+                    {
+                        loadFont(activity, key, Assets.DIRECTORY_GAME_FONT);
+                    }
+                }
+                catch (Exception e)
+                {
+                    e.printStackTrace();
+                }
+            }
+        });
+
+        submit(AUDIO_WORKER, Group.Menu, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    //load the menu sound effect, the theme is played by the music channel
+                    loadSound(activity, Assets.AudioMenuKey.Selection, Assets.DIRECTORY_MENU_AUDIO);
+                }
+                catch (Exception e)
+                {
+                    e.printStackTrace();
+                }
+            }
+        });
+
+        submit(IMAGE_WORKER, Group.Game, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    //load images for the game
+                    for (Assets.ImageGameKey key : Assets.ImageGameKey.values())
+                    {
+                        loadImage(activity, key, Assets.DIRECTORY_GAME_IMAGE);
+                    }
+
+                    //load all text files
+                    for (Assets.TextKey key : Assets.TextKey.values())
+                    {
+                        loadText(activity, key, Assets.DIRECTORY_TEXT);
+                    }
+                }
+                catch (Exception e)
+                {
+                    e.printStackTrace();
+                }
+            }
+        });
+
+        submit(AUDIO_WORKER, Group.Game, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    //decode the collision tones for the mixer
+                    Assets.loadTones(activity);
+
+                    //load the other game sound effects, the music is loaded last
+                    for (Assets.AudioGameKey key : Assets.AudioGameKey.values())
+                    {
+                        if (key != Assets.AudioGameKey.Music && !isTone(key))
+                            loadSound(activity, key, Assets.DIRECTORY_GAME_AUDIO);
+                    }
+                }
+                catch (Exception e)
+                {
+                    e.printStackTrace();
+                }
+            }
+        });
+
+        submit(AUDIO_WORKER, Group.Music, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    //prepare the music channel, the tracks are streamed not loaded
+                    Assets.loadMusic(activity);
+                }
+                catch (Exception e)
+                {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    /**
+     * Submit work for a group.<br>
+     * Once the work is done (even if it failed) the group is counted down, and the listener notified when the group is ready
+     * @param worker The worker to run the task
+     * @param group The group the work belongs to
+     * @param task The work to perform
+     */
+    private static void submit(final ExecutorService worker, final Group group, final Runnable task)
+    {
+        //the latch for this group
+        final CountDownLatch latch = READY.get(group);
+
+        worker.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    task.run();
+                }
+                finally
+                {
+                    //this worker is done with the group
+                    latch.countDown();
+
+                    //if the group is now ready, notify the listener
+                    final Listener listener = LISTENER;
+
+                    if (latch.getCount() == 0 && listener != null)
+                        listener.onReady(group);
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the path of the asset for the specified key.<br>
+     * The keys are ordered according to the file name in the assets folder
+     * @param activity Object containing AssetManager needed to load assets
+     * @param key The key of the asset
+     * @param directory The directory containing the asset
+     * @return The path of the asset
+     * @throws Exception If the asset does not exist
+     */
+    static String getPath(final Activity activity, final Enum<?> key, final String directory) throws Exception
+    {
+        //list the files in the directory
+        final String[] files = activity.getAssets().list(directory);
+
+        if (files == null || key.ordinal() >= files.length)
+            throw new Exception("Asset not found for key: " + key);
+
+        return directory + "/" + files[key.ordinal()];
+    }
+
+    /**
+     * Load a single image (if not already loaded)
+     * @param activity Object containing AssetManager needed to load assets
+     * @param key The key of the image
+     * @param directory The directory containing the image
+     * @throws Exception
+     */
+    private static void loadImage(final Activity activity, final Enum<?> key, final String directory) throws Exception
+    {
+        final String path = getPath(activity, key, directory);
+
+        Assets.LOCK.lockInterruptibly();
+
+        try
+        {
+            Images.loadImage(activity, key, path);
+        }
+        finally
+        {
+            Assets.LOCK.unlock();
+        }
+    }
+
+    /**
+     * Load a single font (if not already loaded)
+     * @param activity Object containing AssetManager needed to load assets
+     * @param key The key of the font
+     * @param directory The directory containing the font
+     * @throws Exception
+     */
+    private static void loadFont(final Activity activity, final Enum<?> key, final String directory) throws Exception
+    {
+        final String path = getPath(activity, key, directory);
+
+        Assets.LOCK.lockInterruptibly();
+
+        try
+        {
+            Font.loadFont(activity, key, path);
+        }
+        finally
+        {
+            Assets.LOCK.unlock();
+        }
+    }
+
+    /**
+     * Load a single text file (if not already loaded)
+     * @param activity Object containing AssetManager needed to load assets
+     * @param key The key of the text file
+     * @param directory The directory containing the text file
+     * @throws Exception
+     */
+    private static void loadText(final Activity activity, final Enum<?> key, final String directory) throws Exception
+    {
+        final String path = getPath(activity, key, directory);
+
+        Assets.LOCK.lockInterruptibly();
+
+        try
+        {
+            Files.loadText(activity, key, path);
+        }
+        finally
+        {
+            Assets.LOCK.unlock();
+        }
+    }
+
+    /**
+     * Load a single sound (if not already loaded)
+     * @param activity Object containing AssetManager needed to load assets
+     * @param key The key of the sound
+     * @param directory The directory containing the sound
+     * @throws Exception
+     */
+    private static void loadSound(final Activity activity, final Enum<?> key, final String directory) throws Exception
+    {
+        final String path = getPath(activity, key, directory);
+
+        Assets.LOCK.lockInterruptibly();
+
+        try
+        {
+            Audio.loadSound(activity, key, path);
+        }
+        finally
+        {
+            Assets.LOCK.unlock();
+        }
+    }
+
+    /**
+     * Is the sound one of the collision tones?
+     * @param key The key of the sound
+     * @return true if the sound is played by the mixer, false otherwise
+     */
+    private static boolean isTone(final Assets.AudioGameKey key)
+    {
+        for (Assets.AudioGameKey tone : Assets.TONES)
+        {
+            if (tone == key)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Load the image again if it was recycled (or never loaded).<br>
+     * The image is loaded on the calling thread while holding {@link Assets#LOCK}
+     * @param activity Object containing AssetManager needed to load assets
+     * @param key The key of the image, either an ImageMenuKey or ImageGameKey
+     * @throws Exception
+     */
+    public static void reload(final Activity activity, final Enum<?> key) throws Exception
+    {
+        //determine where the image is located
+        final String directory;
+
+        if (key instanceof Assets.ImageMenuKey)
+        {
+            directory = Assets.DIRECTORY_MENU_IMAGE;
+        }
+        else if (key instanceof Assets.ImageGameKey)
+        {
+            directory = Assets.DIRECTORY_GAME_IMAGE;
+        }
+        else
+        {
+            throw new Exception("Key not handled here: " + key);
+        }
+
+        loadImage(activity, key, directory);
+    }
+
+    /**
+     * Are all assets in the group loaded?
+     * @param group The group of assets
+     * @return true if the group is ready, false if it is still loading or loading has not started
+     */
+    public static synchronized boolean isReady(final Group group)
+    {
+        final CountDownLatch latch = READY.get(group);
+
+        return (latch != null && latch.getCount() == 0);
+    }
+
+    /**
+     * Wait until all assets in the group are loaded.<br>
+     * If loading has not started, this returns right away
+     * @param group The group of assets
+     * @throws InterruptedException
+     */
+    public static void await(final Group group) throws InterruptedException
+    {
+        final CountDownLatch latch;
+
+        synchronized (AssetLoader.class)
+        {
+            latch = READY.get(group);
+        }
+
+        if (latch != null)
+            latch.await();
+    }
+
+    /**
+     * Stop loading.<br>
+     * Any work in progress is allowed to finish so the assets can be safely recycled afterwards
+     */
+    public static synchronized void cancel()
+    {
+        try
+        {
+            if (IMAGE_WORKER != null)
+            {
+                IMAGE_WORKER.shutdownNow();
+                IMAGE_WORKER.awaitTermination(CANCEL_TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+
+            if (AUDIO_WORKER != null)
+            {
+                AUDIO_WORKER.shutdownNow();
+                AUDIO_WORKER.awaitTermination(CANCEL_TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            e.printStackTrace();
+        }
+
+        //release any thread waiting on a group that will never finish
+        for (CountDownLatch latch : READY.values())
+        {
+            while (latch.getCount() > 0)
+                latch.countDown();
+        }
+
+        //everything will need to be loaded again
+        IMAGE_WORKER = null;
+        AUDIO_WORKER = null;
+        READY.clear();
+    }
+
+    /**
+     * Create the threads for our workers
+     */
+    private static final class Factory implements ThreadFactory
+    {
+        //the name of the thread
+        private final String name;
+
+        private Factory(final String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable)
+        {
+            final Thread thread = new Thread(runnable, name);
+
+            //don't keep the application alive
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
+}
@@ -4,9 +4,18 @@ import com.gamesbykevin.androidframework.resources.Audio;
 import com.gamesbykevin.androidframework.resources.Files;
 import com.gamesbykevin.androidframework.resources.Font;
 import com.gamesbykevin.androidframework.resources.Images;
+import com.gamesbykevin.chainreaction.audio.AudioTrackSink;
+import com.gamesbykevin.chainreaction.audio.Mixer;
+import com.gamesbykevin.chainreaction.audio.MusicChannel;
+import com.gamesbykevin.chainreaction.audio.Wave;
 import com.gamesbykevin.chainreaction.panel.GamePanel;
 
 import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Typeface;
+
+import java.io.InputStream;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This class will contain all of our assets
@@ -17,37 +26,37 @@ public class Assets
     /**
      * The directory where audio sound effect resources are kept
      */
-    private static final String DIRECTORY_MENU_AUDIO = "audio/menu";
+    static final String DIRECTORY_MENU_AUDIO = "audio/menu";
     
     /**
      * The directory where audio sound effect resources are kept
      */
-    private static final String DIRECTORY_GAME_AUDIO = "audio/game";
+    static final String DIRECTORY_GAME_AUDIO = "audio/game";
     
     /**
      * The directory where image resources are kept for the menu
      */
-    private static final String DIRECTORY_MENU_IMAGE = "image/menu";
+    static final String DIRECTORY_MENU_IMAGE = "image/menu";
     
     /**
      * The directory where image resources are kept for the game
      */
-    private static final String DIRECTORY_GAME_IMAGE = "image/game";
+    static final String DIRECTORY_GAME_IMAGE = "image/game";
     
     /**
      * The directory where font resources are kept
      */
-    private static final String DIRECTORY_MENU_FONT = "font/menu";
+    static final String DIRECTORY_MENU_FONT = "font/menu";
     
     /**
      * The directory where font resources are kept
      */
-    private static final String DIRECTORY_GAME_FONT = "font/game";
+    static final String DIRECTORY_GAME_FONT = "font/game";
     
     /**
      * The directory where our text files are kept
      */
-    private static final String DIRECTORY_TEXT = "text";
+    static final String DIRECTORY_TEXT = "text";
     
     /**
      * The different fonts used in our game.<br>
@@ -123,72 +132,262 @@ public class Assets
     }
     
     /**
-     * Load all assets.<br>
-     * If an asset already exists, it won't be loaded again
+     * The collision tones, these are decoded and played by our mixer
+     */
+    static final AudioGameKey[] TONES = 
+    {
+    	AudioGameKey.Tone1, AudioGameKey.Tone2, AudioGameKey.Tone3, AudioGameKey.Tone4, AudioGameKey.Tone5
+    };
+    
+    /**
+     * Guards the images, fonts, text and audio of the framework, which are not thread safe.<br>
+     * It is only held while an asset is added, looked up or removed, never around other work. The loader waits for it
+     * interruptibly, so cancelling the loader does not wait on a thread holding it
+     */
+    static final ReentrantLock LOCK = new ReentrantLock();
+    
+    //mixes the collision tones
+    private static volatile Mixer MIXER;
+    
+    //plays the background music
+    private static volatile MusicChannel MUSIC;
+    
+    /**
+     * Load all assets and wait until they are ready.<br>
+     * If an asset already exists, it won't be loaded again.<br>
+     * To load in the background use AssetLoader.start() instead
      * @param activity Object containing AssetManager needed to load assets
      * @throws Exception 
      */
     public static final void load(final Activity activity) throws Exception
     {
-        //load all images for the menu
-        Images.load(activity, ImageMenuKey.values(), DIRECTORY_MENU_IMAGE, true);
-        
-        //load all fonts for the menu
-        Font.load(activity, FontMenuKey.values(), DIRECTORY_MENU_FONT, true);
+        //start loading in the background (if not already)
+        AssetLoader.start(activity);
         
-        //load all audio for the menu
-        Audio.load(activity, AudioMenuKey.values(), DIRECTORY_MENU_AUDIO, true);
-        
-        //load images for the game
-        Images.load(activity, ImageGameKey.values(), DIRECTORY_GAME_IMAGE, true);
-        
-        //load all audio for the game
-        Audio.load(activity, AudioGameKey.values(), DIRECTORY_GAME_AUDIO, true);
-        
-        //load all fonts for the game
-        Font.load(activity, FontGameKey.values(), DIRECTORY_GAME_FONT, true);
-        
-        //load all text files
-        Files.load(activity, TextKey.values(), DIRECTORY_TEXT, true);
+        //wait for every group to finish
+        for (AssetLoader.Group group : AssetLoader.Group.values())
+        {
+            AssetLoader.await(group);
+        }
     }
     
-    public static void playCollisionSound()
+    /**
+     * Decode the collision tones and start the mixer.<br>
+     * If the mixer already exists, nothing happens
+     * @param activity Object containing AssetManager needed to load assets
+     * @throws Exception
+     */
+    static void loadTones(final Activity activity) throws Exception
     {
-    	switch (GamePanel.RANDOM.nextInt(5))
+    	if (MIXER != null)
+    		return;
+    	
+    	final Wave[] waves = new Wave[TONES.length];
+    	
+    	for (int i = 0; i < TONES.length; i++)
     	{
-	    	case 0:
-	    		Audio.play(Assets.AudioGameKey.Tone1);
-	    		break;
-	    		
-	    	case 1:
-	    		Audio.play(Assets.AudioGameKey.Tone2);
-	    		break;
-	    		
-	    	case 2:
-	    		Audio.play(Assets.AudioGameKey.Tone3);
-	    		break;
-	    		
-	    	case 3:
-	    		Audio.play(Assets.AudioGameKey.Tone4);
-	    		break;
-	    		
-	    	case 4:
-	    		Audio.play(Assets.AudioGameKey.Tone5);
-	    		break;
+    		final InputStream input = activity.getAssets().open(AssetLoader.getPath(activity, TONES[i], DIRECTORY_GAME_AUDIO));
+    		
+    		try
+    		{
+    			//keep the samples in memory
+    			waves[i] = Wave.decode(input);
+    		}
+    		finally
+    		{
+    			input.close();
+    		}
     	}
+    	
+    	//create the mixer writing to the device
+    	final Mixer mixer = new Mixer(new AudioTrackSink(), waves);
+    	mixer.start();
+    	MIXER = mixer;
+    }
+    
+    /**
+     * Prepare the music channel with the menu and game tracks.<br>
+     * If the music channel already exists, nothing happens
+     * @param activity Object containing AssetManager needed to load assets
+     * @throws Exception
+     */
+    static void loadMusic(final Activity activity) throws Exception
+    {
+    	if (MUSIC != null)
+    		return;
+    	
+    	final MusicChannel music = new MusicChannel();
+    	music.load(AudioMenuKey.Theme, activity.getAssets().openFd(AssetLoader.getPath(activity, AudioMenuKey.Theme, DIRECTORY_MENU_AUDIO)));
+    	music.load(AudioGameKey.Music, activity.getAssets().openFd(AssetLoader.getPath(activity, AudioGameKey.Music, DIRECTORY_GAME_AUDIO)));
+    	MUSIC = music;
+    }
+    
+    /**
+     * Play the music track.<br>
+     * The current track fades out, if this is already the current track it continues where it was paused
+     * @param key The key of the track, AudioMenuKey.Theme or AudioGameKey.Music
+     */
+    public static void playMusic(final Object key)
+    {
+    	if (MUSIC != null)
+    		MUSIC.play(key);
+    }
+    
+    /**
+     * Update the music channel (crossfade etc..)
+     */
+    public static void updateMusic()
+    {
+    	if (MUSIC != null)
+    		MUSIC.update();
+    }
+    
+    /**
+     * Is the music crossfading?
+     * @return true if a track is fading out, false otherwise
+     */
+    public static boolean isMusicFading()
+    {
+    	return (MUSIC != null && MUSIC.isFading());
+    }
+    
+    /**
+     * Get an image
+     * @param key The key of the image
+     * @return The image, null if it has not been loaded
+     */
+    public static Bitmap getImage(final Enum<?> key)
+    {
+    	LOCK.lock();
+    	
+    	try
+    	{
+    		return Images.getImage(key);
+    	}
+    	finally
+    	{
+    		LOCK.unlock();
+    	}
+    }
+    
+    /**
+     * Get a font
+     * @param key The key of the font
+     * @return The font, null if it has not been loaded
+     */
+    public static Typeface getFont(final Enum<?> key)
+    {
+    	LOCK.lock();
+    	
+    	try
+    	{
+    		return Font.getFont(key);
+    	}
+    	finally
+    	{
+    		LOCK.unlock();
+    	}
+    }
+    
+    /**
+     * Play a sound effect
+     * @param key The key of the sound
+     */
+    public static void playSound(final Enum<?> key)
+    {
+    	LOCK.lock();
+    	
+    	try
+    	{
+    		Audio.play(key);
+    	}
+    	finally
+    	{
+    		LOCK.unlock();
+    	}
+    }
+    
+    /**
+     * Stop all sound effects, the music keeps playing
+     */
+    public static void stopSounds()
+    {
+    	LOCK.lock();
+    	
+    	try
+    	{
+    		Audio.stop();
+    	}
+    	finally
+    	{
+    		LOCK.unlock();
+    	}
+    }
+    
+    /**
+     * Stop all sound effects and pause the music, the music position is kept
+     */
+    public static void stopAudio()
+    {
+    	stopSounds();
+    	
+    	if (MUSIC != null)
+    		MUSIC.pause();
+    }
+    
+    /**
+     * Play a collision tone.<br>
+     * All collisions in an update are played as a single tone, pitched up with the size of the cascade
+     * @param collisions The number of collisions in this update
+     */
+    public static void playCollisionSound(final int collisions)
+    {
+    	//make sure audio is enabled and the tones are loaded
+    	if (!Audio.isAudioEnabled() || MIXER == null || collisions < 1)
+    		return;
+    	
+    	//pick a random tone
+    	MIXER.play(GamePanel.RANDOM.nextInt(TONES.length), collisions);
     }
     
     /**
-     * Recycle all assets
+     * Recycle all assets.<br>
+     * This must not be called while holding {@link #LOCK}, as the loader may be waiting for it
      */
     public static void recycle()
     {
         try
         {
-            Images.dispose();
-            Font.dispose();
-            Audio.dispose();
-            Files.dispose();
+            //make sure nothing is loading while we recycle
+            AssetLoader.cancel();
+            
+            //stop the mixer
+            if (MIXER != null)
+            {
+            	MIXER.dispose();
+            	MIXER = null;
+            }
+            
+            //stop the music
+            if (MUSIC != null)
+            {
+            	MUSIC.dispose();
+            	MUSIC = null;
+            }
+            
+            LOCK.lock();
+            
+            try
+            {
+                Images.dispose();
+                Font.dispose();
+                Audio.dispose();
+                Files.dispose();
+            }
+            finally
+            {
+                LOCK.unlock();
+            }
         }
         catch (Exception e)
         {
@@ -0,0 +1,34 @@
+package com.gamesbykevin.chainreaction.audio;
+
+/**
+ * The destination of the mixed audio
+ * @author GOD
+ */
+public interface AudioSink
+{
+    /**
+     * Prepare to receive audio
+     * @param sampleRate The number of mono 16 bit samples per second
+     * @throws Exception
+     */
+    public void open(final int sampleRate) throws Exception;
+
+    /**
+     * Write the mixed samples.<br>
+     * This may block until there is room for the samples
+     * @param samples The mono samples
+     * @param length The number of samples to write
+     * @throws Exception
+     */
+    public void write(final short[] samples, final int length) throws Exception;
+
+    /**
+     * There is nothing to play for now, the sink can stop until the next write
+     */
+    public void idle();
+
+    /**
+     * Release the sink, no more audio will be written
+     */
+    public void close();
+}
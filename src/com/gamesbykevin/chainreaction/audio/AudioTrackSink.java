@@ -0,0 +1,64 @@
+package com.gamesbykevin.chainreaction.audio;
+
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTrack;
+
+/**
+ * Stream the mixed audio to the device
+ * @author GOD
+ */
+public final class AudioTrackSink implements AudioSink
+{
+    //the audio stream
+    private AudioTrack track;
+
+    @Override
+    public void open(final int sampleRate) throws Exception
+    {
+        //make sure the buffer can hold at least 2 mixes
+        final int size = Math.max(
+            AudioTrack.getMinBufferSize(sampleRate, AudioFormat.CHANNEL_OUT_MONO, AudioFormat.ENCODING_PCM_16BIT),
+            Mixer.BUFFER_SAMPLES * 2 * 2
+        );
+
+        this.track = new AudioTrack(
+            AudioManager.STREAM_MUSIC,
+            sampleRate,
+            AudioFormat.CHANNEL_OUT_MONO,
+            AudioFormat.ENCODING_PCM_16BIT,
+            size,
+            AudioTrack.MODE_STREAM
+        );
+    }
+
+    @Override
+    public void write(final short[] samples, final int length) throws Exception
+    {
+        //start playing if we stopped
+        if (track.getPlayState() != AudioTrack.PLAYSTATE_PLAYING)
+            track.play();
+
+        //this blocks until there is room, which paces the mixer
+        track.write(samples, 0, length);
+    }
+
+    @Override
+    public void idle()
+    {
+        //stop once the remaining audio has played
+        if (track != null)
+            track.stop();
+    }
+
+    @Override
+    public void close()
+    {
+        if (track != null)
+        {
+            track.stop();
+            track.release();
+            track = null;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.gamesbykevin.chainreaction.audio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Write the mixed audio to a wave file.<br>
+ * This has no android dependencies so the mixer can be run and checked on a desktop.
+ * @author GOD
+ */
+public final class FileSink implements AudioSink
+{
+    //the size of the wave header
+    private static final int HEADER_SIZE = 44;
+
+    //where we write the audio
+    private final File file;
+
+    //the open file
+    private RandomAccessFile output;
+
+    //reusable buffer for the sample bytes
+    private byte[] bytes = new byte[0];
+
+    //the number of bytes of audio written
+    private int length;
+
+    /**
+     * Create the sink
+     * @param file The wave file to write
+     */
+    public FileSink(final File file)
+    {
+        this.file = file;
+    }
+
+    @Override
+    public void open(final int sampleRate) throws Exception
+    {
+        this.output = new RandomAccessFile(file, "rw");
+        this.output.setLength(0);
+        this.length = 0;
+
+        //write the header, the sizes are updated when closed
+        writeTag("RIFF");
+        writeInt(0);
+        writeTag("WAVE");
+        writeTag("fmt ");
+        writeInt(16);
+        writeShort(1);
+        writeShort(1);
+        writeInt(sampleRate);
+        writeInt(sampleRate * 2);
+        writeShort(2);
+        writeShort(16);
+        writeTag("data");
+        writeInt(0);
+    }
+
+    @Override
+    public void write(final short[] samples, final int length) throws Exception
+    {
+        if (bytes.length < length * 2)
+            bytes = new byte[length * 2];
+
+        //little endian samples
+        for (int i = 0; i < length; i++)
+        {
+            bytes[i * 2] = (byte)samples[i];
+            bytes[i * 2 + 1] = (byte)(samples[i] >> 8);
+        }
+
+        output.write(bytes, 0, length * 2);
+        this.length += length * 2;
+    }
+
+    @Override
+    public void idle()
+    {
+        //a file has no time, so there is nothing to stop
+    }
+
+    @Override
+    public void close()
+    {
+        if (output == null)
+            return;
+
+        try
+        {
+            //update the sizes in the header
+            output.seek(4);
+            writeInt(HEADER_SIZE - 8 + length);
+            output.seek(HEADER_SIZE - 4);
+            writeInt(length);
+            output.close();
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+
+        output = null;
+    }
+
+    private void writeTag(final String tag) throws IOException
+    {
+        output.writeBytes(tag);
+    }
+
+    private void writeShort(final int value) throws IOException
+    {
+        output.write(value & 0xFF);
+        output.write((value >> 8) & 0xFF);
+    }
+
+    private void writeInt(final int value) throws IOException
+    {
+        writeShort(value);
+        writeShort(value >> 16);
+    }
+}
@@ -0,0 +1,295 @@
+package com.gamesbykevin.chainreaction.audio;
+
+import com.gamesbykevin.androidframework.resources.Disposable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Mix short sounds kept in memory and write them to a sink.<br>
+ * The number of voices is capped, when all are playing the oldest voice is replaced. Requests are merged until
+ * the next mix, so no matter how many are made the cost of mixing stays the same.
+ * @author GOD
+ */
+public final class Mixer implements Disposable, Runnable
+{
+    /**
+     * The number of samples per second we mix
+     */
+    public static final int SAMPLE_RATE = 22050;
+
+    /**
+     * The maximum number of sounds playing at once
+     */
+    public static final int MAX_VOICES = 4;
+
+    /**
+     * The number of samples mixed at a time (about 23 milliseconds)
+     */
+    public static final int BUFFER_SAMPLES = 512;
+
+    /**
+     * The number of semitones the pitch can be raised as the cascade grows
+     */
+    public static final int MAX_CASCADE = 12;
+
+    /**
+     * The volume of a single collision
+     */
+    private static final float BASE_GAIN = 0.6f;
+
+    /**
+     * The increase in volume for each additional collision
+     */
+    private static final float GAIN_STEP = 0.05f;
+
+    //where the mixed audio is written
+    private final AudioSink sink;
+
+    //the sounds we can play
+    private final Wave[] waves;
+
+    //the voices currently playing
+    private final boolean[] voiceActive = new boolean[MAX_VOICES];
+    private final int[] voiceWave = new int[MAX_VOICES];
+    private final double[] voicePosition = new double[MAX_VOICES];
+    private final double[] voiceStep = new double[MAX_VOICES];
+    private final float[] voiceGain = new float[MAX_VOICES];
+    private final long[] voiceStart = new long[MAX_VOICES];
+
+    //the order the voices were started, used to replace the oldest voice
+    private long sequence = 0;
+
+    //the mix and the final samples
+    private final float[] mix = new float[BUFFER_SAMPLES];
+    private final short[] output = new short[BUFFER_SAMPLES];
+
+    //the merged request waiting for the next mix, (sound + 1) << 16 | count, 0 if none
+    private final AtomicInteger pending = new AtomicInteger();
+
+    //the thread mixing the audio (if started)
+    private Thread thread;
+
+    //is the thread running
+    private volatile boolean running = false;
+
+    /**
+     * Create the mixer
+     * @param sink Where the mixed audio is written
+     * @param waves The sounds we can play
+     */
+    public Mixer(final AudioSink sink, final Wave[] waves)
+    {
+        this.sink = sink;
+        this.waves = waves;
+    }
+
+    /**
+     * Play a sound.<br>
+     * If a sound is already waiting for the next mix, the requests are merged into a single voice
+     * @param index The index of the sound
+     * @param count The number of events this sound represents, a larger count raises the pitch and volume
+     */
+    public void play(final int index, final int count)
+    {
+        while (true)
+        {
+            final int current = pending.get();
+
+            //keep the sound already waiting (if any) and add the count
+            final int wave = (current == 0) ? index + 1 : (current >>> 16);
+            final int total = Math.min(0xFFFF, (current & 0xFFFF) + count);
+
+            if (pending.compareAndSet(current, (wave << 16) | total))
+                break;
+        }
+
+        //wake the thread if idle
+        if (thread != null)
+            LockSupport.unpark(thread);
+    }
+
+    /**
+     * Start a voice, replacing the oldest voice if all are playing
+     * @param index The index of the sound
+     * @param count The number of events this sound represents
+     */
+    private void startVoice(final int index, final int count)
+    {
+        int voice = 0;
+
+        for (int i = 0; i < MAX_VOICES; i++)
+        {
+            //use the first free voice
+            if (!voiceActive[i])
+            {
+                voice = i;
+                break;
+            }
+
+            //otherwise keep track of the oldest
+            if (voiceStart[i] < voiceStart[voice])
+                voice = i;
+        }
+
+        //raise the pitch a semitone for each additional event
+        final double pitch = Math.pow(2.0, Math.min(count - 1, MAX_CASCADE) / 12.0);
+
+        voiceActive[voice] = true;
+        voiceWave[voice] = index;
+        voicePosition[voice] = 0;
+        voiceStep[voice] = pitch * waves[index].getSampleRate() / SAMPLE_RATE;
+        voiceGain[voice] = Math.min(1f, BASE_GAIN + GAIN_STEP * (count - 1));
+        voiceStart[voice] = sequence++;
+    }
+
+    /**
+     * Is anything playing or waiting to be played?
+     * @return true if there is audio to mix, false otherwise
+     */
+    public boolean isActive()
+    {
+        if (pending.get() != 0)
+            return true;
+
+        for (int i = 0; i < MAX_VOICES; i++)
+        {
+            if (voiceActive[i])
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Mix the next samples and write them to the sink.<br>
+     * This is called by the mixer thread, or directly when no thread is started (i.e. writing to a file)
+     * @param length The number of samples, at most BUFFER_SAMPLES
+     * @throws Exception
+     */
+    public void render(final int length) throws Exception
+    {
+        //start the waiting sound (if any)
+        final int request = pending.getAndSet(0);
+
+        if (request != 0)
+            startVoice((request >>> 16) - 1, request & 0xFFFF);
+
+        //start with silence
+        for (int i = 0; i < length; i++)
+        {
+            mix[i] = 0;
+        }
+
+        for (int voice = 0; voice < MAX_VOICES; voice++)
+        {
+            if (!voiceActive[voice])
+                continue;
+
+            final short[] samples = waves[voiceWave[voice]].getSamples();
+            final double step = voiceStep[voice];
+            final float gain = voiceGain[voice];
+            double position = voicePosition[voice];
+
+            for (int i = 0; i < length; i++)
+            {
+                final int index = (int)position;
+
+                //if the sound is done, free the voice
+                if (index + 1 >= samples.length)
+                {
+                    voiceActive[voice] = false;
+                    break;
+                }
+
+                //interpolate between samples as the pitch rarely matches
+                final double fraction = position - index;
+                mix[i] += gain * (float)(samples[index] + (samples[index + 1] - samples[index]) * fraction);
+
+                position += step;
+            }
+
+            voicePosition[voice] = position;
+        }
+
+        //clip to 16 bits
+        for (int i = 0; i < length; i++)
+        {
+            output[i] = (short)Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+        }
+
+        sink.write(output, length);
+    }
+
+    /**
+     * Open the sink.<br>
+     * Only needed when calling render directly, start() opens the sink itself
+     * @throws Exception
+     */
+    public void open() throws Exception
+    {
+        sink.open(SAMPLE_RATE);
+    }
+
+    /**
+     * Start mixing on a separate thread
+     * @throws Exception
+     */
+    public void start() throws Exception
+    {
+        if (thread != null)
+            return;
+
+        open();
+
+        running = true;
+        thread = new Thread(this, "Mixer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            while (running)
+            {
+                //if there is nothing to play, stop until the next sound
+                if (!isActive())
+                {
+                    sink.idle();
+                    LockSupport.park(this);
+                    continue;
+                }
+
+                render(BUFFER_SAMPLES);
+            }
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+        finally
+        {
+            sink.close();
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        running = false;
+
+        if (thread != null)
+        {
+            LockSupport.unpark(thread);
+            thread = null;
+        }
+        else
+        {
+            //no thread to close the sink, so close it here
+            sink.close();
+        }
+    }
+}
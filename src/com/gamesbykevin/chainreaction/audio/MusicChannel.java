@@ -0,0 +1,191 @@
+package com.gamesbykevin.chainreaction.audio;
+
+import android.content.res.AssetFileDescriptor;
+import android.media.MediaPlayer;
+
+import com.gamesbykevin.androidframework.resources.Audio;
+import com.gamesbykevin.androidframework.resources.Disposable;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * A single channel for the background music.<br>
+ * Each track is streamed from the asset file and decoded as it plays, so only a small buffer is in memory.
+ * Pausing keeps the position of the track, and changing tracks crossfades from the previous track.
+ * @author GOD
+ */
+public final class MusicChannel implements Disposable
+{
+    /**
+     * How long it takes to crossfade between tracks (milliseconds)
+     */
+    public static final long CROSSFADE_DURATION = 1000L;
+
+    //the tracks we can play
+    private final HashMap<Object, MediaPlayer> tracks = new HashMap<Object, MediaPlayer>();
+
+    //the track playing, and the track fading out (if any)
+    private Object current, previous;
+
+    //when did the crossfade start
+    private long fadeTime;
+
+    //is the channel paused
+    private boolean paused = true;
+
+    /**
+     * Add a track.<br>
+     * The track is prepared here so changing states never waits on the decoder
+     * @param key The key of the track
+     * @param descriptor The asset file, this will be closed
+     * @throws IOException
+     */
+    public synchronized void load(final Object key, final AssetFileDescriptor descriptor) throws IOException
+    {
+        final MediaPlayer player = new MediaPlayer();
+
+        try
+        {
+            //stream from the asset file
+            player.setDataSource(descriptor.getFileDescriptor(), descriptor.getStartOffset(), descriptor.getLength());
+        }
+        finally
+        {
+            descriptor.close();
+        }
+
+        //the music repeats
+        player.setLooping(true);
+        player.prepare();
+
+        tracks.put(key, player);
+    }
+
+    /**
+     * Play the track.<br>
+     * If it is the current track it continues from where it was paused, otherwise it starts from the beginning
+     * and the previous track fades out
+     * @param key The key of the track
+     */
+    public synchronized void play(final Object key)
+    {
+        //make sure the track exists
+        if (tracks.get(key) == null)
+            return;
+
+        //we are no longer paused
+        this.paused = false;
+
+        if (key == current)
+        {
+            //continue from the same position
+            if (Audio.isAudioEnabled() && !tracks.get(key).isPlaying())
+                tracks.get(key).start();
+
+            return;
+        }
+
+        //if a crossfade is in progress, stop the track fading out
+        if (previous != null && previous != key)
+            tracks.get(previous).pause();
+
+        //fade out the current track and fade in the new
+        this.previous = current;
+        this.current = key;
+        this.fadeTime = System.currentTimeMillis();
+
+        final MediaPlayer player = tracks.get(key);
+        player.setVolume(0f, 0f);
+        player.seekTo(0);
+
+        if (Audio.isAudioEnabled())
+            player.start();
+    }
+
+    /**
+     * Pause the music, the position of the track is kept
+     */
+    public synchronized void pause()
+    {
+        this.paused = true;
+
+        //stop the track fading out
+        if (previous != null)
+        {
+            tracks.get(previous).pause();
+            previous = null;
+        }
+
+        //pause the current track at full volume, so it resumes at full volume
+        if (current != null)
+        {
+            tracks.get(current).setVolume(1f, 1f);
+            tracks.get(current).pause();
+        }
+    }
+
+    /**
+     * Is a crossfade in progress?
+     * @return true if the previous track is still fading out, false otherwise
+     */
+    public synchronized boolean isFading()
+    {
+        return (previous != null && !paused);
+    }
+
+    /**
+     * Update the crossfade, and follow the audio setting
+     */
+    public synchronized void update()
+    {
+        if (current == null || paused)
+            return;
+
+        final MediaPlayer player = tracks.get(current);
+
+        //if audio was disabled, stop the music
+        if (!Audio.isAudioEnabled())
+        {
+            if (player.isPlaying() || previous != null)
+                pause();
+
+            //we only paused because of the setting
+            this.paused = false;
+            return;
+        }
+
+        //if audio was enabled again, continue the music
+        if (!player.isPlaying())
+            player.start();
+
+        if (previous != null)
+        {
+            //how far along is the crossfade
+            final float progress = Math.min(1f, (System.currentTimeMillis() - fadeTime) / (float)CROSSFADE_DURATION);
+
+            player.setVolume(progress, progress);
+            tracks.get(previous).setVolume(1f - progress, 1f - progress);
+
+            //once the crossfade is complete, stop the previous track
+            if (progress >= 1f)
+            {
+                tracks.get(previous).pause();
+                previous = null;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void dispose()
+    {
+        for (MediaPlayer player : tracks.values())
+        {
+            player.release();
+        }
+
+        tracks.clear();
+        current = null;
+        previous = null;
+    }
+}
@@ -0,0 +1,142 @@
+package com.gamesbykevin.chainreaction.audio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decoded PCM audio kept in memory.<br>
+ * Only uncompressed 16 bit wave files are supported, stereo is mixed down to mono.
+ * @author GOD
+ */
+public final class Wave
+{
+    //the mono samples
+    private final short[] samples;
+
+    //the number of samples per second
+    private final int sampleRate;
+
+    /**
+     * Create the wave
+     * @param samples The mono samples
+     * @param sampleRate The number of samples per second
+     */
+    public Wave(final short[] samples, final int sampleRate)
+    {
+        this.samples = samples;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Get the samples
+     * @return The mono samples
+     */
+    public short[] getSamples()
+    {
+        return this.samples;
+    }
+
+    /**
+     * Get the sample rate
+     * @return The number of samples per second
+     */
+    public int getSampleRate()
+    {
+        return this.sampleRate;
+    }
+
+    /**
+     * Decode a wave file.<br>
+     * The stream is read completely but not closed
+     * @param input The wave file
+     * @return The decoded wave
+     * @throws IOException If the file is not 16 bit PCM
+     */
+    public static Wave decode(final InputStream input) throws IOException
+    {
+        //read the whole file
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+
+        for (int count = input.read(buffer); count > 0; count = input.read(buffer))
+        {
+            output.write(buffer, 0, count);
+        }
+
+        final byte[] data = output.toByteArray();
+
+        if (data.length < 12 || !isTag(data, 0, "RIFF") || !isTag(data, 8, "WAVE"))
+            throw new IOException("Not a wave file");
+
+        int channels = 0, sampleRate = 0, bits = 0;
+
+        //check each chunk
+        for (int index = 12; index + 8 <= data.length; )
+        {
+            final int size = readInt(data, index + 4);
+            final int start = index + 8;
+
+            if (isTag(data, index, "fmt "))
+            {
+                //make sure this is uncompressed audio
+                if (readShort(data, start) != 1)
+                    throw new IOException("Only PCM is supported");
+
+                channels = readShort(data, start + 2);
+                sampleRate = readInt(data, start + 4);
+                bits = readShort(data, start + 14);
+            }
+            else if (isTag(data, index, "data"))
+            {
+                if (bits != 16 || channels < 1)
+                    throw new IOException("Only 16 bit PCM is supported");
+
+                //the number of samples per channel
+                final int length = Math.min(size, data.length - start) / (2 * channels);
+                final short[] samples = new short[length];
+
+                for (int i = 0; i < length; i++)
+                {
+                    //mix all channels down to mono
+                    int total = 0;
+
+                    for (int channel = 0; channel < channels; channel++)
+                    {
+                        total += (short)readShort(data, start + (i * channels + channel) * 2);
+                    }
+
+                    samples[i] = (short)(total / channels);
+                }
+
+                return new Wave(samples, sampleRate);
+            }
+
+            //chunks are padded to an even size
+            index = start + size + (size & 1);
+        }
+
+        throw new IOException("No audio data found");
+    }
+
+    private static boolean isTag(final byte[] data, final int index, final String tag)
+    {
+        for (int i = 0; i < tag.length(); i++)
+        {
+            if (data[index + i] != tag.charAt(i))
+                return false;
+        }
+
+        return true;
+    }
+
+    private static int readShort(final byte[] data, final int index)
+    {
+        return (data[index] & 0xFF) | ((data[index + 1] & 0xFF) << 8);
+    }
+
+    private static int readInt(final byte[] data, final int index)
+    {
+        return readShort(data, index) | (readShort(data, index + 2) << 16);
+    }
+}
@@ -1,14 +1,24 @@
 package com.gamesbykevin.chainreaction.balls;
 
-import com.gamesbykevin.androidframework.anim.Animation;
 import com.gamesbykevin.androidframework.base.Entity;
-import com.gamesbykevin.androidframework.resources.Images;
-import com.gamesbykevin.chainreaction.assets.Assets;
 import com.gamesbykevin.chainreaction.common.ICommon;
 import com.gamesbykevin.chainreaction.panel.GamePanel;
+import com.gamesbykevin.chainreaction.render.CanvasBackend;
+import com.gamesbykevin.chainreaction.render.RenderBuffer;
+import com.gamesbykevin.chainreaction.thread.MainThread;
+import com.gamesbykevin.chainreaction.thread.Quality;
 
 import android.graphics.Canvas;
 
+import java.nio.ByteBuffer;
+
+/**
+ * A ball, moving around the screen or expanding.<br>
+ * Everything a ball does is decided by the tick, so only the start of its movement and the start of its expansion are
+ * stored. The location and size at any tick are calculated when needed by {@link #sync(long)}, the ball does no work
+ * for the ticks in between.
+ * @author GOD
+ */
 public class Ball extends Entity implements ICommon
 {
 	/**
@@ -22,16 +32,6 @@ public class Ball extends Entity implements ICommon
 	//public static final int EXPLOSION_DIMENSION = 134;
 	public static final int EXPLOSION_DIMENSION = 140;
 	
-	/**
-	 * Default key for the single animation
-	 */
-	public static final String DEFAULT_KEY = "Default";
-	
-	/**
-	 * Unique key for the explosion animation
-	 */
-	public static final String EXPLOSION_KEY = "Explosion";
-	
 	/**
 	 * Different types of balls
 	 */
@@ -58,23 +58,87 @@ public class Ball extends Entity implements ICommon
 	//do we expand the ball
 	private boolean expand = false;
 	
-	//after expanding is complete we will pause
-	private boolean pause = false;
-	
 	//is the ball dead
 	private boolean dead = false;
 	
-	//keep track of how long we stay paused
-	private long time;
+	//is the ball exploding
+	private boolean explosion = false;
+	
+	//the tick the explosion started
+	private long explosionTick = 0;
+	
+	//the location of the ball on the sprite sheet
+	private int col, row;
 	
 	//how long do we stay paused
 	public static final long PAUSED_DURATION = 1100L;
 	
+	/**
+	 * The number of ticks we stay paused
+	 */
+	public static final long PAUSED_TICKS = (PAUSED_DURATION * MainThread.FPS + 999) / 1000;
+	
+	//the tick the ball is up to date with
+	private long current = 0;
+	
+	//the tick the ball started moving from the start location and velocity
+	private long moveTick = 0;
+	
+	//the location and velocity the ball started moving with
+	private double startX, startY, startDX, startDY;
+	
+	//the tick the ball started expanding
+	private long expandTick = 0;
+	
+	//the size when the ball started expanding
+	private double expandDimension;
+	
+	//the number of ticks to expand to the limit
+	private long growTicks;
+	
+	/**
+	 * The ball is moving around the screen
+	 */
+	public static final int STATE_MOVING = 0;
+	
+	/**
+	 * The ball is growing
+	 */
+	public static final int STATE_EXPANDING = 1;
+	
+	/**
+	 * The ball has finished growing and is waiting to shrink
+	 */
+	public static final int STATE_PAUSED = 2;
+	
+	/**
+	 * The ball is shrinking
+	 */
+	public static final int STATE_SHRINKING = 3;
+	
+	/**
+	 * The ball is dead
+	 */
+	public static final int STATE_DEAD = 4;
+	
+	/**
+	 * The number of states
+	 */
+	public static final int STATES = 5;
+	
+	//the position of the ball in the bucket of its phase, -1 if not in play
+	private int index = -1;
+	
 	/**
 	 * The duration of each frame in our explosion (milliseconds)
 	 */
 	public static final long EXPLOSION_DURATION = 75L;
 	
+	/**
+	 * The number of ticks each frame of our explosion is displayed
+	 */
+	public static final long EXPLOSION_TICKS = (EXPLOSION_DURATION * MainThread.FPS + 999) / 1000;
+	
 	/**
 	 * The speed at which the ball can expand
 	 */
@@ -83,7 +147,12 @@ public class Ball extends Entity implements ICommon
 	/**
 	 * The size at which we stop expanding the ball
 	 */
-	private static final double EXPAND_LIMIT = 96;
+	static final double EXPAND_LIMIT = 96;
+	
+	/**
+	 * The number of ticks shrinking until the ball is too small and dies
+	 */
+	private static final long SHRINK_TICKS = (long)Math.floor((EXPAND_LIMIT - 2) / (EXPAND_RATE * 2)) + 1;
 	
 	/**
 	 * Create ball
@@ -101,52 +170,73 @@ public class Ball extends Entity implements ICommon
 	 */
 	public Ball(final int col, final int row)
 	{
-		Animation animation = new Animation(
-			Images.getImage(Assets.ImageGameKey.Balls), 
-			col * SPRITE_DIMENSION, 
-			row * SPRITE_DIMENSION, 
-			SPRITE_DIMENSION, 
-			SPRITE_DIMENSION
-		);
-			
-		//the animation will not loop
-		animation.setLoop(false);
-		
-		//add single animation to sprite sheet
-		super.getSpritesheet().add(DEFAULT_KEY, animation);
+		//store the location, the ball is drawn from the shared sprite atlas
+		this.col = col;
+		this.row = row;
 		
 		//set a default size
 		this.setDimension(SPRITE_DIMENSION);
 	}
 	
 	/**
-	 * Add and set the explosion animation.<br>
+	 * Reset the ball so it can be used again as a new ball
+	 * @param type The type (a.k.a. color)
 	 */
-	public void addExplosion()
+	void reset(final Type type)
 	{
-		//only add explosion animation if it already doesn't exist
-		if (super.getSpritesheet().get(EXPLOSION_KEY) == null)
-		{
-			Animation animation = new Animation(Images.getImage(Assets.ImageGameKey.Explosion), 0, 0, EXPLOSION_DIMENSION, EXPLOSION_DIMENSION, 9, 1, 9);
-			
-			//the animation will not loop
-			animation.setLoop(false);
-			
-			//set the frame delay
-			animation.setDelay(EXPLOSION_DURATION);
-			
-			//add animation to sprite sheet
-			super.getSpritesheet().add(EXPLOSION_KEY, animation);
-		}
+		this.col = type.col;
+		this.row = type.row;
+		
+		//clear the state
+		setExpand(false);
+		setDead(false);
+		removeExplosion();
+		setDX(0);
+		setDY(0);
 		
+		//set a default size
+		setDimension(SPRITE_DIMENSION);
+	}
+	
+	/**
+	 * Start the explosion animation.<br>
+	 */
+	public void addExplosion()
+	{
 		//increase the size of the explosion
 		this.setDimension(getWidth() * 3);
 		
-		//set it as current animation
-		super.getSpritesheet().setKey(EXPLOSION_KEY);
+		//flag the explosion
+		this.explosion = true;
 		
 		//make sure animation starts from the beginning
-		super.getSpritesheet().get().reset();
+		this.explosionTick = current;
+	}
+	
+	/**
+	 * Stop the explosion animation so the ball is displayed again
+	 */
+	public void removeExplosion()
+	{
+		this.explosion = false;
+	}
+	
+	/**
+	 * Is the ball exploding?
+	 * @return true if the explosion animation is displayed, false otherwise
+	 */
+	public boolean hasExplosion()
+	{
+		return this.explosion;
+	}
+	
+	/**
+	 * Has the explosion animation finished?
+	 * @return true if all frames of the explosion have been displayed, false otherwise
+	 */
+	public boolean hasExplosionFinished()
+	{
+		return (current - explosionTick >= EXPLOSION_TICKS * SpriteAtlas.EXPLOSION_FRAMES);
 	}
 	
 	/**
@@ -155,7 +245,19 @@ public class Ball extends Entity implements ICommon
 	 */
 	public void setExpand(final boolean expand)
 	{
+		//if the ball starts expanding, the expansion starts now from the current size
+		if (expand && !this.expand)
+		{
+			this.expandTick = current;
+			this.expandDimension = getWidth();
+			this.growTicks = getGrowTicks(expandDimension);
+		}
+		
 		this.expand = expand;
+		
+		//if the ball stops expanding, it moves from where it is now
+		if (!expand)
+			rebase();
 	}
 	
 	/**
@@ -167,22 +269,13 @@ public class Ball extends Entity implements ICommon
 		return this.expand;
 	}
 	
-	/**
-	 * Flag the ball paused
-	 * @param pause true if the ball has finished expanding, false otherwise
-	 */
-	public void setPause(final boolean pause)
-	{
-		this.pause = pause;
-	}
-	
 	/**
 	 * Is the ball paused?
 	 * @return true if the ball has finished expanding, false otherwise
 	 */
 	public boolean hasPause()
 	{
-		return this.pause;
+		return (hasExpand() && current >= getHoldTick());
 	}
 	
 	/**
@@ -203,6 +296,245 @@ public class Ball extends Entity implements ICommon
 		return this.dead;
 	}
 	
+	/**
+	 * Get the state of the ball
+	 * @return STATE_MOVING, STATE_EXPANDING, STATE_PAUSED, STATE_SHRINKING or STATE_DEAD
+	 */
+	public int getState()
+	{
+		return getState(current);
+	}
+	
+	/**
+	 * Get the state of the ball at a tick.<br>
+	 * This does not change the ball, so it can be used to look ahead
+	 * @param tick The tick, at or after the tick the ball is up to date with
+	 * @return STATE_MOVING, STATE_EXPANDING, STATE_PAUSED, STATE_SHRINKING or STATE_DEAD
+	 */
+	public int getState(final long tick)
+	{
+		if (isDead())
+			return STATE_DEAD;
+		if (!hasExpand())
+			return STATE_MOVING;
+		if (tick < getHoldTick())
+			return STATE_EXPANDING;
+		if (tick < getShrinkTick())
+			return STATE_PAUSED;
+		if (tick < getDeathTick())
+			return STATE_SHRINKING;
+		
+		return STATE_DEAD;
+	}
+	
+	/**
+	 * Get the number of ticks to expand to the limit
+	 * @param dimension The size when the ball started expanding
+	 * @return The number of ticks, at least 1
+	 */
+	private static long getGrowTicks(final double dimension)
+	{
+		return Math.max(1, (long)Math.floor((EXPAND_LIMIT - dimension) / EXPAND_RATE) + 1);
+	}
+	
+	/**
+	 * Get the tick the ball reaches the limit and pauses
+	 * @return The tick, only valid while expanding
+	 */
+	long getHoldTick()
+	{
+		return expandTick + growTicks;
+	}
+	
+	/**
+	 * Get the tick the ball starts shrinking
+	 * @return The tick, only valid while expanding
+	 */
+	long getShrinkTick()
+	{
+		return getHoldTick() + PAUSED_TICKS;
+	}
+	
+	/**
+	 * Get the tick the ball is too small and dies
+	 * @return The tick, only valid while expanding
+	 */
+	long getDeathTick()
+	{
+		return getShrinkTick() + SHRINK_TICKS - 1;
+	}
+	
+	/**
+	 * Get the tick the ball is up to date with
+	 * @return The tick of the last sync
+	 */
+	public long getTick()
+	{
+		return this.current;
+	}
+	
+	/**
+	 * Start the clock of the ball, used when the ball is placed in play.<br>
+	 * The ball does not change, it starts moving and expanding from the tick
+	 * @param tick The tick
+	 */
+	void setTick(final long tick)
+	{
+		this.current = tick;
+		this.moveTick = tick;
+		this.expandTick = tick;
+	}
+	
+	/**
+	 * Store the current location and velocity as where the ball starts moving
+	 */
+	private void rebase()
+	{
+		this.moveTick = current;
+		this.startX = getX();
+		this.startY = getY();
+		this.startDX = getDX();
+		this.startDY = getDY();
+	}
+	
+	/**
+	 * Bring the ball up to date with the tick.<br>
+	 * The location, velocity and size are calculated from the start of the movement or expansion, so this takes the
+	 * same time no matter how many ticks have passed
+	 * @param tick The tick, at or after the tick the ball is up to date with
+	 */
+	public void sync(final long tick)
+	{
+		//if we are already up to date there is nothing to do
+		if (tick == current)
+			return;
+		
+		this.current = tick;
+		
+		//a dead ball no longer changes
+		if (isDead())
+			return;
+		
+		if (hasExpand())
+		{
+			//the ticks since the expansion started
+			final long elapsed = tick - expandTick;
+			
+			if (elapsed < growTicks)
+			{
+				//expanding
+				resize(expandDimension + (EXPAND_RATE * elapsed));
+			}
+			else if (elapsed < growTicks + PAUSED_TICKS)
+			{
+				//paused at the limit
+				resize(EXPAND_LIMIT);
+			}
+			else
+			{
+				//shrinking, each tick since the pause ended
+				resize(EXPAND_LIMIT - (EXPAND_RATE * 2) * (elapsed - growTicks - PAUSED_TICKS + 1));
+				
+				//if the ball is too small, flag dead
+				if (tick >= getDeathTick())
+					setDead(true);
+			}
+		}
+		else
+		{
+			//the ticks since the movement started
+			final long elapsed = Math.max(0, tick - moveTick);
+			
+			//the ball bounces within the screen, keeping its center half the size from the edge
+			final double radius = getWidth() / 2;
+			
+			//the number of steps forward along each axis, bouncing back and forth
+			final long stepX = getStep(elapsed, startX, startDX, radius, GamePanel.WIDTH - radius);
+			final long stepY = getStep(elapsed, startY, startDY, radius, GamePanel.HEIGHT - radius);
+			
+			super.setX(startX + (startDX * stepX));
+			super.setY(startY + (startDY * stepY));
+			
+			//the velocity is the direction of the next step
+			super.setDX((getStep(elapsed + 1, startX, startDX, radius, GamePanel.WIDTH - radius) > stepX) ? startDX : -startDX);
+			super.setDY((getStep(elapsed + 1, startY, startDY, radius, GamePanel.HEIGHT - radius) > stepY) ? startDY : -startDY);
+		}
+	}
+	
+	/**
+	 * Get the number of steps forward a bouncing ball is from the start.<br>
+	 * Each tick the ball moves one step, and reverses after passing an edge while moving toward it. The ball moves
+	 * forward until passing the far edge, then goes back and forth between passing the near edge and the far edge.
+	 * @param elapsed The number of ticks moved
+	 * @param start The start location
+	 * @param velocity The start velocity
+	 * @param min The smallest location before reversing
+	 * @param max The largest location before reversing
+	 * @return The number of steps of the start velocity from the start location
+	 */
+	static long getStep(final long elapsed, final double start, final double velocity, final double min, final double max)
+	{
+		//a ball that doesn't move is always at the start
+		if (velocity == 0)
+			return 0;
+		
+		final double speed = Math.abs(velocity);
+		
+		//the distance to pass the edge in front of the ball, and the edge behind the ball
+		final double front = (velocity > 0) ? max - start : start - min;
+		final double back = (velocity > 0) ? min - start : start - max;
+		
+		//the first step past the edge in front, and the last step past the edge behind
+		final long far = (long)Math.floor(front / speed) + 1;
+		final long near = (long)Math.ceil(back / speed) - 1;
+		
+		//we move forward until the first reverse, a ball past the edge in front reverses after one step
+		final long first = Math.max(1, far);
+		
+		if (elapsed <= first)
+			return elapsed;
+		
+		//then back until past the edge behind
+		final long returned = elapsed - first;
+		
+		if (returned <= first - near)
+			return first - returned;
+		
+		//then back and forth between the edges
+		final long span = Math.max(1, far - near);
+		final long position = (returned - (first - near)) % (span * 2);
+		
+		return (position <= span) ? near + position : near + (span * 2) - position;
+	}
+	
+	/**
+	 * Assign the size without changing where the ball starts moving
+	 * @param d Pixel size of the ball
+	 */
+	private void resize(final double d)
+	{
+		super.setWidth(d);
+		super.setHeight(d);
+	}
+	
+	/**
+	 * Get the position of the ball in its bucket
+	 * @return The index, -1 if not in play
+	 */
+	int getIndex()
+	{
+		return this.index;
+	}
+	
+	/**
+	 * Assign the position of the ball in its bucket
+	 * @param index The index, -1 if not in play
+	 */
+	void setIndex(final int index)
+	{
+		this.index = index;
+	}
+	
 	/**
 	 * Does the ball have collision?
 	 * @param entity The entity we want to check
@@ -230,81 +562,145 @@ public class Ball extends Entity implements ICommon
 	@Override
 	public void update() throws Exception 
 	{
-		//update the current assigned animation
-		super.getSpritesheet().update();
+		//advance the ball a single tick
+		sync(current + 1);
+	}
+	
+	/**
+	 * Get the sprite to draw.<br>
+	 * Only constants of the atlas are used, so the sprite can be recorded without a device
+	 * @return The sprite, -1 if nothing is drawn
+	 */
+	private int getSprite()
+	{
+		//skip if dead and the animation has finished
+		if (isDead() && (!hasExplosion() || hasExplosionFinished()) || getWidth() < 1 || getHeight() < 1)
+			return -1;
 		
-		//if we are expanding
-		if (hasExpand())
+		if (hasExplosion())
 		{
-			if (hasPause())
-			{
-				//if the ball has been paused long enough
-				if (System.currentTimeMillis() - time >= PAUSED_DURATION)
-				{
-					//shrink the ball
-					setDimension(getWidth() - (EXPAND_RATE * 2));
-					
-					//if the ball is too small, flag dead
-					if (getWidth() < 2 || getHeight() < 2)
-						setDead(true);
-				}
-			}
-			else
-			{
-				//expand the ball
-				setDimension(getWidth() + EXPAND_RATE);
-				
-				//make sure we don't get to big
-				if (getWidth() > EXPAND_LIMIT || getHeight() > EXPAND_LIMIT)
-				{
-					//limit size
-					setDimension(EXPAND_LIMIT);
-					
-					//flag true
-					setPause(true);
-					
-					//store the time
-					this.time = System.currentTimeMillis();
-				}
-			}
+			//determine the current frame of the explosion
+			int frame = (int)Math.min(SpriteAtlas.EXPLOSION_FRAMES - 1, (current - explosionTick) / EXPLOSION_TICKS);
+			
+			//when the quality is lowered some frames are skipped, the explosion lasts as long
+			frame -= frame % Quality.getExplosionStep();
+			
+			//the explosion
+			return RenderBuffer.getSprite(SpriteAtlas.ID_EXPLOSION, frame);
+		}
+		else if (Quality.hasCircle(getWidth()))
+		{
+			//a plain circle for a small ball when the quality is lowered
+			return RenderBuffer.getCircle(SpriteAtlas.ID_BALLS, row * SpriteAtlas.BALL_COLS + col);
 		}
 		else
 		{
-			//update location
-			setX(getX() + getDX());
-			setY(getY() + getDY());
-			
-			//make sure we stay within the width of the screen
-			if (getX() < (getWidth() / 2) && getDX() < 0 || getX() > GamePanel.WIDTH - (getWidth() / 2) && getDX() > 0)
-				setDX(-getDX());
-			
-			//make sure we stay within the height of the screen
-			if (getY() < (getHeight() / 2) && getDY() < 0 || getY() > GamePanel.HEIGHT - (getHeight() / 2) && getDY() > 0)
-				setDY(-getDY());
+			//the ball
+			return RenderBuffer.getSprite(SpriteAtlas.ID_BALLS, row * SpriteAtlas.BALL_COLS + col);
 		}
 	}
 	
+	/**
+	 * Record the ball to be drawn when the buffer is replayed
+	 * @param buffer The commands of the frame
+	 * @param layer The layer the ball is drawn on
+	 */
+	public void record(final RenderBuffer buffer, final int layer)
+	{
+		record(buffer, layer, 0, 0);
+	}
+	
+	/**
+	 * Record the ball to be drawn away from its location when the buffer is replayed
+	 * @param buffer The commands of the frame
+	 * @param layer The layer the ball is drawn on
+	 * @param offsetX How far from its location the ball is drawn horizontally
+	 * @param offsetY How far from its location the ball is drawn vertically
+	 */
+	public void record(final RenderBuffer buffer, final int layer, final float offsetX, final float offsetY)
+	{
+		final int sprite = getSprite();
+		
+		if (sprite < 0)
+			return;
+		
+		//the ball is drawn centered on its location
+		final float x = (float)(getX() - (getWidth() / 2)) + offsetX;
+		final float y = (float)(getY() - (getHeight() / 2)) + offsetY;
+		
+		buffer.add(sprite, x, y, x + (float)getWidth(), y + (float)getWidth(), RenderBuffer.OPAQUE, layer);
+	}
+	
 	@Override
 	public void render(final Canvas canvas) throws Exception
 	{
-		//skip if dead and the animation has finished
-		if (isDead() && super.getSpritesheet().get().hasFinished() || getWidth() < 1 || getHeight() < 1)
+		final int sprite = getSprite();
+		
+		if (sprite < 0)
 			return;
 		
-		//store original location
-		final double x = getX();
-		final double y = getY();
+		//the ball is drawn centered on its location
+		final float x = (float)(getX() - (getWidth() / 2));
+		final float y = (float)(getY() - (getHeight() / 2));
+		
+		CanvasBackend.render(canvas, sprite, x, y, x + (float)getWidth(), y + (float)getWidth(), RenderBuffer.OPAQUE);
+	}
+	
+	/**
+	 * Write the ball to the snapshot.<br>
+	 * The ball is written as it is now, with the ticks since the expansion and explosion started, so it continues from the same point
+	 * when restored
+	 * @param buffer Where the ball is written
+	 */
+	public void write(final ByteBuffer buffer)
+	{
+		buffer.put((byte)col);
+		buffer.put((byte)row);
+		buffer.putDouble(getX());
+		buffer.putDouble(getY());
+		buffer.putDouble(getDX());
+		buffer.putDouble(getDY());
+		buffer.putDouble(getWidth());
+		buffer.put((byte)((hasExpand() ? 1 : 0) | (isDead() ? 4 : 0) | (hasExplosion() ? 8 : 0)));
+		buffer.putDouble(expandDimension);
+		buffer.putLong(current - expandTick);
+		buffer.putLong(current - explosionTick);
+	}
+	
+	/**
+	 * Read a ball from the snapshot.<br>
+	 * The clock of the restored ball starts at tick 0
+	 * @param buffer Where the ball was written
+	 * @return The restored ball
+	 */
+	public static Ball read(final ByteBuffer buffer)
+	{
+		final Ball ball = new Ball(buffer.get(), buffer.get());
+		ball.setX(buffer.getDouble());
+		ball.setY(buffer.getDouble());
+		ball.setDX(buffer.getDouble());
+		ball.setDY(buffer.getDouble());
+		ball.setDimension(buffer.getDouble());
+		
+		final int flags = buffer.get();
+		ball.setDead((flags & 4) != 0);
+		ball.explosion = ((flags & 8) != 0);
+		
+		//the expansion continues from the same point
+		final double expandDimension = buffer.getDouble();
+		final long expandElapsed = buffer.getLong();
 		
-		//offset location
-		setX(x- (getWidth() / 2));
-		setY(y - (getHeight() / 2));
+		if ((flags & 1) != 0)
+		{
+			ball.expandDimension = expandDimension;
+			ball.expandTick = -expandElapsed;
+			ball.growTicks = getGrowTicks(expandDimension);
+			ball.expand = true;
+		}
 		
-		//render the ball
-		super.render(canvas);
+		ball.explosionTick = -buffer.getLong();
 		
-		//restore original location
-		setX(x);
-		setY(y);
+		return ball;
 	}
 	
 	/**
@@ -321,14 +717,42 @@ public class Ball extends Entity implements ICommon
 	@Override
 	public void setHeight(final double h)
 	{
-		super.setHeight(h);
-		super.setWidth(h);
+		resize(h);
+		rebase();
 	}
 	
 	@Override
 	public void setWidth(final double w)
 	{
-		super.setWidth(w);
-		super.setHeight(w);
+		resize(w);
+		rebase();
+	}
+	
+	@Override
+	public void setX(final double x)
+	{
+		super.setX(x);
+		rebase();
+	}
+	
+	@Override
+	public void setY(final double y)
+	{
+		super.setY(y);
+		rebase();
+	}
+	
+	@Override
+	public void setDX(final double dx)
+	{
+		super.setDX(dx);
+		rebase();
+	}
+	
+	@Override
+	public void setDY(final double dy)
+	{
+		super.setDY(dy);
+		rebase();
 	}
 }
\ No newline at end of file
@@ -1,21 +1,142 @@
 package com.gamesbykevin.chainreaction.balls;
 
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Random;
 
 import com.gamesbykevin.chainreaction.assets.Assets;
 import com.gamesbykevin.chainreaction.common.ICommon;
 import com.gamesbykevin.chainreaction.game.Game;
 import com.gamesbykevin.chainreaction.panel.GamePanel;
 import com.gamesbykevin.chainreaction.player.Player;
+import com.gamesbykevin.chainreaction.render.RenderBuffer;
+import com.gamesbykevin.chainreaction.thread.Workers;
 
 import android.graphics.Canvas;
 
+import java.nio.ByteBuffer;
+
+/**
+ * The balls in play.<br>
+ * Each ball is kept in the bucket of its phase (moving, growing, holding, shrinking), and moves to the next bucket
+ * when its phase changes. A dead ball leaves play. Each bucket is updated by its own loop, so a loop does one thing
+ * for every ball in it, and a phase with no balls costs nothing.<br>
+ * The tick each expanded ball changes phase is known when it starts expanding, so an expanded ball is only brought
+ * up to date when it is checked for collision or rendered.<br>
+ * In reaction mode every moving ball is checked against the expanded balls as they were at the start of the update,
+ * then the balls that collided start expanding. The result does not depend on the order the balls are checked, so
+ * large boards are split into vertical strips checked by several threads, with the same result as a single thread.
+ * @author GOD
+ */
 public class Balls implements ICommon 
 {
-	//list of balls
-	private List<Ball> balls;
+	//the balls that have not expanded
+	private ArrayList<Ball> moving;
+	
+	//the balls expanding
+	private ArrayList<Ball> growing;
+	
+	//the balls that finished expanding, waiting to shrink
+	private ArrayList<Ball> holding;
+	
+	//the balls shrinking
+	private ArrayList<Ball> shrinking;
+	
+	//balls removed from play, kept to be used again so no balls are created while playing
+	private ArrayList<Ball> pool;
+	
+	/**
+	 * The ball types, values() creates a new array every call
+	 */
+	private static final Ball.Type[] TYPES = Ball.Type.values();
+	
+	//the indexes of the types not yet picked when placing balls
+	private final int[] bag = new int[TYPES.length];
+	
+	//the number of types left in the bag
+	private int bagSize = 0;
+	
+	//the number of balls that have died since the last reset
+	private int dead = 0;
+	
+	//the current tick, counted from the last reset
+	private long tick = 0;
 
+	/**
+	 * The number of moving balls before the reaction is checked by more than 1 thread
+	 */
+	public static final int PARALLEL_THRESHOLD = 1000;
+	
+	/**
+	 * The number of strips for each thread, more strips balance the work when the balls are bunched up
+	 */
+	private static final int STRIPS_PER_WORKER = 4;
+	
+	/**
+	 * The number of threads available for the reaction
+	 */
+	private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+	
+	//the threads checking the reaction of large boards, created when first needed
+	private Workers workers;
+	
+	//did each moving ball collide in this update
+	private boolean[] hits = new boolean[0];
+	
+	//the number of strips, and the width of each
+	private int strips;
+	private double stripWidth;
+	
+	//the moving balls sorted by strip, and where each strip starts
+	private int[] stripMoving = new int[0];
+	private int[] movingStart;
+	
+	//the expanded balls in each strip they overlap, and where each strip starts
+	private Ball[] stripExpanded = new Ball[0];
+	private int[] expandedStart;
+	
+	//the next position to fill in each strip when sorting
+	private int[] cursor;
+	
+	//can the player's ball expand the other balls in this update
+	private boolean playerExpanding;
+	
+	/**
+	 * Bring a share of every ball up to date
+	 */
+	private final Workers.Job syncJob = new Workers.Job()
+	{
+		@Override
+		public void run(final int index, final int count)
+		{
+			sync(moving, index, count);
+			sync(growing, index, count);
+			sync(holding, index, count);
+			sync(shrinking, index, count);
+		}
+	};
+	
+	/**
+	 * Check the moving balls in a share of the strips
+	 */
+	private final Workers.Job checkJob = new Workers.Job()
+	{
+		@Override
+		public void run(final int index, final int count)
+		{
+			for (int strip = index; strip < strips; strip += count)
+			{
+				for (int k = movingStart[strip]; k < movingStart[strip + 1]; k++)
+				{
+					final int i = stripMoving[k];
+					final Ball ball = moving.get(i);
+					
+					hits[i] = hasStripCollision(ball) || playerExpanding && ball.hasCollision(player.getBall());
+				}
+			}
+		}
+	};
+	
 	/**
 	 * Default starting size of the balls
 	 */
@@ -38,6 +159,9 @@ public class Balls implements ICommon
 	//time to track when spawning a new ball
 	private long time;
 	
+	//are the collisions heard
+	private boolean sound = true;
+	
 	/**
 	 * The range of size in balls for capture mode
 	 */
@@ -61,10 +185,156 @@ public class Balls implements ICommon
 		//the reference to the player's ball
 		this.player = player;
 		
-		//create list to contain the balls
-		this.balls = new ArrayList<Ball>();
+		//create a list for each phase
+		this.moving = new ArrayList<Ball>();
+		this.growing = new ArrayList<Ball>();
+		this.holding = new ArrayList<Ball>();
+		this.shrinking = new ArrayList<Ball>();
+		
+		//create list to contain the unused balls
+		this.pool = new ArrayList<Ball>();
 	}
-
+	
+	/**
+	 * Get a ball, an unused ball is used again if available
+	 * @param type The type (a.k.a. color)
+	 * @return The ball
+	 */
+	private Ball obtain(final Ball.Type type)
+	{
+		//if there are no unused balls, create one
+		final Ball ball = (pool.isEmpty()) ? new Ball(type) : pool.remove(pool.size() - 1);
+		
+		//the ball starts from the current tick
+		ball.setTick(tick);
+		ball.reset(type);
+		return ball;
+	}
+	
+	/**
+	 * Get the bucket of the phase
+	 * @param state The state of the ball
+	 * @return The bucket, null if the ball is dead
+	 */
+	private ArrayList<Ball> getBucket(final int state)
+	{
+		switch (state)
+		{
+			case Ball.STATE_MOVING:
+				return moving;
+				
+			case Ball.STATE_EXPANDING:
+				return growing;
+				
+			case Ball.STATE_PAUSED:
+				return holding;
+				
+			case Ball.STATE_SHRINKING:
+				return shrinking;
+				
+			default:
+				return null;
+		}
+	}
+	
+	/**
+	 * Add a ball to play, in the bucket of its phase
+	 * @param ball The ball
+	 */
+	private void add(final Ball ball)
+	{
+		final ArrayList<Ball> bucket = getBucket(ball.getState());
+		
+		//a dead ball is not in play
+		if (bucket == null)
+		{
+			dead++;
+			pool.add(ball);
+			return;
+		}
+		
+		attach(ball, bucket);
+	}
+	
+	/**
+	 * Place the ball at the end of the bucket
+	 * @param ball The ball
+	 * @param bucket The bucket of the ball's phase
+	 */
+	private static void attach(final Ball ball, final ArrayList<Ball> bucket)
+	{
+		ball.setIndex(bucket.size());
+		bucket.add(ball);
+	}
+	
+	/**
+	 * Take the ball out of the bucket.<br>
+	 * The last ball of the bucket takes its place, so the ball now at its index has not been updated yet
+	 * @param ball The ball
+	 * @param bucket The bucket containing the ball
+	 */
+	private static void detach(final Ball ball, final ArrayList<Ball> bucket)
+	{
+		final int index = ball.getIndex();
+		final Ball last = bucket.remove(bucket.size() - 1);
+		
+		//move the last ball into the empty spot
+		if (last != ball)
+		{
+			bucket.set(index, last);
+			last.setIndex(index);
+		}
+		
+		ball.setIndex(-1);
+	}
+	
+	/**
+	 * Move the ball to the bucket of its next phase
+	 * @param ball The ball
+	 * @param from The bucket containing the ball
+	 * @param to The bucket of the next phase
+	 */
+	private static void transfer(final Ball ball, final ArrayList<Ball> from, final ArrayList<Ball> to)
+	{
+		detach(ball, from);
+		attach(ball, to);
+	}
+	
+	/**
+	 * Remove a ball from play, the ball is kept to be used again
+	 * @param ball The ball
+	 * @param bucket The bucket containing the ball
+	 */
+	private void remove(final Ball ball, final ArrayList<Ball> bucket)
+	{
+		detach(ball, bucket);
+		pool.add(ball);
+	}
+	
+	/**
+	 * Remove every ball in the bucket, the balls are kept to be used again
+	 * @param bucket The bucket
+	 */
+	private void clear(final ArrayList<Ball> bucket)
+	{
+		for (int i = 0; i < bucket.size(); i++)
+		{
+			bucket.get(i).setIndex(-1);
+			pool.add(bucket.get(i));
+		}
+		
+		bucket.clear();
+	}
+	
+	/**
+	 * Flag the collision sound
+	 * @param sound true if collisions play a sound, false to update silently
+	 */
+	public void setSound(final boolean sound)
+	{
+		this.sound = sound;
+	}
+	
 	/**
 	 * Get the goal
 	 * @return The remaining balls needed to reach the goal
@@ -104,31 +374,42 @@ public class Balls implements ICommon
 		//store the goal
 		setGoal(goal);
 		
-		//remove any existing balls
-		get().clear();
+		//remove any existing balls, keeping them to be used again
+		clear(moving);
+		clear(growing);
+		clear(holding);
+		clear(shrinking);
+		
+		//start with every type in the bag
+		this.bagSize = 0;
+		
+		//no balls have died yet
+		this.dead = 0;
 		
-		//create temporary list of ball types
-		List<Ball.Type> types = new ArrayList<Ball.Type>();
+		//start counting ticks again
+		this.tick = 0;
 		
-		while (get().size() < count)
+		while (moving.size() < count)
 		{
 			//make sure we have all types to choose from
-			if (types.isEmpty())
+			if (bagSize == 0)
 			{
-				for (Ball.Type type : Ball.Type.values())
+				for (int i = 0; i < TYPES.length; i++)
 				{
-					types.add(type);
+					bag[i] = i;
 				}
+				
+				bagSize = TYPES.length;
 			}
 			
-			//pick a random type
-			final int randomIndex = GamePanel.RANDOM.nextInt(types.size());
+			//pick a random type from the bag
+			final int randomIndex = GamePanel.RANDOM.nextInt(bagSize);
 			
 			//create a new ball of random type
-			Ball ball = new Ball(Ball.Type.values()[randomIndex]);
+			Ball ball = obtain(TYPES[bag[randomIndex]]);
 			
-			//remove type from list
-			types.remove(randomIndex);
+			//remove type from the bag
+			bag[randomIndex] = bag[--bagSize];
 			
 			//set ball size
 			ball.setDimension(START_DIMENSION);
@@ -143,8 +424,8 @@ public class Balls implements ICommon
 				ball.setX(GamePanel.RANDOM.nextInt(GamePanel.WIDTH));
 				ball.setY(GamePanel.RANDOM.nextInt(GamePanel.HEIGHT));
 				
-				//if there is no collision, exit the loop
-				if (!hasCollision(ball))
+				//if there is no collision with the placed balls, exit the loop
+				if (!hasCollision(ball, moving))
 					break;
 			}
 			
@@ -156,251 +437,632 @@ public class Balls implements ICommon
 			ball.setDY(GamePanel.RANDOM.nextBoolean() ? BALL_VELOCITY : -BALL_VELOCITY);
 			
 			//add ball to the list
-			get().add(ball);
+			add(ball);
 		}
+		
+		//make sure every ball can change phase or be returned to the pool without a list growing
+		ensureCapacity();
 	}
 	
 	/**
-	 * Get the list of current balls in play
-	 * @return The list of current
+	 * Reset the balls for the stress benchmark.<br>
+	 * The balls are placed from the seed without checking for overlap, so every device plays the same board
+	 * @param count The number of balls we want to add
+	 * @param seed The seed of the board
 	 */
-	public List<Ball> get()
+	public void reset(final int count, final long seed)
 	{
-		return this.balls;
+		//remove the existing balls, the benchmark plays the reaction
+		reset(0, 0, Game.MODE_REACTION);
+		
+		final Random random = new Random(seed);
+		
+		while (moving.size() < count)
+		{
+			//create a new ball of random type
+			final Ball ball = obtain(TYPES[random.nextInt(TYPES.length)]);
+			
+			//set ball size
+			ball.setDimension(START_DIMENSION);
+			
+			//pick random location
+			ball.setX(random.nextInt(GamePanel.WIDTH));
+			ball.setY(random.nextInt(GamePanel.HEIGHT));
+			
+			//pick random velocity
+			ball.setDX(random.nextBoolean() ? BALL_VELOCITY : -BALL_VELOCITY);
+			ball.setDY(random.nextBoolean() ? BALL_VELOCITY : -BALL_VELOCITY);
+			
+			//add ball to play
+			attach(ball, moving);
+		}
+		
+		//make sure every ball can change phase or be returned to the pool without a list growing
+		ensureCapacity();
+	}
+	
+	/**
+	 * Make sure every ball in play can change phase or be returned to the pool without a list growing
+	 */
+	private void ensureCapacity()
+	{
+		if (hits.length < moving.size())
+			hits = new boolean[moving.size()];
+		
+		pool.ensureCapacity(pool.size() + moving.size());
+		growing.ensureCapacity(moving.size());
+		holding.ensureCapacity(moving.size());
+		shrinking.ensureCapacity(moving.size());
 	}
 	
 	/**
 	 * Count the total number of balls that have been expanded.
-	 * @return the total number of balls that have expanded true
+	 * @return the total number of balls that have expanded true and are not dead
 	 */
 	public int getExpandedCount()
 	{
-		//keep track of count
-		int count = 0;
+		return getExpandingCount() + getPausedCount() + getShrinkingCount();
+	}
+	
+	/**
+	 * Get the number of balls moving
+	 * @return The number of balls in play that have not expanded
+	 */
+	public int getMovingCount()
+	{
+		return moving.size();
+	}
+	
+	/**
+	 * Get the number of balls expanding
+	 * @return The number of balls in play that are growing
+	 */
+	public int getExpandingCount()
+	{
+		return growing.size();
+	}
+	
+	/**
+	 * Get the number of balls paused
+	 * @return The number of balls in play that finished growing, as of the last update
+	 */
+	public int getPausedCount()
+	{
+		return holding.size();
+	}
+	
+	/**
+	 * Get the number of balls shrinking
+	 * @return The number of balls in play that are shrinking, as of the last update
+	 */
+	public int getShrinkingCount()
+	{
+		return shrinking.size();
+	}
+	
+	/**
+	 * Get the number of balls that died
+	 * @return The number of balls that have died since the last reset
+	 */
+	public int getDeadCount()
+	{
+		return this.dead;
+	}
+	
+	/**
+	 * Get the number of balls in play
+	 * @return The number of balls in play
+	 */
+	public int getTotalCount()
+	{
+		//there are no balls once disposed
+		if (moving == null)
+			return 0;
 		
-		//check each ball
-		for (Ball ball : get())
+		return moving.size() + growing.size() + holding.size() + shrinking.size();
+	}
+	
+	/**
+	 * Write the balls to the snapshot
+	 * @param buffer Where the balls are written
+	 */
+	public void write(final ByteBuffer buffer)
+	{
+		buffer.putInt(modeIndex);
+		buffer.putInt(goal);
+		buffer.putLong(System.currentTimeMillis() - time);
+		buffer.putInt(dead);
+		buffer.putInt(getTotalCount());
+		
+		write(buffer, moving);
+		write(buffer, growing);
+		write(buffer, holding);
+		write(buffer, shrinking);
+	}
+	
+	/**
+	 * Write the balls of the bucket to the snapshot
+	 * @param buffer Where the balls are written
+	 * @param bucket The bucket
+	 */
+	private static void write(final ByteBuffer buffer, final ArrayList<Ball> bucket)
+	{
+		for (int i = 0; i < bucket.size(); i++)
+		{
+			bucket.get(i).write(buffer);
+		}
+	}
+	
+	/**
+	 * Read the balls from the snapshot, replacing the balls in play
+	 * @param buffer Where the balls were written
+	 */
+	public void read(final ByteBuffer buffer)
+	{
+		this.modeIndex = buffer.getInt();
+		setGoal(buffer.getInt());
+		this.time = System.currentTimeMillis() - buffer.getLong();
+		final int dead = buffer.getInt();
+		
+		//the restored balls start from tick 0
+		this.tick = 0;
+		
+		//remove any existing balls
+		clear(moving);
+		clear(growing);
+		clear(holding);
+		clear(shrinking);
+		
+		//each ball is placed in the bucket of its phase
+		for (int count = buffer.getInt(); count > 0; count--)
 		{
-			//if the ball hasn't been flagged dead and has expanded
-			if (!ball.isDead() && ball.hasExpand())
-				count++;
+			add(Ball.read(buffer));
 		}
 		
-		//return our result
-		return count;
+		//the balls that died before the snapshot
+		this.dead = dead;
 	}
 	
 	@Override
 	public void dispose() 
 	{
-		if (this.balls != null)
+		if (this.workers != null)
 		{
-			for (int i = 0; i < this.balls.size(); i++)
+			this.workers.dispose();
+			this.workers = null;
+		}
+		
+		this.moving = dispose(this.moving);
+		this.growing = dispose(this.growing);
+		this.holding = dispose(this.holding);
+		this.shrinking = dispose(this.shrinking);
+		this.pool = dispose(this.pool);
+	}
+	
+	/**
+	 * Dispose every ball in the list
+	 * @param list The list of balls
+	 * @return null, so the reference can be cleared
+	 */
+	private static ArrayList<Ball> dispose(final ArrayList<Ball> list)
+	{
+		if (list != null)
+		{
+			for (int i = 0; i < list.size(); i++)
 			{
-				this.balls.get(i).dispose();
-				this.balls.set(i, null);
+				list.get(i).dispose();
 			}
 			
-			this.balls.clear();
-			this.balls = null;
+			list.clear();
 		}
+		
+		return null;
 	}
 
 	/**
 	 * Do we have collision?<br>
-	 * Here we are checking to see if 2 balls have collided that are not dead, and at least 1 expanding
-	 * @param ball The ball we want to check against the balls list
-	 * @return true if the specified ball collides with any ball and both are not dead, with at least 1 ball expanding
+	 * Check if the ball collides with any ball in the bucket, each ball checked is brought up to date
+	 * @param ball The ball we want to check
+	 * @param bucket The balls to check against
+	 * @return true if the ball collides with any ball in the bucket, false otherwise
 	 */
-	private boolean hasCollision(final Ball ball)
+	private boolean hasCollision(final Ball ball, final ArrayList<Ball> bucket)
 	{
-		//if this ball is dead, we can't check for collision
-		if (ball.isDead())
-			return false;
+		for (int i = 0; i < bucket.size(); i++)
+		{
+			final Ball tmp = bucket.get(i);
+			tmp.sync(tick);
+			
+			if (tmp.hasCollision(ball))
+				return true;
+		}
 		
-		//check each ball in our list
-		for (Ball tmp : get())
+		//we did not find any collisions
+		return false;
+	}
+	
+	@Override
+	public void update() throws Exception 
+	{
+		if (moving == null)
+			return;
+		
+		//advance to the next tick
+		tick++;
+		
+		//the number of collisions in this update, played as a single sound
+		final int collisions;
+		
+		//the mode is checked once per update, not for every ball
+		if (this.modeIndex == Game.MODE_CAPTURE)
+		{
+			collisions = updateCapture();
+		}
+		else
 		{
-			//if this is the same ball, skip it
-			if (tmp.hasId(ball))
+			collisions = updateReaction();
+		}
+		
+		//if we are to play a collision sound effect
+		if (collisions > 0 && sound)
+			Assets.playCollisionSound(collisions);
+	}
+	
+	/**
+	 * Update the balls in reaction mode.<br>
+	 * The phases are updated from last to first, so a ball that moves to the next phase is not updated twice. Only the
+	 * moving balls are brought up to date every tick, an expanded ball only changes buckets at the tick it changes phase
+	 * @return The number of balls that started expanding
+	 * @throws Exception
+	 */
+	private int updateReaction() throws Exception
+	{
+		//shrink, a ball that is too small dies and leaves play
+		for (int i = 0; i < shrinking.size(); )
+		{
+			final Ball ball = shrinking.get(i);
+			
+			if (tick >= ball.getDeathTick())
+			{
+				//flag the ball dead
+				ball.sync(tick);
+				remove(ball, shrinking);
+				dead++;
 				continue;
+			}
+			
+			i++;
+		}
+		
+		//hold, a ball that has paused long enough starts shrinking
+		for (int i = 0; i < holding.size(); )
+		{
+			final Ball ball = holding.get(i);
 			
-			//if this ball is dead, we can't check for collision
-			if (tmp.isDead())
+			if (tick >= ball.getShrinkTick())
+			{
+				transfer(ball, holding, shrinking);
 				continue;
+			}
 			
-			//check if we have collision
-			if (tmp.hasCollision(ball))
+			i++;
+		}
+		
+		//grow, a ball at the limit starts holding
+		for (int i = 0; i < growing.size(); )
+		{
+			final Ball ball = growing.get(i);
+			
+			if (tick >= ball.getHoldTick())
 			{
-				//if either is expanding, return true
-				if (tmp.hasExpand() || ball.hasExpand())
-					return true;
+				transfer(ball, growing, holding);
+				continue;
 			}
+			
+			i++;
 		}
 		
-		//we did not find any collisions
-		return false;
+		//can the player's ball expand the other balls
+		final Ball playerBall = player.getBall();
+		this.playerExpanding = (!playerBall.isDead() && playerBall.hasExpand());
+		
+		//small boards cascade in order, a ball that starts growing can expand the balls checked after it
+		if (moving.size() < PARALLEL_THRESHOLD || PROCESSORS < 2)
+			return updateMoving(playerBall);
+		
+		//make sure there is a flag for each moving ball
+		if (hits.length < moving.size())
+			hits = new boolean[moving.size()];
+		
+		//move, and flag each ball touching an expanded ball
+		checkParallel();
+		
+		//the number of collisions in this update
+		int collisions = 0;
+		
+		//start the flagged balls growing, from the last so the ball swapped into an empty spot was already checked
+		for (int i = moving.size() - 1; i >= 0; i--)
+		{
+			if (!hits[i])
+				continue;
+			
+			final Ball ball = moving.get(i);
+			ball.setExpand(true);
+			transfer(ball, moving, growing);
+			
+			//decrease the goal
+			setGoal(getGoal() - 1);
+			
+			//flag true to play random sound effect
+			collisions++;
+		}
+		
+		return collisions;
 	}
 	
-	@Override
-	public void update() throws Exception 
+	/**
+	 * Move the moving balls on this thread, a ball touching an expanded ball starts growing right away
+	 * @param playerBall The player's ball
+	 * @return The number of balls that started expanding
+	 */
+	private int updateMoving(final Ball playerBall)
 	{
-		if (get() != null)
+		//the number of collisions in this update
+		int collisions = 0;
+		
+		for (int i = 0; i < moving.size(); )
 		{
-			//do we play a collision sound
-			boolean sound = false;
+			final Ball ball = moving.get(i);
+			
+			ball.sync(tick);
 			
-			//update each ball
-			for (int i = 0; i < get().size(); i++)
+			if (hasCollision(ball, growing) || hasCollision(ball, holding) || hasCollision(ball, shrinking) || 
+				playerExpanding && ball.hasCollision(playerBall))
 			{
-				//get the current ball
-				Ball ball = get().get(i);
+				ball.setExpand(true);
+				transfer(ball, moving, growing);
 				
-				//update ball
-				ball.update();
+				//decrease the goal
+				setGoal(getGoal() - 1);
 				
-				switch (this.modeIndex)
-				{
-					//reaction mode
-					case Game.MODE_REACTION:
-						/**
-						 * If this ball collides with any others that aren't dead and expanding.<br>
-						 * We will also expand this ball
-						 */
-						if (hasCollision(ball))
-						{
-							//if this ball has not expanded yet, take away one from our goal
-							if (!ball.hasExpand())
-							{
-								//decrease the goal
-								setGoal(getGoal() - 1);
-								
-								//flag true to play random sound effect
-								sound = true;
-							}
-							
-							ball.setExpand(true);
-						}
-						
-						//if the ball is dead, remove it
-						if (ball.isDead())
-						{
-							//remove from list
-							get().remove(i);
-							
-							//adjust index
-							i--;
-						}
-						else
-						{
-							//make sure the player ball isn't dead
-							if (!player.getBall().isDead())
-							{
-								//check if the ball collides with the player's ball
-								if (ball.hasCollision(player.getBall()))
-								{
-									//if the player's ball is expanding, we will expand this ball
-									if (player.getBall().hasExpand())
-									{
-										//if this ball has not expanded yet, take away one from our goal
-										if (!ball.hasExpand())
-										{
-											//decrease the goal
-											setGoal(getGoal() - 1);
-											
-											//flag true to play random sound effect
-											sound = true;
-										}
-										
-										ball.setExpand(true);
-									}
-								}
-							}
-						}
-						break;
-						
-					//capture mode
-					case Game.MODE_CAPTURE:
-						
-						//if ball is off screen we want to remove it
-						if (ball.getDX() < 0 && ball.getX() < -ball.getWidth() || 
-							ball.getDX() > 0 && ball.getX() > GamePanel.WIDTH + ball.getWidth() ||
-							ball.getDY() < 0 && ball.getY() < -ball.getHeight() ||
-							ball.getDY() > 0 && ball.getY() > GamePanel.HEIGHT + ball.getHeight())
-						{
-							//remove from list
-							get().remove(i);
-							
-							//adjust index
-							i--;
-						}
-						
-						//check if the ball has collided with the player's ball
-						if (ball.hasCollision(player.getBall()))
-						{
-							//make sure the player's ball is not dead
-							if (!player.getBall().isDead())
-							{
-								//check if the player's ball is bigger
-								if (player.getBall().getWidth() > ball.getWidth())
-								{
-									//remove from list
-									get().remove(i);
-									
-									//adjust index
-									i--;
-									
-									//increase the player's ball size
-									player.getBall().setDimension(player.getBall().getWidth() + CAPTURE_INCREASE);
-									
-									//increase the player's score
-									player.setScore(player.getScore() + 1);
-									
-									//to keep it challenging immediately spawn another ball
-									spawnBall();
-									
-									//play collision sound
-									sound = true;
-								}
-								else
-								{
-									//the player's turn is over
-									player.setTurn(false);
-									
-									//ball is dead
-									player.getBall().setDead(true);
-									
-									//add the explosion
-									player.getBall().addExplosion();
-								}
-							}
-						}
-						break;
-				}
+				//flag true to play random sound effect
+				collisions++;
+				continue;
+			}
+			
+			i++;
+		}
+		
+		return collisions;
+	}
+	
+	/**
+	 * Move and check the moving balls using several threads.<br>
+	 * The balls are flagged first then start growing together, so on a large board the reaction spreads one generation
+	 * per update, the price of checking the balls at the same time.<br>
+	 * Every ball is brought up to date in parallel, the balls are sorted into strips, then the strips are checked in
+	 * parallel. Each thread only writes the flags of its own balls, so the flags do not depend on the number of threads
+	 * @throws Exception
+	 */
+	private void checkParallel() throws Exception
+	{
+		//create the threads when first needed
+		if (workers == null)
+		{
+			workers = new Workers(PROCESSORS);
+			strips = workers.getCount() * STRIPS_PER_WORKER;
+			stripWidth = GamePanel.WIDTH / (double)strips;
+			movingStart = new int[strips + 1];
+			expandedStart = new int[strips + 1];
+			cursor = new int[strips];
+		}
+		
+		//bring every ball up to date, so no ball is changed while checking
+		workers.run(syncJob);
+		
+		//sort the moving balls by the strip of their center
+		Arrays.fill(movingStart, 0);
+		
+		for (int i = 0; i < moving.size(); i++)
+		{
+			movingStart[getStrip(moving.get(i).getX()) + 1]++;
+		}
+		
+		for (int strip = 0; strip < strips; strip++)
+		{
+			movingStart[strip + 1] += movingStart[strip];
+			cursor[strip] = movingStart[strip];
+		}
+		
+		if (stripMoving.length < moving.size())
+			stripMoving = new int[moving.size()];
+		
+		for (int i = 0; i < moving.size(); i++)
+		{
+			stripMoving[cursor[getStrip(moving.get(i).getX())]++] = i;
+		}
+		
+		//place the expanded balls in every strip they overlap, so a ball crossing a strip edge is found from both
+		Arrays.fill(expandedStart, 0);
+		count(growing);
+		count(holding);
+		count(shrinking);
+		
+		for (int strip = 0; strip < strips; strip++)
+		{
+			expandedStart[strip + 1] += expandedStart[strip];
+			cursor[strip] = expandedStart[strip];
+		}
+		
+		if (stripExpanded.length < expandedStart[strips])
+			stripExpanded = new Ball[expandedStart[strips]];
+		
+		place(growing);
+		place(holding);
+		place(shrinking);
+		
+		//check the strips
+		workers.run(checkJob);
+	}
+	
+	/**
+	 * Bring a share of the bucket up to date
+	 * @param bucket The bucket
+	 * @param index The index of the worker
+	 * @param count The number of workers
+	 */
+	private void sync(final ArrayList<Ball> bucket, final int index, final int count)
+	{
+		for (int i = index; i < bucket.size(); i += count)
+		{
+			bucket.get(i).sync(tick);
+		}
+	}
+	
+	/**
+	 * Get the strip containing the location
+	 * @param x The x-coordinate
+	 * @return The strip, a location off screen is in the nearest strip
+	 */
+	private int getStrip(final double x)
+	{
+		return Math.max(0, Math.min(strips - 1, (int)(x / stripWidth)));
+	}
+	
+	/**
+	 * Count the expanded balls of the bucket in each strip they overlap
+	 * @param bucket The bucket of expanded balls
+	 */
+	private void count(final ArrayList<Ball> bucket)
+	{
+		for (int i = 0; i < bucket.size(); i++)
+		{
+			final Ball ball = bucket.get(i);
+			final int last = getStrip(ball.getX() + ball.getWidth() / 2);
+			
+			for (int strip = getStrip(ball.getX() - ball.getWidth() / 2); strip <= last; strip++)
+			{
+				expandedStart[strip + 1]++;
 			}
+		}
+	}
+	
+	/**
+	 * Place the expanded balls of the bucket in each strip they overlap
+	 * @param bucket The bucket of expanded balls
+	 */
+	private void place(final ArrayList<Ball> bucket)
+	{
+		for (int i = 0; i < bucket.size(); i++)
+		{
+			final Ball ball = bucket.get(i);
+			final int last = getStrip(ball.getX() + ball.getWidth() / 2);
+			
+			for (int strip = getStrip(ball.getX() - ball.getWidth() / 2); strip <= last; strip++)
+			{
+				stripExpanded[cursor[strip]++] = ball;
+			}
+		}
+	}
+	
+	/**
+	 * Does the moving ball collide with an expanded ball in the strips it overlaps?
+	 * @param ball The moving ball
+	 * @return true if the ball collides with any expanded ball, false otherwise
+	 */
+	private boolean hasStripCollision(final Ball ball)
+	{
+		final int last = getStrip(ball.getX() + ball.getWidth() / 2);
+		
+		for (int strip = getStrip(ball.getX() - ball.getWidth() / 2); strip <= last; strip++)
+		{
+			for (int k = expandedStart[strip]; k < expandedStart[strip + 1]; k++)
+			{
+				if (stripExpanded[k].hasCollision(ball))
+					return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Update the balls in capture mode.<br>
+	 * The balls never expand, so only the moving balls are updated
+	 * @return The number of balls captured
+	 */
+	private int updateCapture()
+	{
+		final Ball playerBall = player.getBall();
+		
+		//the number of collisions in this update
+		int collisions = 0;
+		
+		for (int i = 0; i < moving.size(); )
+		{
+			final Ball ball = moving.get(i);
+			
+			ball.sync(tick);
 			
-			//if we are to play a collision sound effect
-			if (sound)
-				Assets.playCollisionSound();
+			//if ball is off screen we want to remove it
+			if (ball.getDX() < 0 && ball.getX() < -ball.getWidth() || 
+				ball.getDX() > 0 && ball.getX() > GamePanel.WIDTH + ball.getWidth() ||
+				ball.getDY() < 0 && ball.getY() < -ball.getHeight() ||
+				ball.getDY() > 0 && ball.getY() > GamePanel.HEIGHT + ball.getHeight())
+			{
+				remove(ball, moving);
+				continue;
+			}
 			
-			//check if we need to spawn any new balls for capture mode
-			if (this.modeIndex == Game.MODE_CAPTURE)
+			//check if the ball has collided with the player's ball, make sure the player's ball is not dead
+			if (!playerBall.isDead() && ball.hasCollision(playerBall))
 			{
-				//check if time to add a ball
-				if (System.currentTimeMillis() - this.time >= SPAWN_DELAY)
+				//check if the player's ball is bigger
+				if (playerBall.getWidth() > ball.getWidth())
 				{
-					//also make sure the player has a turn
-					if (this.player.hasTurn())
-					{
-						//update last time update
-						this.time = System.currentTimeMillis();
+					//remove from play
+					remove(ball, moving);
 					
-						//add a new ball
-						spawnBall();
-					}
+					//increase the player's ball size
+					playerBall.setDimension(playerBall.getWidth() + CAPTURE_INCREASE);
+					
+					//increase the player's score
+					player.setScore(player.getScore() + 1);
+					
+					//to keep it challenging immediately spawn another ball
+					spawnBall();
+					
+					//play collision sound
+					collisions++;
+					continue;
+				}
+				else
+				{
+					//the player's turn is over
+					player.setTurn(false);
+					
+					//ball is dead
+					playerBall.setDead(true);
+					
+					//add the explosion
+					playerBall.addExplosion();
 				}
 			}
+			
+			i++;
+		}
+		
+		//check if time to add a ball, also make sure the player has a turn
+		if (System.currentTimeMillis() - this.time >= SPAWN_DELAY && this.player.hasTurn())
+		{
+			//update last time update
+			this.time = System.currentTimeMillis();
+			
+			//add a new ball
+			spawnBall();
 		}
+		
+		return collisions;
 	}
 
 	/**
@@ -412,7 +1074,7 @@ public class Balls implements ICommon
 		int width = GamePanel.RANDOM.nextInt(SPAWN_RANGE * 2) - SPAWN_RANGE;
 		
 		//create a new ball of random type
-		Ball ball = new Ball(Ball.Type.values()[GamePanel.RANDOM.nextInt(Ball.Type.values().length)]);
+		Ball ball = obtain(TYPES[GamePanel.RANDOM.nextInt(TYPES.length)]);
 		
 		//set ball size
 		ball.setDimension(player.getBall().getWidth() + width);
@@ -487,28 +1149,76 @@ public class Balls implements ICommon
 			}
 		}
 			
-		//add ball to the list
-		get().add(ball);
+		//add ball to play
+		attach(ball, moving);
 	}
 	
 	@Override
 	public void render(Canvas canvas) throws Exception 
 	{
-		if (get() != null)
+		if (moving == null)
+			return;
+		
+		//render non-expanding balls first, then the expanded
+		render(canvas, moving);
+		render(canvas, growing);
+		render(canvas, holding);
+		render(canvas, shrinking);
+	}
+	
+	/**
+	 * Record the balls to be drawn when the buffer is replayed, the expanded balls are drawn over the rest
+	 * @param buffer The commands of the frame
+	 */
+	public void record(final RenderBuffer buffer)
+	{
+		if (moving == null)
+			return;
+		
+		record(buffer, moving, RenderBuffer.LAYER_BALLS);
+		record(buffer, growing, RenderBuffer.LAYER_EXPANDED);
+		record(buffer, holding, RenderBuffer.LAYER_EXPANDED);
+		record(buffer, shrinking, RenderBuffer.LAYER_EXPANDED);
+	}
+	
+	/**
+	 * Record the balls of the bucket, each ball is brought up to date first
+	 * @param buffer The commands of the frame
+	 * @param bucket The bucket
+	 * @param layer The layer the balls are drawn on
+	 */
+	private void record(final RenderBuffer buffer, final ArrayList<Ball> bucket, final int layer)
+	{
+		for (int i = 0; i < bucket.size(); i++)
 		{
-			//render non-expanding balls first
-			for (Ball ball : get())
-			{
-				if (!ball.hasExpand())
-					ball.render(canvas);
-			}
-			
-			//now render the expanding
-			for (Ball ball : get())
-			{
-				if (ball.hasExpand())
-					ball.render(canvas);
-			}
+			final Ball ball = bucket.get(i);
+			ball.sync(tick);
+			ball.record(buffer, layer);
 		}
 	}
+	
+	/**
+	 * Render the balls of the bucket, each ball is brought up to date first
+	 * @param canvas Object to write pixels to
+	 * @param bucket The bucket
+	 * @throws Exception
+	 */
+	private void render(final Canvas canvas, final ArrayList<Ball> bucket) throws Exception
+	{
+		for (int i = 0; i < bucket.size(); i++)
+		{
+			final Ball ball = bucket.get(i);
+			ball.sync(tick);
+			ball.render(canvas);
+		}
+	}
+	
+	/**
+	 * Get the current tick
+	 * @return The number of updates since the last reset
+	 */
+	public long getTick()
+	{
+		return this.tick;
+	}
 }
\ No newline at end of file
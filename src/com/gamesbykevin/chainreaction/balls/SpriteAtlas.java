@@ -0,0 +1,342 @@
+package com.gamesbykevin.chainreaction.balls;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import com.gamesbykevin.androidframework.resources.Disposable;
+import com.gamesbykevin.chainreaction.assets.AssetCache;
+import com.gamesbykevin.chainreaction.assets.Assets;
+import com.gamesbykevin.chainreaction.thread.Quality;
+
+/**
+ * A sprite sheet packed with pre-scaled copies (mip levels) of every cell.<br>
+ * The largest level is sized for the largest the sprite is drawn on the device, and each level after is half the size.
+ * When drawing, the smallest level that is at least the size on screen is used, so there is no large downscale every frame.<br>
+ * Level 0 is at the top left, the remaining levels are stacked to the right of it.
+ * @author GOD
+ */
+public final class SpriteAtlas implements Disposable
+{
+	/**
+	 * The smallest mip level we will create (pixels)
+	 */
+	public static final int MIN_MIP_DIMENSION = 8;
+
+	/**
+	 * The number of columns and rows of balls in the sprite sheet
+	 */
+	public static final int BALL_COLS = 5, BALL_ROWS = 5;
+
+	/**
+	 * The number of frames in the explosion
+	 */
+	public static final int EXPLOSION_FRAMES = 9;
+
+	/**
+	 * The id of the ball atlas in a sprite
+	 */
+	public static final int ID_BALLS = 0;
+
+	/**
+	 * The id of the explosion atlas in a sprite
+	 */
+	public static final int ID_EXPLOSION = 1;
+
+	//the atlas for the balls
+	private static SpriteAtlas BALLS;
+
+	//the atlas for the explosion
+	private static SpriteAtlas EXPLOSION;
+
+	//the render scale the atlases were created for
+	private static float SCALE;
+
+	//used to filter when drawing, as the size on screen is rarely the exact size of a level
+	private static final Paint PAINT = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+	//used to draw a cell as a plain circle
+	private static final Paint CIRCLE = new Paint();
+
+	//reusable source/destination when drawing, rendering is only done on the game thread
+	private static final Rect SOURCE = new Rect();
+	private static final RectF DESTINATION = new RectF();
+
+	//the packed pixel data
+	private Bitmap bitmap;
+
+	//the size of each cell at each level
+	private final int[] sizes;
+
+	//the location of each level in the atlas
+	private final int[] levelX, levelY;
+
+	//the number of columns of cells
+	private final int cols;
+
+	//the color of each cell, taken from the center of the smallest level
+	private final int[] colors;
+
+	/**
+	 * Create the atlas
+	 * @param sheet The sprite sheet
+	 * @param dimension The size of each cell in the sprite sheet
+	 * @param cols The number of columns in the sprite sheet
+	 * @param rows The number of rows in the sprite sheet
+	 * @param largest The largest size a cell will be drawn on the device (pixels)
+	 */
+	private SpriteAtlas(final Bitmap sheet, final int dimension, final int cols, final int rows, final float largest)
+	{
+		//the size of the first level, we never enlarge the original
+		int size = Math.min(dimension, (int)Math.ceil(largest));
+
+		//count the number of levels
+		int count = 1;
+
+		for (int tmp = size; tmp / 2 >= MIN_MIP_DIMENSION; tmp /= 2)
+		{
+			count++;
+		}
+
+		this.sizes = new int[count];
+		this.levelX = new int[count];
+		this.levelY = new int[count];
+		this.cols = cols;
+		this.colors = new int[cols * rows];
+
+		//the first level is at the top left
+		int width = cols * size, height = rows * size;
+
+		for (int level = 0; level < count; level++)
+		{
+			this.sizes[level] = size;
+
+			if (level > 0)
+			{
+				//the other levels are stacked to the right of the first
+				this.levelX[level] = cols * sizes[0];
+				this.levelY[level] = (level == 1) ? 0 : levelY[level - 1] + rows * sizes[level - 1];
+
+				//make sure the atlas is large enough
+				width = Math.max(width, levelX[level] + cols * size);
+				height = Math.max(height, levelY[level] + rows * size);
+			}
+
+			//the next level is half the size
+			size /= 2;
+		}
+
+		//the sprites have transparency so we need the alpha channel
+		this.bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+
+		final Canvas canvas = new Canvas(this.bitmap);
+
+		for (int row = 0; row < rows; row++)
+		{
+			for (int col = 0; col < cols; col++)
+			{
+				//the original cell
+				Bitmap current = Bitmap.createBitmap(sheet, col * dimension, row * dimension, dimension, dimension);
+
+				for (int level = 0; level < count; level++)
+				{
+					//scale from the previous level, so each level is filtered from one twice its size
+					final Bitmap next = Bitmap.createScaledBitmap(current, sizes[level], sizes[level], true);
+
+					//we no longer need the previous level
+					if (next != current && current != sheet)
+						current.recycle();
+
+					//pack the level into the atlas
+					canvas.drawBitmap(next, levelX[level] + col * sizes[level], levelY[level] + row * sizes[level], null);
+
+					current = next;
+				}
+
+				//we no longer need the last level
+				if (current != sheet)
+					current.recycle();
+			}
+		}
+
+		//the color of each cell when drawn as a circle
+		final int last = count - 1;
+
+		for (int row = 0; row < rows; row++)
+		{
+			for (int col = 0; col < cols; col++)
+			{
+				this.colors[row * cols + col] = this.bitmap.getPixel(
+					levelX[last] + col * sizes[last] + sizes[last] / 2,
+					levelY[last] + row * sizes[last] + sizes[last] / 2);
+			}
+		}
+	}
+
+	/**
+	 * Get the level to use
+	 * @param size The size on the device (pixels)
+	 * @return The smallest level that is at least the size, or the first level if the size is larger
+	 */
+	private int getLevel(final float size)
+	{
+		for (int level = sizes.length - 1; level > 0; level--)
+		{
+			if (sizes[level] >= size)
+				return level;
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Draw a cell
+	 * @param canvas Where to write the pixel data, scaled to the game coordinates
+	 * @param cell The index of the cell
+	 * @param left The left of the destination (game coordinates)
+	 * @param top The top of the destination (game coordinates)
+	 * @param right The right of the destination (game coordinates)
+	 * @param bottom The bottom of the destination (game coordinates)
+	 * @param alpha The visibility, 0 (hidden) - 255 (fully visible)
+	 */
+	public void render(final Canvas canvas, final int cell, final float left, final float top, final float right, final float bottom, final int alpha)
+	{
+		//pick the level closest to the size on the device
+		final int level = getLevel((right - left) * SCALE);
+		final int dimension = sizes[level];
+
+		//the location of the cell in the atlas
+		SOURCE.left = levelX[level] + (cell % cols) * dimension;
+		SOURCE.top = levelY[level] + (cell / cols) * dimension;
+		SOURCE.right = SOURCE.left + dimension;
+		SOURCE.bottom = SOURCE.top + dimension;
+
+		//where to draw
+		DESTINATION.left = left;
+		DESTINATION.top = top;
+		DESTINATION.right = right;
+		DESTINATION.bottom = bottom;
+
+		//filtering is skipped when the quality is lowered
+		PAINT.setFilterBitmap(Quality.hasFilter());
+		PAINT.setAlpha(alpha);
+
+		canvas.drawBitmap(bitmap, SOURCE, DESTINATION, PAINT);
+	}
+
+	/**
+	 * Draw a cell as a plain circle of its color, much cheaper than drawing the bitmap
+	 * @param canvas Where to write the pixel data, scaled to the game coordinates
+	 * @param cell The index of the cell
+	 * @param left The left of the destination (game coordinates)
+	 * @param top The top of the destination (game coordinates)
+	 * @param right The right of the destination (game coordinates)
+	 * @param bottom The bottom of the destination (game coordinates)
+	 * @param alpha The visibility, 0 (hidden) - 255 (fully visible)
+	 */
+	public void renderCircle(final Canvas canvas, final int cell, final float left, final float top, final float right, final float bottom, final int alpha)
+	{
+		//the color includes its own alpha, so apply ours after
+		CIRCLE.setColor(colors[cell]);
+		CIRCLE.setAlpha(Color.alpha(colors[cell]) * alpha / 255);
+
+		canvas.drawCircle((left + right) / 2, (top + bottom) / 2, (right - left) / 2, CIRCLE);
+	}
+
+	/**
+	 * Create the atlases for the balls and explosion.<br>
+	 * If they already exist for the render scale, nothing happens
+	 * @param activity Object containing AssetManager needed to load assets
+	 * @param scale The number of device pixels per game pixel
+	 * @throws Exception
+	 */
+	public static void load(final Activity activity, final float scale) throws Exception
+	{
+		//if we already have the atlases for this scale, we are done
+		if (BALLS != null && EXPLOSION != null && SCALE == scale)
+			return;
+
+		//remove the previous atlases
+		recycle();
+
+		//we only need the sprite sheets until the atlases are created
+		AssetCache.acquire(activity, Assets.ImageGameKey.Balls, Assets.ImageGameKey.Explosion);
+
+		try
+		{
+			//the balls are never drawn larger than the expand limit
+			BALLS = new SpriteAtlas(Assets.getImage(Assets.ImageGameKey.Balls), Ball.SPRITE_DIMENSION, BALL_COLS, BALL_ROWS, (float)(Ball.EXPAND_LIMIT * scale));
+
+			//the explosion is 3 times the size of the ball
+			EXPLOSION = new SpriteAtlas(Assets.getImage(Assets.ImageGameKey.Explosion), Ball.EXPLOSION_DIMENSION, EXPLOSION_FRAMES, 1, (float)(Ball.EXPAND_LIMIT * 3 * scale));
+
+			//store the scale
+			SCALE = scale;
+		}
+		finally
+		{
+			//the sprite sheets can now be evicted when memory is low
+			AssetCache.release(Assets.ImageGameKey.Balls, Assets.ImageGameKey.Explosion);
+		}
+	}
+
+	/**
+	 * Get the atlas of a sprite
+	 * @param id The id of the atlas, ID_BALLS or ID_EXPLOSION
+	 * @return The atlas, null if it has not been created
+	 */
+	public static SpriteAtlas get(final int id)
+	{
+		return (id == ID_EXPLOSION) ? EXPLOSION : BALLS;
+	}
+
+	/**
+	 * Get the ball atlas
+	 * @return The atlas containing all balls
+	 */
+	public static SpriteAtlas getBalls()
+	{
+		return BALLS;
+	}
+
+	/**
+	 * Get the explosion atlas
+	 * @return The atlas containing all frames of the explosion
+	 */
+	public static SpriteAtlas getExplosion()
+	{
+		return EXPLOSION;
+	}
+
+	/**
+	 * Recycle the atlases
+	 */
+	public static void recycle()
+	{
+		if (BALLS != null)
+		{
+			BALLS.dispose();
+			BALLS = null;
+		}
+
+		if (EXPLOSION != null)
+		{
+			EXPLOSION.dispose();
+			EXPLOSION = null;
+		}
+	}
+
+	@Override
+	public void dispose()
+	{
+		if (bitmap != null)
+		{
+			bitmap.recycle();
+			bitmap = null;
+		}
+	}
+}
@@ -7,17 +7,22 @@ import android.graphics.Paint;
 import android.os.Vibrator;
 import android.view.MotionEvent;
 
-import com.gamesbykevin.androidframework.resources.Audio;
-import com.gamesbykevin.androidframework.resources.Font;
-import com.gamesbykevin.androidframework.resources.Images;
+import java.nio.ByteBuffer;
+
+import com.gamesbykevin.chainreaction.assets.AssetCache;
 import com.gamesbykevin.chainreaction.assets.Assets;
 import com.gamesbykevin.chainreaction.balls.Balls;
+import com.gamesbykevin.chainreaction.balls.SpriteAtlas;
 import com.gamesbykevin.chainreaction.panel.GamePanel;
 import com.gamesbykevin.chainreaction.player.Player;
+import com.gamesbykevin.chainreaction.render.CanvasBackend;
+import com.gamesbykevin.chainreaction.render.RenderBuffer;
 import com.gamesbykevin.chainreaction.screen.OptionsScreen;
 import com.gamesbykevin.chainreaction.screen.ScreenManager;
 import com.gamesbykevin.chainreaction.screen.ScreenManager.State;
+import com.gamesbykevin.chainreaction.storage.score.Leaderboard;
 import com.gamesbykevin.chainreaction.storage.score.Score;
+import com.gamesbykevin.chainreaction.thread.Latency;
 
 /**
  * The main game logic will happen here
@@ -61,6 +66,16 @@ public final class Game implements IGame
     //where to render the hint
     private static final int HINT_Y = 100;
     
+    //the hints may be drawn for as long as the game exists, so they are never evicted while in use
+    private static final Enum<?>[] HINT_KEYS = 
+    {
+    	Assets.ImageGameKey.Hint1,
+    	Assets.ImageGameKey.Hint2,
+    };
+    
+    //have the hints been acquired
+    private boolean hints = false;
+    
     /**
      * The different level configurations in the game
      */
@@ -100,6 +115,24 @@ public final class Game implements IGame
     	}
     }
     
+    /**
+     * The levels, values() creates a new array every call
+     */
+    private static final Level[] LEVELS = Level.values();
+    
+    /**
+     * The label of the goal displayed in reaction mode
+     */
+    private static final String LABEL_GOAL = "Goal: ";
+    
+    /**
+     * The label of the score displayed in capture mode
+     */
+    private static final String LABEL_SCORE = "Score: ";
+    
+    //the characters of the text displayed while playing, so no strings are created each frame
+    private final char[] text = new char[32];
+    
     /**
      * Reaction mode
      */
@@ -110,12 +143,58 @@ public final class Game implements IGame
      */
     public static final int MODE_CAPTURE = 1;
     
+    /**
+     * Stress mode, a benchmark of boards with thousands of balls, not scored
+     */
+    public static final int MODE_STRESS = 2;
+    
+    //the stress benchmark
+    private Stress stress;
+    
+    //the draw commands of the balls, recorded and replayed every frame
+    private RenderBuffer commands;
+    
     //keep track of the current level
     private int levelIndex = 0;
     
     //the player's coordinates when moving
     private float playerX, playerY;
     
+    //where the player's ball would be if it followed the finger exactly (without prediction)
+    private double targetX, targetY;
+    
+    //the estimated velocity of the finger (pixels per millisecond)
+    private double velocityX, velocityY;
+    
+    //the time of the previous motion event
+    private long previous;
+    
+    /**
+     * Do we predict where the finger will be, so the ball keeps up with the finger between updates
+     */
+    public static final boolean PREDICTION = true;
+    
+    /**
+     * How far ahead we predict the finger position (milliseconds) until the latency has been measured
+     */
+    private static final long PREDICTION_HORIZON = 16L;
+    
+    /**
+     * The most we predict ahead (milliseconds), a longer guess overshoots when the finger changes direction
+     */
+    private static final long PREDICTION_HORIZON_MAX = 48L;
+    
+    //how far ahead we predict the finger position (milliseconds) during the current drag
+    private long horizon = PREDICTION_HORIZON;
+    
+    //the offset from the player's ball to where it is drawn
+    private float predictX, predictY;
+    
+    /**
+     * How much weight a new sample has when estimating the finger velocity (0 - 1)
+     */
+    private static final double VELOCITY_SMOOTHING = 0.5;
+    
     //keep track of the time to fade the hint text away
     private long time;
     
@@ -127,6 +206,12 @@ public final class Game implements IGame
     //track the best score for each mode index
     private Score scoreboard;
     
+    //when did the current game start
+    private long started;
+    
+    //the number of balls exploded in the current game
+    private int exploded;
+    
     //the duration we want to vibrate the phone for
     private static final long VIBRATION_DURATION = 500L;
     
@@ -140,14 +225,27 @@ public final class Game implements IGame
         //our main screen object reference
         this.screen = screen;
         
+        //create the ball sprites sized for the device
+        SpriteAtlas.load(screen.getPanel().getActivity(), screen.getPanel().getRenderScale());
+        
+        //keep the hints until the game is disposed
+        AssetCache.acquire(screen.getPanel().getActivity(), HINT_KEYS);
+        this.hints = true;
+        
         //create a new score board
-        this.scoreboard = new Score(screen.getScreenOptions(), screen.getPanel().getActivity());
+        this.scoreboard = Score.obtain(screen.getPanel().getActivity());
         
         //create a new player
         this.player = new Player();
         
         //create balls container
         this.balls = new Balls(this.player);
+        
+        //create the benchmark
+        this.stress = new Stress();
+        
+        //the buffer grows to fit the balls the first time they are recorded
+        this.commands = new RenderBuffer();
     }
     
     private void setHint(final boolean hint)
@@ -206,6 +304,44 @@ public final class Game implements IGame
     	return this.scoreboard;
     }
     
+    /**
+     * Add the finished game to the score board
+     * @return true if the score is a personal best, false otherwise
+     */
+    private boolean addScore()
+    {
+    	//the level reached, the index is past the last level if every level was completed
+    	final int level = Math.min(getLevelIndex(), LEVELS.length - 1);
+    	
+    	//in capture mode each captured ball is a point
+    	if (this.modeIndex == MODE_CAPTURE)
+    		this.exploded = getPlayer().getScore();
+    	
+    	return getScoreboard().add(this.modeIndex, level, getPlayer().getScore(), this.exploded, System.currentTimeMillis() - this.started);
+    }
+    
+    /**
+     * Get the stats of the finished game from the leaderboard
+     * @return The rank of the score among every game of the mode, and the percent of games it is in the top of
+     */
+    private String getStats()
+    {
+    	final Leaderboard leaderboard = getScoreboard().getLeaderboard();
+    	
+    	//if the leaderboard is not available, there are no stats
+    	if (leaderboard == null)
+    		return "";
+    	
+    	final int score = getPlayer().getScore();
+    	final int games = leaderboard.getGames(this.modeIndex, Leaderboard.ALL_LEVELS);
+    	final int rank = leaderboard.getRank(this.modeIndex, Leaderboard.ALL_LEVELS, score);
+    	
+    	//the percent of games with a lower score
+    	final int percentile = leaderboard.getPercentile(this.modeIndex, Leaderboard.ALL_LEVELS, score);
+    	
+    	return "Rank " + rank + " of " + games + ", top " + Math.max(1, 100 - percentile) + "%";
+    }
+    
     /**
      * Get the balls in play
      * @return The balls container
@@ -215,6 +351,24 @@ public final class Game implements IGame
     	return this.balls;
     }
     
+    /**
+     * Get the draw commands
+     * @return The commands recorded for the last frame rendered
+     */
+    public RenderBuffer getCommands()
+    {
+    	return this.commands;
+    }
+    
+    /**
+     * Get the stress benchmark
+     * @return The benchmark played in stress mode
+     */
+    public Stress getStress()
+    {
+    	return this.stress;
+    }
+    
     /**
      * Get the player
      * @return The human controlled player
@@ -234,6 +388,13 @@ public final class Game implements IGame
     	{
     		//display hint if the player does not have a score
     		setHint(getPlayer().getScore() == 0);
+    		
+    		//if the player does not have a score this is a new game
+    		if (getPlayer().getScore() == 0)
+    		{
+    			this.started = System.currentTimeMillis();
+    			this.exploded = 0;
+    		}
 
         	//flag reset false
         	setReset(false);
@@ -254,8 +415,8 @@ public final class Game implements IGame
 					
 		    		//reset the balls according to the current level
 		    		getBalls().reset(
-		    			Level.values()[getLevelIndex()].getCount(), 
-		    			Level.values()[getLevelIndex()].getGoal(),
+		    			LEVELS[getLevelIndex()].getCount(), 
+		    			LEVELS[getLevelIndex()].getGoal(),
 		    			this.modeIndex
 		    		);
 					break;
@@ -271,6 +432,25 @@ public final class Game implements IGame
 		    		//place player ball in the middle
 		    		getPlayer().getBall().setX(GamePanel.WIDTH / 2);
 		    		getPlayer().getBall().setY(GamePanel.HEIGHT / 2);
+		    		
+		    		//the drag will start from here
+		    		this.targetX = getPlayer().getBall().getX();
+		    		this.targetY = getPlayer().getBall().getY();
+		    		this.predictX = 0;
+		    		this.predictY = 0;
+					break;
+					
+				case MODE_STRESS:
+					
+					//store the mode
+					this.modeIndex = MODE_STRESS;
+					
+					//there is no hint, the cascade starts on its own
+					this.hint = false;
+					getPaintHint().setAlpha(0);
+					
+					//place the board of the current stage
+					getStress().start(getLevelIndex(), getBalls());
 					break;
 	    		
     		}
@@ -347,7 +527,7 @@ public final class Game implements IGame
     	{
             //create new paint object
             this.paint = new Paint();
-            this.paint.setTypeface(Font.getFont(Assets.FontGameKey.Default));
+            this.paint.setTypeface(Assets.getFont(Assets.FontGameKey.Default));
             this.paint.setTextSize(48f);
             this.paint.setColor(Color.WHITE);
             this.paint.setLinearText(false);
@@ -372,7 +552,7 @@ public final class Game implements IGame
     }
     
     @Override
-    public void update(final int action, final float x, final float y) throws Exception
+    public void update(final int action, final float x, final float y, final long time) throws Exception
     {
     	//if reset we can't continue
     	if (hasReset())
@@ -400,6 +580,9 @@ public final class Game implements IGame
 	    	    		//start expanding the ball
 	    	    		getPlayer().getBall().setExpand(true);
 	    	    		
+	    	    		//this update reacts to the input
+	    	    		Latency.input(time);
+	    	    		
 	    	    		//take away the player's turn
 	    	    		getPlayer().setTurn(false);
 	        		}
@@ -414,9 +597,24 @@ public final class Game implements IGame
         		{
 		    		if (action == MotionEvent.ACTION_DOWN)
 		    		{
-	    				//store the initial coordinates
+	    				//store the initial coordinates, the drag continues from the target
+	    				//a down is also sent when one of two fingers is lifted, so the target is not moved here
 	    				this.playerX = x;
 	    				this.playerY = y;
+	    				
+	    				//measure how far ahead to predict for this drag
+	    				this.horizon = getHorizon();
+	    				
+	    				//draw the ball where it is until the finger moves
+	    				this.predictX = 0;
+	    				this.predictY = 0;
+	    				
+	    				//we don't know the velocity yet
+	    				this.velocityX = 0;
+	    				this.velocityY = 0;
+	    				
+	    				//store the time
+	    				this.previous = time;
 		    		}
 		    		else if (action == MotionEvent.ACTION_MOVE)
 		        	{
@@ -424,39 +622,104 @@ public final class Game implements IGame
 		    			final float xDiff = x - this.playerX; 
 		    			final float yDiff = y - this.playerY;
 		    			
-		        		//compare the difference to move the player's ball
-		    			getPlayer().getBall().setX(getPlayer().getBall().getX() + xDiff);
-		    			getPlayer().getBall().setY(getPlayer().getBall().getY() + yDiff);
+		        		//compare the difference to move the target location
+		    			this.targetX = clampX(this.targetX + xDiff);
+		    			this.targetY = clampY(this.targetY + yDiff);
 		    			
-		    			//here we will keep the ball on screen
-		    			if (getPlayer().getBall().getX() > GamePanel.WIDTH - (getPlayer().getBall().getWidth() / 2))
-		    			{
-		    				getPlayer().getBall().setX(GamePanel.WIDTH - (getPlayer().getBall().getWidth() / 2));
-		    			}
-		    			else if (getPlayer().getBall().getX() < (getPlayer().getBall().getWidth() / 2))
+		    			//update the estimated velocity of the finger
+		    			if (time > this.previous)
 		    			{
-		    				getPlayer().getBall().setX((getPlayer().getBall().getWidth() / 2));
+		    				final long elapsed = time - this.previous;
+		    				this.velocityX += ((xDiff / elapsed) - this.velocityX) * VELOCITY_SMOOTHING;
+		    				this.velocityY += ((yDiff / elapsed) - this.velocityY) * VELOCITY_SMOOTHING;
+		    				this.previous = time;
 		    			}
 		    			
-		    			//here we will keep the ball on screen
-		    			if (getPlayer().getBall().getY() > GamePanel.HEIGHT - (getPlayer().getBall().getHeight() / 2))
-		    			{
-		    				getPlayer().getBall().setY(GamePanel.HEIGHT - (getPlayer().getBall().getHeight() / 2));
-		    			}
-		    			else if (getPlayer().getBall().getY() < (getPlayer().getBall().getHeight() / 2))
+		    			//the ball is where the finger is, so collisions use the real location
+		    			getPlayer().getBall().setX(this.targetX);
+		    			getPlayer().getBall().setY(this.targetY);
+		    			
+		    			if (PREDICTION)
 		    			{
-		    				getPlayer().getBall().setY((getPlayer().getBall().getHeight() / 2));
+		    				//only draw the ball where we expect the finger to be
+		    				this.predictX = (float)(clampX(this.targetX + (this.velocityX * this.horizon)) - this.targetX);
+		    				this.predictY = (float)(clampY(this.targetY + (this.velocityY * this.horizon)) - this.targetY);
 		    			}
 		    			
 		    			//assign the new location
 		    			this.playerX = x;
 		    			this.playerY = y;
+		    			
+		    			//this update reacts to the input
+		    			Latency.input(time);
 		        	}
+		    		else if (action == MotionEvent.ACTION_UP)
+		    		{
+		    			//the finger has stopped, so remove any prediction
+		    			this.predictX = 0;
+		    			this.predictY = 0;
+		    			
+		    			//reset the velocity
+		    			this.velocityX = 0;
+		    			this.velocityY = 0;
+		    		}
     			}
 	    		break;
     	}
     }
     
+    /**
+     * Keep the x-coordinate of the player's ball on screen
+     * @param x The desired x-coordinate
+     * @return The x-coordinate within the bounds of the screen
+     */
+    private double clampX(final double x)
+    {
+    	//the radius of the player's ball
+    	final double radius = getPlayer().getBall().getWidth() / 2;
+    	
+    	if (x > GamePanel.WIDTH - radius)
+    		return (GamePanel.WIDTH - radius);
+    	if (x < radius)
+    		return radius;
+    	
+    	return x;
+    }
+    
+    /**
+     * Keep the y-coordinate of the player's ball on screen
+     * @param y The desired y-coordinate
+     * @return The y-coordinate within the bounds of the screen
+     */
+    private double clampY(final double y)
+    {
+    	//the radius of the player's ball
+    	final double radius = getPlayer().getBall().getHeight() / 2;
+    	
+    	if (y > GamePanel.HEIGHT - radius)
+    		return (GamePanel.HEIGHT - radius);
+    	if (y < radius)
+    		return radius;
+    	
+    	return y;
+    }
+    
+    /**
+     * Get how far ahead to predict the finger position.<br>
+     * The ball is drawn when the frame is posted, so we predict ahead by the measured time from the input to the frame
+     * @return The horizon (milliseconds)
+     */
+    private static long getHorizon()
+    {
+    	final int measured = Latency.getFramePercentile(50);
+    	
+    	//nothing measured yet
+    	if (measured <= 0)
+    		return PREDICTION_HORIZON;
+    	
+    	return Math.min(measured, PREDICTION_HORIZON_MAX);
+    }
+    
     /**
      * Update game
      * @throws Exception 
@@ -474,12 +737,19 @@ public final class Game implements IGame
         	//store the score
         	final int tmp = getPlayer().getScore();
         	
+        	//when the update started, for the benchmark
+        	final long start = System.nanoTime();
+        	
         	//update the balls
         	getBalls().update();
         	
         	//update the player
         	getPlayer().update();
         	
+        	//measure the frame, and start the cascade when it is time
+        	if (this.modeIndex == MODE_STRESS)
+        		getStress().update(getPlayer(), System.nanoTime() - start);
+        	
         	//if we have a score, ensure the hint is turned off
         	if (tmp == 0 && getPlayer().getScore() > 0)
         		setHint(false);
@@ -510,6 +780,14 @@ public final class Game implements IGame
         			//if the game hasn't been flagged over
         			if (!hasGameover())
         			{
+        				//the benchmark continues with the next board, without the game over screen
+        				if (this.modeIndex == MODE_STRESS && getStress().finish(getBalls().getDeadCount()))
+        				{
+        					setLevelIndex(getLevelIndex() + 1);
+        					setReset(true);
+        					return;
+        				}
+        				
         				//flag game over true
         				setGameover(true);
         				
@@ -521,11 +799,14 @@ public final class Game implements IGame
 			        		case MODE_REACTION:
 			        			
 				        		//find out how many balls were killed, for the score
-				        		final int score = Level.values()[getLevelIndex()].getCount() - getBalls().get().size();
+				        		final int score = getBalls().getDeadCount();
 				        		
 				        		//update the players score
 				        		getPlayer().setScore(getPlayer().getScore() + score);
 				        		
+				        		//keep track of the balls exploded in this game
+				        		this.exploded += score;
+				        		
 				        		//make sure we met the goal
 				        		if (getBalls().getGoal() < 1)
 				        		{
@@ -533,25 +814,26 @@ public final class Game implements IGame
 				        			setLevelIndex(getLevelIndex() + 1);
 				        			
 				        			//make sure we don't exceed past the last level
-				        			if (getLevelIndex() >= Level.values().length)
+				        			if (getLevelIndex() >= LEVELS.length)
 				        			{
-				        				//update the score if it is a personal best
-				        				final boolean result = getScoreboard().updateScore(this.modeIndex, getPlayer().getScore());
+				        				//add the game to the score board
+				        				final boolean result = addScore();
 				        				
 				        				//start back at 0
 				        				setLevelIndex(0);
 				        				
 				        				//update message
 				        				getScreen().getScreenGameover().setMessage(false, result, "Score: " + getPlayer().getScore(), (result) ? "" : "High: " + getScoreboard().getHighScore(this.modeIndex), "New Game");
+				        				getScreen().getScreenGameover().setStats(getStats());
 				        				
 				        				//reset the score
 						        		getPlayer().setScore(0);
 						        		
 										//stop all other sound
-										Audio.stop();
+										Assets.stopAudio();
 										
 										//play game over sound
-										Audio.play(Assets.AudioGameKey.Lose);
+										Assets.playSound(Assets.AudioGameKey.Lose);
 				        			}
 				        			else
 				        			{
@@ -559,25 +841,26 @@ public final class Game implements IGame
 				        				getScreen().getScreenGameover().setMessage(true, false, "Score: " + getPlayer().getScore(), "", "Next");
 				        				
 										//stop all other sound
-										Audio.stop();
+										Assets.stopAudio();
 										
 										//play game over sound
-										Audio.play(Assets.AudioGameKey.Win);
+										Assets.playSound(Assets.AudioGameKey.Win);
 				        			}
 				        		}
 				        		else
 				        		{
+			        				//add the game to the score board, before the level is reset
+			        				final boolean result = addScore();
+			        				
 			        				//start back at 0
 				        			setLevelIndex(0);
 			        				
 			        				//ensure at this point the hint has been removed
 			        				hint = false;
 			        				
-			        				//update the score if it is a personal best
-			        				final boolean result = getScoreboard().updateScore(this.modeIndex, getPlayer().getScore());
-			        				
 				        			//we did not meet the goal, game over
 					        		getScreen().getScreenGameover().setMessage(false, result, "Score: " + getPlayer().getScore(), (result) ? "" : "High: " + getScoreboard().getHighScore(this.modeIndex), "Retry");
+					        		getScreen().getScreenGameover().setStats(getStats());
 					        		
 					        		//after we update the message, reset score
 					        		getPlayer().setScore(0);
@@ -586,10 +869,10 @@ public final class Game implements IGame
 									vibrate();
 									
 									//stop all other sound
-									Audio.stop();
+									Assets.stopAudio();
 																		
 									//play game over sound
-									Audio.play(Assets.AudioGameKey.Lose);
+									Assets.playSound(Assets.AudioGameKey.Lose);
 				        		}
 				        		break;
 				        		
@@ -598,11 +881,12 @@ public final class Game implements IGame
 		        				//ensure at this point the hint has been removed
 		        				hint = false;
 		        				
-		        				//update the score if it is a personal best
-		        				final boolean result = getScoreboard().updateScore(this.modeIndex, getPlayer().getScore());
+		        				//add the game to the score board
+		        				final boolean result = addScore();
 		        				
 			        			//assign game over message
 				        		getScreen().getScreenGameover().setMessage(false, result, "Score: " + getPlayer().getScore(), (result) ? "" : "High: " + getScoreboard().getHighScore(this.modeIndex), "Retry");
+				        		getScreen().getScreenGameover().setStats(getStats());
 				        		
 				        		//after we update the message, reset score
 				        		getPlayer().setScore(0);
@@ -611,13 +895,31 @@ public final class Game implements IGame
 								vibrate();
 								
 								//stop all other sound
-								Audio.stop();
+								Assets.stopAudio();
 								
 								//play the explosion
-								Audio.play(Assets.AudioGameKey.Explosion);
+								Assets.playSound(Assets.AudioGameKey.Explosion);
+								
+								//play game over sound
+								Assets.playSound(Assets.AudioGameKey.Lose);
+			        			break;
+			        			
+			        		case MODE_STRESS:
+			        			
+			        			//every stage is done, write the summary
+			        			getStress().write(getScreen().getPanel().getActivity());
+			        			
+			        			//the next benchmark starts from the first stage
+			        			setLevelIndex(0);
+			        			
+			        			//display the result
+			        			getScreen().getScreenGameover().setMessage(true, false, "FPS: " + (int)getStress().getAverageFps(), "Saved to " + Stress.FILE_NAME, "Retry");
+			        			
+								//stop all other sound
+								Assets.stopAudio();
 								
 								//play game over sound
-								Audio.play(Assets.AudioGameKey.Lose);
+								Assets.playSound(Assets.AudioGameKey.Win);
 			        			break;
 		        		}
 		        		
@@ -629,6 +931,111 @@ public final class Game implements IGame
         }
     }
     
+    /**
+     * Write the game in progress to the snapshot
+     * @param buffer Where the game is written
+     */
+    public void write(final ByteBuffer buffer)
+    {
+    	final long now = System.currentTimeMillis();
+    	
+    	buffer.putInt(this.modeIndex);
+    	buffer.putInt(getLevelIndex());
+    	buffer.put((byte)(hasGameover() ? 1 : 0));
+    	buffer.put((byte)(hasHint() ? 1 : 0));
+    	buffer.putInt(getPaintHint().getAlpha());
+    	buffer.putLong(now - this.time);
+    	buffer.putLong(now - this.started);
+    	buffer.putInt(this.exploded);
+    	
+    	getPlayer().write(buffer);
+    	getBalls().write(buffer);
+    }
+    
+    /**
+     * Read the game from the snapshot.<br>
+     * The game continues from where it was written, without a reset
+     * @param buffer Where the game was written
+     */
+    public void read(final ByteBuffer buffer)
+    {
+    	final long now = System.currentTimeMillis();
+    	
+    	this.modeIndex = buffer.getInt();
+    	setLevelIndex(buffer.getInt());
+    	setGameover(buffer.get() != 0);
+    	this.hint = (buffer.get() != 0);
+    	getPaintHint().setAlpha(buffer.getInt());
+    	this.time = now - buffer.getLong();
+    	this.started = now - buffer.getLong();
+    	this.exploded = buffer.getInt();
+    	
+    	getPlayer().read(buffer);
+    	getBalls().read(buffer);
+    	
+    	//the capture drag continues from the ball
+    	this.targetX = getPlayer().getBall().getX();
+    	this.targetY = getPlayer().getBall().getY();
+    	this.predictX = 0;
+    	this.predictY = 0;
+    	
+    	//we are not resetting, the game is already in progress
+    	setReset(false);
+    	setNotify(true);
+    }
+    
+    /**
+     * Can the game in progress be saved to continue later?
+     * @return true if the game can be saved, false for the benchmark as the result would not be comparable
+     */
+    public boolean canSave()
+    {
+    	return (this.modeIndex != MODE_STRESS);
+    }
+    
+    /**
+     * The game is paused
+     */
+    public void pause()
+    {
+    	//the time paused is not part of the benchmark
+    	if (this.modeIndex == MODE_STRESS)
+    		getStress().pause();
+    }
+    
+    /**
+     * Is anything in the game animating?
+     * @return true if any ball is in motion, the player's ball is expanding/exploding, or the hint is fading, false otherwise
+     */
+    public boolean isAnimating()
+    {
+    	//we are resetting the game
+    	if (hasReset())
+    		return true;
+    	
+    	//if there are balls, they are moving
+    	if (getBalls() != null && getBalls().getTotalCount() > 0)
+    		return true;
+    	
+    	//the hint is fading away
+    	if (!hasHint() && getPaintHint().getAlpha() > 0)
+    		return true;
+    	
+    	if (getPlayer() != null)
+    	{
+    		//the player's ball is expanding
+    		if (getPlayer().getBall().hasExpand() && !getPlayer().getBall().isDead())
+    			return true;
+    		
+    		//the player's ball is still exploding
+    		if (getPlayer().getBall().isDead() && !getPlayer().getBall().hasExplosionFinished())
+    			return true;
+    	}
+    	
+    	//nothing is in motion
+    	return false;
+    }
+    
     /**
      * Vibrate the phone if the setting is enabled
      */
@@ -656,7 +1063,7 @@ public final class Game implements IGame
     	if (hasReset())
     	{
 			//render loading screen
-			canvas.drawBitmap(Images.getImage(Assets.ImageMenuKey.Splash), 0, 0, null);
+			canvas.drawBitmap(Assets.getImage(Assets.ImageMenuKey.Splash), 0, 0, null);
 			
 			//flag that the user has been notified
 			setNotify(true);
@@ -668,7 +1075,7 @@ public final class Game implements IGame
     		{
 				//render hint text
 				canvas.drawBitmap(
-					(modeIndex == MODE_REACTION) ? Images.getImage(Assets.ImageGameKey.Hint1): Images.getImage(Assets.ImageGameKey.Hint2), 
+					(modeIndex == MODE_REACTION) ? Assets.getImage(Assets.ImageGameKey.Hint1): Assets.getImage(Assets.ImageGameKey.Hint2), 
 					HINT_X, 
 					HINT_Y, 
 					getPaintHint()
@@ -684,23 +1091,60 @@ public final class Game implements IGame
 		    		//reaction
 		    		case MODE_REACTION:
 		        		//render the current score progress etc....
-		        		canvas.drawText("Goal: " + getBalls().getGoal(), 175, 775, getPaint());
+		        		canvas.drawText(text, 0, setText(text, LABEL_GOAL, getBalls().getGoal()), 175, 775, getPaint());
 		    			break;
 		    			
 		    		//capture
 		    		case MODE_CAPTURE:
 		        		//render the current score progress etc....
-		        		canvas.drawText("Score: " + getPlayer().getScore(), 145, 775, getPaint());
+		        		canvas.drawText(text, 0, setText(text, LABEL_SCORE, getPlayer().getScore()), 145, 775, getPaint());
 		    			break;
 	    		}
 			}
     		
-    		//render the player
-    		getPlayer().render(canvas);
+    		//record the player, then the balls
+    		getCommands().clear();
+    		getPlayer().record(getCommands(), this.predictX, this.predictY);
+    		getBalls().record(getCommands());
     		
-    		//render the balls
-    		getBalls().render(canvas);
+    		//draw what was recorded
+    		CanvasBackend.replay(getCommands(), canvas);
+    		
+    		//the benchmark overlay is on top of the balls
+    		if (modeIndex == MODE_STRESS)
+    			getStress().render(canvas, getBalls(), getCommands());
+    	}
+    }
+    
+    /**
+     * Write the label followed by the value to the text characters
+     * @param text Where the characters are written
+     * @param label The label
+     * @param value The value, not negative
+     * @return The number of characters written
+     */
+    static int setText(final char[] text, final String label, final int value)
+    {
+    	//copy the label
+    	label.getChars(0, label.length(), text, 0);
+    	
+    	//count the digits
+    	int digits = 1;
+    	
+    	for (int tmp = value / 10; tmp > 0; tmp /= 10)
+    	{
+    		digits++;
+    	}
+    	
+    	//write the digits from last to first
+    	final int length = label.length() + digits;
+    	
+    	for (int i = length - 1, tmp = value; i >= label.length(); i--, tmp /= 10)
+    	{
+    		text[i] = (char)('0' + (tmp % 10));
     	}
+    	
+    	return length;
     }
     
     @Override
@@ -708,6 +1152,16 @@ public final class Game implements IGame
     {
         this.paint = null;
         
+        //we no longer need the ball sprites
+        SpriteAtlas.recycle();
+        
+        //the hints can now be evicted
+        if (this.hints)
+        {
+        	AssetCache.release(HINT_KEYS);
+        	this.hints = false;
+        }
+        
         if (this.balls != null)
         {
         	this.balls.dispose();
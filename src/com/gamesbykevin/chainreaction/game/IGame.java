@@ -34,7 +34,8 @@ public interface IGame extends Disposable
      * @param action The action of the MotionEvent
      * @param x (x-coordinate)
      * @param y (y-coordinate)
+     * @param time The time the motion event occurred (milliseconds)
      * @throws Exception
      */
-    public void update(final int action, final float x, final float y) throws Exception;
+    public void update(final int action, final float x, final float y, final long time) throws Exception;
 }
@@ -0,0 +1,318 @@
+package com.gamesbykevin.chainreaction.game;
+
+import android.app.Activity;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.Build;
+
+import java.util.Locale;
+
+import com.gamesbykevin.chainreaction.balls.Balls;
+import com.gamesbykevin.chainreaction.panel.GamePanel;
+import com.gamesbykevin.chainreaction.player.Player;
+import com.gamesbykevin.chainreaction.render.RenderBuffer;
+import com.gamesbykevin.chainreaction.storage.Persistence;
+import com.gamesbykevin.chainreaction.thread.MainThread;
+
+/**
+ * The stress benchmark.<br>
+ * Each stage places a board of thousands of balls from the same seed, starts a cascade in the middle of the screen
+ * and measures every frame until the cascade is over. When the last stage is done a summary is written to the
+ * internal storage, so every device is measured the same way.
+ * @author GOD
+ */
+public final class Stress
+{
+    /**
+     * The number of balls on the board of each stage
+     */
+    private static final int[] STAGES = {1000, 2000, 5000, 10000, 20000};
+
+    /**
+     * The seed of the first board, each stage adds its index
+     */
+    private static final long SEED = 20161L;
+
+    /**
+     * The tick the cascade is started, so the board is moving before it starts
+     */
+    private static final int CASCADE_TICK = MainThread.FPS;
+
+    /**
+     * The file name of the summary
+     */
+    public static final String FILE_NAME = "Benchmark";
+
+    /**
+     * How much weight a new frame has in the frame time displayed (0 - 1)
+     */
+    private static final double SMOOTHING = 0.1;
+
+    /**
+     * The number of nanoseconds in a millisecond
+     */
+    private static final long NANOS_PER_MILLISECOND = 1000000L;
+
+    //the labels of the overlay
+    private static final String LABEL_FPS = "FPS: ";
+    private static final String LABEL_FRAME = "Frame ms: ";
+    private static final String LABEL_BALLS = "Balls: ";
+    private static final String LABEL_STAGE = "Stage: ";
+    private static final String LABEL_DRAWS = "Draws: ";
+
+    //the stage playing
+    private int stage;
+
+    //the ticks since the stage started
+    private int ticks;
+
+    //the time of the previous frame (nanoseconds), 0 if the next frame is not counted
+    private long previous;
+
+    //the frame time displayed (nanoseconds)
+    private double smoothed;
+
+    //the results of each stage
+    private final int[] frames = new int[STAGES.length];
+    private final long[] frameTotal = new long[STAGES.length];
+    private final long[] frameWorst = new long[STAGES.length];
+    private final long[] updateTotal = new long[STAGES.length];
+    private final long[] updateWorst = new long[STAGES.length];
+    private final int[] exploded = new int[STAGES.length];
+    private final boolean[] interrupted = new boolean[STAGES.length];
+
+    //the paint of the overlay
+    private final Paint paint;
+
+    //the characters of the overlay, so no strings are created each frame
+    private final char[] text = new char[32];
+
+    /**
+     * Create the benchmark
+     */
+    public Stress()
+    {
+        this.paint = new Paint();
+        this.paint.setTextSize(28f);
+        this.paint.setColor(Color.WHITE);
+    }
+
+    /**
+     * Start a stage, the results of the stage and any after are cleared
+     * @param stage The stage, the board is the same every time the stage is played
+     * @param balls The balls to place
+     */
+    public void start(final int stage, final Balls balls)
+    {
+        this.stage = stage;
+        this.ticks = 0;
+        this.previous = 0;
+        this.smoothed = 0;
+
+        for (int i = stage; i < STAGES.length; i++)
+        {
+            frames[i] = 0;
+            frameTotal[i] = 0;
+            frameWorst[i] = 0;
+            updateTotal[i] = 0;
+            updateWorst[i] = 0;
+            exploded[i] = 0;
+            interrupted[i] = false;
+        }
+
+        //place the board
+        balls.reset(getBalls(stage), getSeed(stage));
+    }
+
+    /**
+     * Count a frame, and start the cascade when it is time
+     * @param player The player, the cascade is started from the player's ball
+     * @param update The time the balls and player took to update (nanoseconds)
+     */
+    public void update(final Player player, final long update)
+    {
+        final long now = System.nanoTime();
+
+        //the time since the previous frame, the first frame has nothing to compare to
+        if (previous != 0)
+        {
+            final long frame = now - previous;
+
+            frames[stage]++;
+            frameTotal[stage] += frame;
+            frameWorst[stage] = Math.max(frameWorst[stage], frame);
+            updateTotal[stage] += update;
+            updateWorst[stage] = Math.max(updateWorst[stage], update);
+
+            smoothed = (smoothed == 0) ? frame : smoothed + (frame - smoothed) * SMOOTHING;
+        }
+
+        previous = now;
+
+        //start the cascade when the board is moving
+        if (++ticks == CASCADE_TICK)
+            startCascade(player);
+    }
+
+    /**
+     * Start the cascade in the middle of the screen
+     * @param player The player, the cascade is started from the player's ball
+     */
+    public static void startCascade(final Player player)
+    {
+        player.getBall().setX(GamePanel.WIDTH / 2);
+        player.getBall().setY(GamePanel.HEIGHT / 2);
+        player.getBall().setExpand(true);
+        player.setTurn(false);
+    }
+
+    /**
+     * Get the number of stages
+     * @return The number of stages
+     */
+    public static int getStageCount()
+    {
+        return STAGES.length;
+    }
+
+    /**
+     * Get the number of balls on the board of a stage
+     * @param stage The stage
+     * @return The number of balls
+     */
+    public static int getBalls(final int stage)
+    {
+        return STAGES[stage];
+    }
+
+    /**
+     * Get the seed the board of a stage is placed from
+     * @param stage The stage
+     * @return The seed
+     */
+    public static long getSeed(final int stage)
+    {
+        return SEED + stage;
+    }
+
+    /**
+     * The game was paused, so the time until the next frame is not counted.<br>
+     * The stage is flagged interrupted in the summary
+     */
+    public void pause()
+    {
+        previous = 0;
+        interrupted[stage] = true;
+    }
+
+    /**
+     * Finish the stage
+     * @param exploded The number of balls exploded by the cascade
+     * @return true if there is another stage, false if the benchmark is done
+     */
+    public boolean finish(final int exploded)
+    {
+        this.exploded[stage] = exploded;
+
+        return (stage < STAGES.length - 1);
+    }
+
+    /**
+     * Get the average frames per second of every stage
+     * @return The average frames per second
+     */
+    public double getAverageFps()
+    {
+        int frames = 0;
+        long total = 0;
+
+        for (int i = 0; i < STAGES.length; i++)
+        {
+            frames += this.frames[i];
+            total += this.frameTotal[i];
+        }
+
+        return (total == 0) ? 0 : frames * 1000.0 * NANOS_PER_MILLISECOND / total;
+    }
+
+    /**
+     * Write the summary of every stage to the internal storage
+     * @param activity Object needed to locate the internal storage
+     * @return The summary
+     */
+    public String write(final Activity activity)
+    {
+        final StringBuilder summary = new StringBuilder();
+
+        summary.append("Chain Reaction benchmark\n");
+        summary.append("Device: ").append(Build.MANUFACTURER).append(' ').append(Build.MODEL);
+        summary.append(", Android ").append(Build.VERSION.RELEASE).append(" (API ").append(Build.VERSION.SDK_INT).append(")\n");
+        summary.append("Processors: ").append(Runtime.getRuntime().availableProcessors()).append('\n');
+        summary.append("Average FPS: ").append(format(getAverageFps())).append('\n');
+        summary.append("Balls,Frames,Average FPS,Average frame ms,Worst frame ms,Average update ms,Worst update ms,Exploded,Interrupted\n");
+
+        for (int i = 0; i < STAGES.length; i++)
+        {
+            summary.append(STAGES[i]).append(',');
+            summary.append(frames[i]).append(',');
+            summary.append(format((frameTotal[i] == 0) ? 0 : frames[i] * 1000.0 * NANOS_PER_MILLISECOND / frameTotal[i])).append(',');
+            summary.append(format(getMilliseconds(frameTotal[i], frames[i]))).append(',');
+            summary.append(format(getMilliseconds(frameWorst[i], 1))).append(',');
+            summary.append(format(getMilliseconds(updateTotal[i], frames[i]))).append(',');
+            summary.append(format(getMilliseconds(updateWorst[i], 1))).append(',');
+            summary.append(exploded[i]).append(',');
+            summary.append(interrupted[i]).append('\n');
+        }
+
+        final String result = summary.toString();
+
+        //write in the background
+        Persistence.save(activity, FILE_NAME, result);
+
+        if (MainThread.DEBUG)
+            System.out.println(result);
+
+        return result;
+    }
+
+    /**
+     * Get the average milliseconds
+     * @param total The total nanoseconds
+     * @param count The number of times counted
+     * @return The average milliseconds, 0 if nothing was counted
+     */
+    public static double getMilliseconds(final long total, final int count)
+    {
+        return (count == 0) ? 0 : total / (double)count / NANOS_PER_MILLISECOND;
+    }
+
+    /**
+     * Format a number for the summary
+     * @param value The value
+     * @return The value with 2 decimals
+     */
+    public static String format(final double value)
+    {
+        return String.format(Locale.US, "%.2f", value);
+    }
+
+    /**
+     * Render the frame rate, frame time, balls, stage and draws
+     * @param canvas Where to write the pixel data
+     * @param balls The balls in play
+     * @param commands The draw commands of the frame
+     */
+    public void render(final Canvas canvas, final Balls balls, final RenderBuffer commands)
+    {
+        //the frame time (milliseconds), and the frames per second from it
+        final int frame = (int)(smoothed / NANOS_PER_MILLISECOND);
+        final int fps = (smoothed == 0) ? 0 : (int)(1000.0 * NANOS_PER_MILLISECOND / smoothed);
+
+        canvas.drawText(text, 0, Game.setText(text, LABEL_FPS, fps), 10, 30, paint);
+        canvas.drawText(text, 0, Game.setText(text, LABEL_FRAME, frame), 10, 60, paint);
+        canvas.drawText(text, 0, Game.setText(text, LABEL_BALLS, balls.getTotalCount()), 10, 90, paint);
+        canvas.drawText(text, 0, Game.setText(text, LABEL_STAGE, stage + 1), 10, 120, paint);
+        canvas.drawText(text, 0, Game.setText(text, LABEL_DRAWS, commands.getCount()), 10, 150, paint);
+    }
+}
@@ -1,16 +1,21 @@
 package com.gamesbykevin.chainreaction.panel;
 
 import android.graphics.Canvas;
+import android.os.SystemClock;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 
-import com.gamesbykevin.androidframework.resources.Audio;
 import com.gamesbykevin.androidframework.resources.Disposable;
 import com.gamesbykevin.chainreaction.MainActivity;
+import com.gamesbykevin.chainreaction.assets.AssetCache;
+import com.gamesbykevin.chainreaction.assets.AssetLoader;
 import com.gamesbykevin.chainreaction.assets.Assets;
+import com.gamesbykevin.chainreaction.storage.Persistence;
+import com.gamesbykevin.chainreaction.storage.snapshot.Snapshot;
 import com.gamesbykevin.chainreaction.screen.ScreenManager;
 import com.gamesbykevin.chainreaction.screen.ScreenManager.State;
+import com.gamesbykevin.chainreaction.thread.EventQueue;
 import com.gamesbykevin.chainreaction.thread.MainThread;
 
 import java.util.Random;
@@ -30,6 +35,9 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
     public static final int WIDTH = 480;
     public static final int HEIGHT = 800;
     
+    //the slots of the event queue only presses and releases can use, so a finger is never left down
+    private static final int RESERVED_EVENTS = EventQueue.DEFAULT_CAPACITY / 4;
+    
     //the reference to our activity
     private final MainActivity activity;
     
@@ -39,9 +47,15 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
     //our main game thread
     private MainThread thread;
     
+    //events received on the ui thread, to be processed on the game thread
+    private final EventQueue events;
+    
     //did motion event down happen
     private boolean down = false;
     
+    //the id of the pointer we are tracking, so additional fingers don't cause the coordinates to jump
+    private int pointerId = MotionEvent.INVALID_POINTER_ID;
+    
     //get the ratio of the users screen compared to the default dimensions for the motion event
     private float scaleMotionX, scaleMotionY;
 
@@ -62,6 +76,19 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
         
         //store context
         this.activity = activity;
+        
+        //create the queue to pass events to the game thread
+        this.events = new EventQueue(EventQueue.DEFAULT_CAPACITY);
+        
+        //when assets finish loading in the background, make sure the game thread displays them
+        AssetLoader.setListener(new AssetLoader.Listener()
+        {
+            @Override
+            public void onReady(final AssetLoader.Group group)
+            {
+                wake();
+            }
+        });
             
         //make game panel focusable = true so it can handle events
         super.setFocusable(true);
@@ -133,8 +160,36 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
             screen = null;
         }
         
-        //recycle all asset objects
-        Assets.recycle();
+        //we no longer need to know when assets are loaded
+        AssetLoader.setListener(null);
+        
+        //the assets are kept so the game can start again right away, they are only recycled when memory is low
+    }
+    
+    /**
+     * The system is low on memory.<br>
+     * If the game thread is running the assets are trimmed at the start of the next update, so nothing is
+     * recycled while it is being rendered
+     * @param level The level provided by onTrimMemory
+     */
+    public void trimMemory(final int level)
+    {
+    	if (getThread() != null && getThread().isRunning())
+    	{
+    		//queue the event for the game thread
+    		events.offer(EventQueue.TYPE_TRIM, level, 0, 0, SystemClock.uptimeMillis());
+    		
+    		//make sure the game thread processes the event
+    		wake();
+    	}
+    	else
+    	{
+    		//nothing is rendering, so trim now
+    		if (getScreen() != null)
+    			getScreen().trimMemory(level);
+    		
+    		AssetCache.trim(level);
+    	}
     }
     
     /**
@@ -184,21 +239,65 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
             	//in order to handle multiple motion events, we need to get the action of the current event
             	final int actionIndex = event.getActionIndex();
             	
-                //adjust the coordinates
-                final float x = event.getX(actionIndex) * getScaleMotionX();
-                final float y = event.getY(actionIndex) * getScaleMotionY();
-            	
                 //get the current action that was performed here
                 final int action = event.getActionMasked();
                 
+                //the index of the pointer we are tracking
+                int index;
+                
                 switch (action)
                 {
 	                case MotionEvent.ACTION_DOWN:
 	                	
 	                	//flag motion down occurred
 		            	down = true;
+		            	
+		            	//track the first pointer
+		            	pointerId = event.getPointerId(0);
+		            	
+		            	//queue the motion event
+		            	queueEvent(action, event.getX(0), event.getY(0), event.getEventTime());
 		            	break;
 		            	
+	                case MotionEvent.ACTION_MOVE:
+	                	
+	                	//locate the pointer we are tracking
+	                	index = event.findPointerIndex(pointerId);
+	                	
+	                	//if the pointer isn't here, ignore the event
+	                	if (index < 0)
+	                		break;
+	                	
+	                	//android batches the movement between frames, so queue every historical sample first
+	                	for (int i = 0; i < event.getHistorySize(); i++)
+	                	{
+	                		queueEvent(action, event.getHistoricalX(index, i), event.getHistoricalY(index, i), event.getHistoricalEventTime(i));
+	                	}
+	                	
+	                	//then queue the current sample
+	                	queueEvent(action, event.getX(index), event.getY(index), event.getEventTime());
+	                	break;
+	                	
+	                case MotionEvent.ACTION_POINTER_DOWN:
+	                	//additional fingers are ignored
+	                	break;
+	                	
+	                case MotionEvent.ACTION_POINTER_UP:
+	                	
+	                	//if the pointer we are tracking was lifted, track one of the remaining pointers
+	                	if (event.getPointerId(actionIndex) == pointerId)
+	                	{
+	                		//pick a different pointer
+	                		index = (actionIndex == 0) ? 1 : 0;
+	                		
+	                		//store the new pointer
+	                		pointerId = event.getPointerId(index);
+	                		
+	                		//queue action down at the new pointer, so any drag continues from there without jumping
+	                		queueEvent(MotionEvent.ACTION_DOWN, event.getX(index), event.getY(index), event.getEventTime());
+	                	}
+	                	break;
+		            	
 	                case MotionEvent.ACTION_UP:
 	                	
 	                	//if we have previously action down
@@ -210,11 +309,29 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
 	                    	//perform click
 	                    	performClick();
 	                	}
+	                	
+	                	//locate the pointer we are tracking
+	                	index = event.findPointerIndex(pointerId);
+	                	
+	                	//if not found use the action index
+	                	if (index < 0)
+	                		index = actionIndex;
+	                	
+	                	//queue the motion event
+	                	queueEvent(action, event.getX(index), event.getY(index), event.getEventTime());
+	                	
+	                	//we are no longer tracking a pointer
+	                	pointerId = MotionEvent.INVALID_POINTER_ID;
+	                	break;
+	                	
+	                default:
+	                	//queue the motion event
+	                	queueEvent(action, event.getX(actionIndex), event.getY(actionIndex), event.getEventTime());
 	                	break;
                 }
                 
-                //update the screen/game etc.. with the specified motion events
-                getScreen().update(action, x, y);
+                //make sure the game thread reacts to the input
+                wake();
             }
         }
         catch (Exception e)
@@ -226,6 +343,27 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
         return true;
     }
     
+    /**
+     * Queue a motion event to be processed at the start of the next update
+     * @param action The action of the motion event
+     * @param x (x-coordinate) of the screen
+     * @param y (y-coordinate) of the screen
+     * @param time The time of the motion event (milliseconds)
+     */
+    private void queueEvent(final int action, final float x, final float y, final long time)
+    {
+    	//keep the last slots for presses and releases, a movement left out is replaced by the next one
+    	if (action == MotionEvent.ACTION_MOVE && events.getRemaining() <= RESERVED_EVENTS)
+    		return;
+    	
+    	//adjust the coordinates to the game dimensions
+    	if (!events.offer(EventQueue.TYPE_TOUCH, action, x * getScaleMotionX(), y * getScaleMotionY(), time))
+    	{
+    		if (MainThread.DEBUG)
+    			System.out.println("Touch event dropped, action " + action);
+    	}
+    }
+    
     /**
      * Now that the surface has been created we can create our game objects
      * @param holder Object used to track events
@@ -235,8 +373,8 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
     {
         try
         {
-            //load assets
-            Assets.load(getActivity());
+            //start loading assets in the background (if not already)
+            AssetLoader.start(getActivity());
             
             //create if null
             if (RANDOM == null)
@@ -284,14 +422,26 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
         //pause the game
         if (getScreen() != null)
         {
-            //stop all audio while paused
-            Audio.stop();
-            
             //flag the thread as paused
             getThread().setPause(false);
             
-            //set the state
-            getScreen().setState(State.Paused);
+            try
+            {
+                //pause now, the holder lock makes sure the game thread is not updating or rendering
+                synchronized (getHolder())
+                {
+                    //stop all audio while paused
+                    Assets.stopAudio();
+                    
+                    //pause the game, this saves a snapshot of the game in progress
+                    getScreen().setState(State.Paused);
+                }
+            }
+            finally
+            {
+                //the process may be killed while paused, so make sure the score, settings and snapshot are written
+                Persistence.flush();
+            }
         }
         else
         {
@@ -306,6 +456,39 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
         //does anything need to be done here?
     }
     
+    /**
+     * Wake the game thread (if it is idle), so the next frame is processed right away
+     */
+    public void wake()
+    {
+    	if (getThread() != null)
+    		getThread().wake();
+    }
+    
+    /**
+     * Can the player interact with what is displayed?
+     * @return true once the screens are created, false while the splash is displayed
+     */
+    public boolean isInteractive()
+    {
+    	return (getScreen() != null);
+    }
+    
+    /**
+     * Is there anything on screen that is animating?<br>
+     * If not, the game thread can stay idle until it is woken
+     * @return true if we need to keep updating every frame, false otherwise
+     */
+    public boolean isAnimating()
+    {
+    	//if the screen has not been created yet, keep going
+    	if (getScreen() == null)
+    		return true;
+    	
+    	//check the current screen
+    	return getScreen().isAnimating();
+    }
+    
     /**
      * Update the game state
      */
@@ -316,14 +499,15 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
             //make sure the screen is created first before the thread starts
             if (getScreen() == null)
             {
-                //load all assets
-                Assets.load(getActivity());
-
-                //create new screen manager
-                this.screen = new ScreenManager(this);
+                //create new screen manager once the menu assets are ready, if a game was saved also wait for the game assets so it continues right away
+                if (AssetLoader.isReady(AssetLoader.Group.Menu) && (AssetLoader.isReady(AssetLoader.Group.Game) || !Snapshot.exists(getActivity())))
+                	this.screen = new ScreenManager(this);
             }
             else
             {
+            	//process the events received since the last update
+            	processEvents();
+            	
             	getScreen().update();
             }
         }
@@ -333,6 +517,37 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
         }
     }
     
+    /**
+     * Process all queued touch and memory events.<br>
+     * This is called at the start of each update on the game thread, so the game is never changed while updating/rendering
+     */
+    private void processEvents()
+    {
+    	while (events.poll())
+    	{
+    		try
+    		{
+	    		switch (events.getType())
+	    		{
+		    		case EventQueue.TYPE_TOUCH:
+		    			//update the screen/game etc.. with the specified motion events
+		    			getScreen().update(events.getAction(), events.getX(), events.getY(), events.getTime());
+		    			break;
+		    			
+		    		case EventQueue.TYPE_TRIM:
+		    			//free the cached screen layers and the assets not in use
+		    			getScreen().trimMemory(events.getAction());
+		    			AssetCache.trim(events.getAction());
+		    			break;
+	    		}
+    		}
+    		catch (Exception e)
+    		{
+    			e.printStackTrace();
+    		}
+    	}
+    }
+    
     /**
      * Get the x scale factor for the motion event
      * @return The x ratio of the user's width compared to the default width
@@ -369,6 +584,16 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
     	return this.scaleRenderY;
     }
     
+    /**
+     * Get the render scale.<br>
+     * This is the number of device pixels for each pixel in the game, used to size images for the device
+     * @return The larger of the x and y render scale, 1 if the surface has not been created yet
+     */
+    public float getRenderScale()
+    {
+    	return (hasRatio()) ? Math.max(getScaleRenderX(), getScaleRenderY()) : 1f;
+    }
+    
     @Override
     public void onDraw(Canvas canvas)
     {
@@ -394,6 +619,14 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
                     //render the main screen containing the game and other screens
                     getScreen().render(canvas);
                 }
+                else if (AssetLoader.isReady(AssetLoader.Group.Splash) && !Assets.getImage(Assets.ImageMenuKey.Splash).isRecycled())
+                {
+                    //scale to the screen size
+                    canvas.scale(getScaleRenderX(), getScaleRenderY());
+                    
+                    //display the splash screen while the menu is loading
+                    canvas.drawBitmap(Assets.getImage(Assets.ImageMenuKey.Splash), 0, 0, null);
+                }
             }
             catch (Exception e)
             {
@@ -3,9 +3,12 @@ package com.gamesbykevin.chainreaction.player;
 import com.gamesbykevin.chainreaction.balls.Ball;
 import com.gamesbykevin.chainreaction.balls.Balls;
 import com.gamesbykevin.chainreaction.common.ICommon;
+import com.gamesbykevin.chainreaction.render.RenderBuffer;
 
 import android.graphics.Canvas;
 
+import java.nio.ByteBuffer;
+
 public class Player implements ICommon 
 {
 	//the player's ball
@@ -95,14 +98,11 @@ public class Player implements ICommon
 	 */
 	public final void reset()
 	{
-		//make sure the players ball has the explosion animation
-		getBall().addExplosion();
-		
 		//set the size of the ball
 		getBall().setDimension(Balls.START_DIMENSION);
 		
 		//reset animation
-		getBall().getSpritesheet().setKey(Ball.DEFAULT_KEY);
+		getBall().removeExplosion();
 		
 		//place the ball off the screen for now
 		getBall().setX(-getBall().getWidth());
@@ -114,7 +114,6 @@ public class Player implements ICommon
 		
 		//flag false, so we can play it again
 		getBall().setExpand(false);
-		getBall().setPause(false);
 		getBall().setDead(false);
 		
 		//give the player a turn
@@ -133,6 +132,33 @@ public class Player implements ICommon
 		return this.ball;
 	}
 	
+	/**
+	 * Write the player to the snapshot
+	 * @param buffer Where the player is written
+	 */
+	public void write(final ByteBuffer buffer)
+	{
+		buffer.put((byte)(hasTurn() ? 1 : 0));
+		buffer.put((byte)(hasMove() ? 1 : 0));
+		buffer.putInt(getScore());
+		getBall().write(buffer);
+	}
+	
+	/**
+	 * Read the player from the snapshot
+	 * @param buffer Where the player was written
+	 */
+	public void read(final ByteBuffer buffer)
+	{
+		setTurn(buffer.get() != 0);
+		setMove(buffer.get() != 0);
+		setScore(buffer.getInt());
+		
+		//replace the ball
+		getBall().dispose();
+		this.ball = Ball.read(buffer);
+	}
+	
 	@Override
 	public void dispose() 
 	{
@@ -153,6 +179,17 @@ public class Player implements ICommon
 		}
 	}
 
+	/**
+	 * Record the player's ball to be drawn when the buffer is replayed
+	 * @param buffer The commands of the frame
+	 * @param offsetX How far from its location the ball is drawn horizontally
+	 * @param offsetY How far from its location the ball is drawn vertically
+	 */
+	public void record(final RenderBuffer buffer, final float offsetX, final float offsetY)
+	{
+		getBall().record(buffer, RenderBuffer.LAYER_PLAYER, offsetX, offsetY);
+	}
+
 	@Override
 	public void render(Canvas canvas) throws Exception 
 	{
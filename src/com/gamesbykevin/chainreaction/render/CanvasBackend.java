@@ -0,0 +1,61 @@
+package com.gamesbykevin.chainreaction.render;
+
+import android.graphics.Canvas;
+
+import com.gamesbykevin.chainreaction.balls.SpriteAtlas;
+
+/**
+ * Replay the draw commands onto a canvas.<br>
+ * The sprites are drawn from the atlases, so the atlases need to be created before anything is replayed
+ * @author GOD
+ */
+public final class CanvasBackend
+{
+	private CanvasBackend()
+	{
+		//static class
+	}
+
+	/**
+	 * Draw every command in the buffer, layer by layer
+	 * @param buffer The commands of the frame
+	 * @param canvas Where to write the pixel data, scaled to the game coordinates
+	 */
+	public static void replay(final RenderBuffer buffer, final Canvas canvas)
+	{
+		for (int position = 0; position < buffer.getCount(); position++)
+		{
+			final int index = buffer.getOrder(position);
+
+			render(canvas, buffer.getSprite(index), buffer.getLeft(index), buffer.getTop(index), buffer.getRight(index), buffer.getBottom(index), buffer.getAlpha(index));
+		}
+	}
+
+	/**
+	 * Draw a single sprite
+	 * @param canvas Where to write the pixel data, scaled to the game coordinates
+	 * @param sprite The sprite to draw
+	 * @param left The left of the destination
+	 * @param top The top of the destination
+	 * @param right The right of the destination
+	 * @param bottom The bottom of the destination
+	 * @param alpha The visibility, 0 (hidden) - 255 (fully visible)
+	 */
+	public static void render(final Canvas canvas, final int sprite, final float left, final float top, final float right, final float bottom, final int alpha)
+	{
+		final SpriteAtlas atlas = SpriteAtlas.get(RenderBuffer.getAtlas(sprite));
+
+		//the atlas has not been created yet
+		if (atlas == null)
+			return;
+
+		if (RenderBuffer.isCircle(sprite))
+		{
+			atlas.renderCircle(canvas, RenderBuffer.getCell(sprite), left, top, right, bottom, alpha);
+		}
+		else
+		{
+			atlas.render(canvas, RenderBuffer.getCell(sprite), left, top, right, bottom, alpha);
+		}
+	}
+}
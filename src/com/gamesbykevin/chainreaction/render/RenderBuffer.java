@@ -0,0 +1,375 @@
+package com.gamesbykevin.chainreaction.render;
+
+/**
+ * The draw commands of a frame, recorded by the game and replayed by a backend.<br>
+ * Each command is a sprite drawn into a destination rectangle with an alpha, on a layer. The commands are kept in
+ * primitive arrays that grow as needed and are reused every frame, so recording does not create any objects once the
+ * arrays are large enough. Nothing here depends on the device, so the draw work can be counted anywhere.
+ * @author GOD
+ */
+public final class RenderBuffer
+{
+	/**
+	 * The player's ball
+	 */
+	public static final int LAYER_PLAYER = 0;
+
+	/**
+	 * The balls that have not expanded
+	 */
+	public static final int LAYER_BALLS = 1;
+
+	/**
+	 * The balls that have expanded, drawn over the rest
+	 */
+	public static final int LAYER_EXPANDED = 2;
+
+	/**
+	 * The number of layers, the layers are replayed from first to last
+	 */
+	public static final int LAYERS = 3;
+
+	/**
+	 * The sprite is drawn as a plain circle of the color of the cell
+	 */
+	private static final int CIRCLE = 1 << 30;
+
+	/**
+	 * The bits of the sprite holding the cell
+	 */
+	private static final int CELL_BITS = 16;
+
+	/**
+	 * The cell of the sprite
+	 */
+	private static final int CELL_MASK = (1 << CELL_BITS) - 1;
+
+	/**
+	 * The number of commands the buffer starts with
+	 */
+	private static final int DEFAULT_CAPACITY = 64;
+
+	/**
+	 * Alpha of a sprite drawn fully visible
+	 */
+	public static final int OPAQUE = 255;
+
+	//the sprite of each command
+	private int[] sprites;
+
+	//the destination of each command (left, top, right, bottom)
+	private float[] rects;
+
+	//the alpha and layer of each command
+	private int[] alphas, layers;
+
+	//the number of commands recorded
+	private int count;
+
+	//the commands in the order they are replayed
+	private int[] order;
+
+	//the number of commands in each layer, then the first position of each layer
+	private final int[] starts = new int[LAYERS + 1];
+
+	//is the order up to date with the commands
+	private boolean sorted = true;
+
+	/**
+	 * Create an empty buffer
+	 */
+	public RenderBuffer()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create an empty buffer
+	 * @param capacity The number of commands to hold before growing
+	 */
+	public RenderBuffer(final int capacity)
+	{
+		final int size = Math.max(1, capacity);
+
+		this.sprites = new int[size];
+		this.rects = new float[size * 4];
+		this.alphas = new int[size];
+		this.layers = new int[size];
+		this.order = new int[size];
+	}
+
+	/**
+	 * Get the sprite of a cell
+	 * @param atlas The id of the atlas
+	 * @param cell The index of the cell in the atlas
+	 * @return The sprite
+	 */
+	public static int getSprite(final int atlas, final int cell)
+	{
+		return (atlas << CELL_BITS) | cell;
+	}
+
+	/**
+	 * Get the sprite of a cell drawn as a plain circle
+	 * @param atlas The id of the atlas
+	 * @param cell The index of the cell in the atlas
+	 * @return The sprite
+	 */
+	public static int getCircle(final int atlas, final int cell)
+	{
+		return getSprite(atlas, cell) | CIRCLE;
+	}
+
+	/**
+	 * Get the atlas of the sprite
+	 * @param sprite The sprite
+	 * @return The id of the atlas
+	 */
+	public static int getAtlas(final int sprite)
+	{
+		return (sprite & ~CIRCLE) >>> CELL_BITS;
+	}
+
+	/**
+	 * Get the cell of the sprite
+	 * @param sprite The sprite
+	 * @return The index of the cell in the atlas
+	 */
+	public static int getCell(final int sprite)
+	{
+		return sprite & CELL_MASK;
+	}
+
+	/**
+	 * Is the sprite drawn as a circle?
+	 * @param sprite The sprite
+	 * @return true if a plain circle is drawn, false if the bitmap is drawn
+	 */
+	public static boolean isCircle(final int sprite)
+	{
+		return (sprite & CIRCLE) != 0;
+	}
+
+	/**
+	 * Add a command
+	 * @param sprite The sprite to draw
+	 * @param left The left of the destination
+	 * @param top The top of the destination
+	 * @param right The right of the destination
+	 * @param bottom The bottom of the destination
+	 * @param alpha The visibility, 0 (hidden) - 255 (fully visible)
+	 * @param layer The layer, LAYER_PLAYER through LAYER_EXPANDED
+	 */
+	public void add(final int sprite, final float left, final float top, final float right, final float bottom, final int alpha, final int layer)
+	{
+		//make room for the command
+		if (count == sprites.length)
+			grow();
+
+		sprites[count] = sprite;
+		rects[count * 4] = left;
+		rects[count * 4 + 1] = top;
+		rects[count * 4 + 2] = right;
+		rects[count * 4 + 3] = bottom;
+		alphas[count] = alpha;
+		layers[count] = Math.max(0, Math.min(LAYERS - 1, layer));
+		count++;
+
+		//the order needs to be sorted again
+		sorted = false;
+	}
+
+	/**
+	 * Double the number of commands the buffer can hold
+	 */
+	private void grow()
+	{
+		final int size = sprites.length * 2;
+
+		sprites = copy(sprites, size);
+		alphas = copy(alphas, size);
+		layers = copy(layers, size);
+		order = new int[size];
+
+		final float[] tmp = new float[size * 4];
+		System.arraycopy(rects, 0, tmp, 0, count * 4);
+		rects = tmp;
+	}
+
+	/**
+	 * Copy the commands to a larger array
+	 * @param array The current array
+	 * @param size The new size
+	 * @return The larger array
+	 */
+	private int[] copy(final int[] array, final int size)
+	{
+		final int[] tmp = new int[size];
+		System.arraycopy(array, 0, tmp, 0, count);
+		return tmp;
+	}
+
+	/**
+	 * Remove every command, the arrays are kept for the next frame
+	 */
+	public void clear()
+	{
+		count = 0;
+		sorted = true;
+	}
+
+	/**
+	 * Get the number of commands
+	 * @return The number of commands recorded since the buffer was cleared
+	 */
+	public int getCount()
+	{
+		return this.count;
+	}
+
+	/**
+	 * Get the command replayed at the position.<br>
+	 * The commands are replayed by layer, and in the order recorded within each layer
+	 * @param position The position in the replay, 0 to the count - 1
+	 * @return The index of the command
+	 */
+	public int getOrder(final int position)
+	{
+		//sort by layer (if needed)
+		if (!sorted)
+			sort();
+
+		return order[position];
+	}
+
+	/**
+	 * Sort the commands by layer, commands in the same layer keep the order they were recorded
+	 */
+	private void sort()
+	{
+		for (int layer = 0; layer <= LAYERS; layer++)
+		{
+			starts[layer] = 0;
+		}
+
+		//count the commands in each layer
+		for (int i = 0; i < count; i++)
+		{
+			starts[layers[i] + 1]++;
+		}
+
+		//the first position of each layer
+		for (int layer = 1; layer <= LAYERS; layer++)
+		{
+			starts[layer] += starts[layer - 1];
+		}
+
+		//place each command after the commands before it in the layer
+		for (int i = 0; i < count; i++)
+		{
+			order[starts[layers[i]]++] = i;
+		}
+
+		sorted = true;
+	}
+
+	/**
+	 * Get the number of batches.<br>
+	 * A batch is a run of commands in the replay that draw from the same atlas the same way with the same alpha, so
+	 * a backend can draw them together
+	 * @return The number of batches
+	 */
+	public int getBatches()
+	{
+		int batches = 0;
+
+		for (int position = 0; position < count; position++)
+		{
+			final int index = getOrder(position);
+
+			if (position == 0)
+			{
+				batches++;
+			}
+			else
+			{
+				final int previous = getOrder(position - 1);
+
+				if ((sprites[index] & ~CELL_MASK) != (sprites[previous] & ~CELL_MASK) || alphas[index] != alphas[previous])
+					batches++;
+			}
+		}
+
+		return batches;
+	}
+
+	/**
+	 * Get the sprite of the command
+	 * @param index The index of the command
+	 * @return The sprite
+	 */
+	public int getSprite(final int index)
+	{
+		return sprites[index];
+	}
+
+	/**
+	 * Get the left of the destination
+	 * @param index The index of the command
+	 * @return The left
+	 */
+	public float getLeft(final int index)
+	{
+		return rects[index * 4];
+	}
+
+	/**
+	 * Get the top of the destination
+	 * @param index The index of the command
+	 * @return The top
+	 */
+	public float getTop(final int index)
+	{
+		return rects[index * 4 + 1];
+	}
+
+	/**
+	 * Get the right of the destination
+	 * @param index The index of the command
+	 * @return The right
+	 */
+	public float getRight(final int index)
+	{
+		return rects[index * 4 + 2];
+	}
+
+	/**
+	 * Get the bottom of the destination
+	 * @param index The index of the command
+	 * @return The bottom
+	 */
+	public float getBottom(final int index)
+	{
+		return rects[index * 4 + 3];
+	}
+
+	/**
+	 * Get the alpha of the command
+	 * @param index The index of the command
+	 * @return The visibility, 0 (hidden) - 255 (fully visible)
+	 */
+	public int getAlpha(final int index)
+	{
+		return alphas[index];
+	}
+
+	/**
+	 * Get the layer of the command
+	 * @param index The index of the command
+	 * @return The layer
+	 */
+	public int getLayer(final int index)
+	{
+		return layers[index];
+	}
+}
@@ -6,9 +6,7 @@ import android.graphics.Rect;
 import android.view.MotionEvent;
 
 import com.gamesbykevin.androidframework.awt.Button;
-import com.gamesbykevin.androidframework.resources.Audio;
 import com.gamesbykevin.androidframework.resources.Disposable;
-import com.gamesbykevin.androidframework.resources.Images;
 import com.gamesbykevin.androidframework.screen.Screen;
 import com.gamesbykevin.chainreaction.assets.Assets;
 import com.gamesbykevin.chainreaction.panel.GamePanel;
@@ -19,7 +17,7 @@ import java.util.HashMap;
  * The exit screen, when the player wants to go back to the menu
  * @author GOD
  */
-public class ExitScreen implements Screen, Disposable
+public class ExitScreen implements Screen, Disposable, ILifecycle
 {
     /**
      * Custom message displayed on screen
@@ -38,6 +36,9 @@ public class ExitScreen implements Screen, Disposable
     //all of the buttons for the player to control
     private HashMap<Assets.ImageMenuKey, Button> buttons;
     
+    //the cached message and buttons
+    private ScreenLayer layer;
+    
     /**
      * The dimensions of the buttons
      */
@@ -71,8 +72,8 @@ public class ExitScreen implements Screen, Disposable
         
         //create buttons
         this.buttons = new HashMap<Assets.ImageMenuKey, Button>();
-        this.buttons.put(Assets.ImageMenuKey.Cancel, new Button(Images.getImage(Assets.ImageMenuKey.Cancel)));
-        this.buttons.put(Assets.ImageMenuKey.Confirm, new Button(Images.getImage(Assets.ImageMenuKey.Confirm)));
+        this.buttons.put(Assets.ImageMenuKey.Cancel, new Button(Assets.getImage(Assets.ImageMenuKey.Cancel)));
+        this.buttons.put(Assets.ImageMenuKey.Confirm, new Button(Assets.getImage(Assets.ImageMenuKey.Confirm)));
         
         //position the buttons below the message
         final int y = messageY + tmp.height();
@@ -90,6 +91,9 @@ public class ExitScreen implements Screen, Disposable
             button.setHeight(BUTTON_DIMENSION);
             button.updateBounds();
         }
+        
+        //create the layer for our static content
+        this.layer = new ScreenLayer();
     }
     
     /**
@@ -98,7 +102,9 @@ public class ExitScreen implements Screen, Disposable
     @Override
     public void reset()
     {
-        //do we need anything here
+        //draw the content again on the next render
+        if (layer != null)
+        	layer.invalidate();
     }
     
     @Override
@@ -123,7 +129,7 @@ public class ExitScreen implements Screen, Disposable
 	                    screen.setState(ScreenManager.State.Running);
 	                    
 	                    //play sound effect
-	                    Audio.play(Assets.AudioMenuKey.Selection);
+	                    Assets.playSound(Assets.AudioMenuKey.Selection);
 	                    
 	                    //return true;
 	                    return false;
@@ -133,7 +139,7 @@ public class ExitScreen implements Screen, Disposable
 	                    screen.setState(ScreenManager.State.Ready);
 	                    
 	                    //play sound effect
-	                    Audio.play(Assets.AudioMenuKey.Selection);
+	                    Assets.playSound(Assets.AudioMenuKey.Selection);
 	                    
 	                    //return false;
 	                    return false;
@@ -156,6 +162,23 @@ public class ExitScreen implements Screen, Disposable
     
     @Override
     public void render(final Canvas canvas) throws Exception
+    {
+    	//draw the message and buttons to the layer, if not done already
+    	if (!layer.isValid())
+    	{
+    		renderContent(layer.begin(canvas));
+    		layer.end();
+    	}
+    	
+    	//render the cached message and buttons
+    	layer.render(canvas);
+    }
+    
+    /**
+     * Render the static content of the exit screen
+     * @param canvas Object used to render pixels
+     */
+    private void renderContent(final Canvas canvas)
     {
         if (paint != null)
         {
@@ -167,9 +190,31 @@ public class ExitScreen implements Screen, Disposable
         buttons.get(Assets.ImageMenuKey.Confirm).render(canvas);
     }
     
+    @Override
+    public void onEnter()
+    {
+        //draw the content again on the next render
+        if (layer != null)
+            layer.invalidate();
+    }
+    
+    @Override
+    public void onExit()
+    {
+        //release the cached pixels, the layer is created again when displayed
+        if (layer != null)
+            layer.dispose();
+    }
+    
     @Override
     public void dispose()
     {
+        if (layer != null)
+        {
+        	layer.dispose();
+        	layer = null;
+        }
+        
         if (buttons != null)
         {
             for (Button button : buttons.values())
@@ -4,6 +4,7 @@ import android.graphics.Canvas;
 import com.gamesbykevin.androidframework.resources.Disposable;
 import com.gamesbykevin.androidframework.screen.Screen;
 import com.gamesbykevin.chainreaction.game.Game;
+import com.gamesbykevin.chainreaction.storage.snapshot.Snapshot;
 
 /**
  * The game screen that contains the game
@@ -27,6 +28,15 @@ public class GameScreen implements Screen, Disposable
         return this.game;
     }
     
+    /**
+     * Is the game animating?
+     * @return true if the game exists and has something in motion, false otherwise
+     */
+    public boolean isAnimating()
+    {
+    	return (getGame() != null && getGame().isAnimating());
+    }
+    
     /**
      * Create game object
      * @throws Exception
@@ -46,6 +56,24 @@ public class GameScreen implements Screen, Disposable
         getGame().setReset(true);
     }
     
+    /**
+     * Continue the game saved in the snapshot
+     * @return true if the game was restored, false otherwise
+     * @throws Exception
+     */
+    public boolean restoreGame() throws Exception
+    {
+        if (getGame() == null)
+            this.game = new Game(screen);
+        
+        if (Snapshot.restore(screen.getPanel().getActivity(), getGame()))
+            return true;
+        
+        //the game may have been partly read, so start over
+        createGame();
+        return false;
+    }
+    
     /**
      * Reset any necessary screen elements here
      */
@@ -59,7 +87,7 @@ public class GameScreen implements Screen, Disposable
     public boolean update(final int action, final float x, final float y) throws Exception
     {
         if (getGame() != null)
-            getGame().update(action, x, y);
+            getGame().update(action, x, y, screen.getEventTime());
         
         return true;
     }
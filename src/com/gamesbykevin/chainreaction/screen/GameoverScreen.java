@@ -10,12 +10,10 @@ import android.view.MotionEvent;
 import java.util.HashMap;
 
 import com.gamesbykevin.androidframework.awt.Button;
-import com.gamesbykevin.androidframework.resources.Audio;
 import com.gamesbykevin.androidframework.resources.Disposable;
-import com.gamesbykevin.androidframework.resources.Font;
-import com.gamesbykevin.androidframework.resources.Images;
 import com.gamesbykevin.androidframework.screen.Screen;
 import com.gamesbykevin.chainreaction.MainActivity;
+import com.gamesbykevin.chainreaction.assets.AssetCache;
 import com.gamesbykevin.chainreaction.assets.Assets;
 import com.gamesbykevin.chainreaction.panel.GamePanel;
 
@@ -23,7 +21,7 @@ import com.gamesbykevin.chainreaction.panel.GamePanel;
  * The game over screen
  * @author GOD
  */
-public class GameoverScreen implements Screen, Disposable
+public class GameoverScreen implements Screen, Disposable, ILifecycle
 {
     //our main screen reference
     private final ScreenManager screen;
@@ -31,17 +29,24 @@ public class GameoverScreen implements Screen, Disposable
     //object to paint message
     private Paint paint;
     
+    //object to paint the stats
+    private Paint paintStats;
+    
     //the messages to display
-    private String message = "", message2 = "";
+    private String message = "", message2 = "", stats = "";
     
     //where we draw the images and text
     private int imageX = 0, imageY = 0;
     private int messageX = 0, messageY = 0;
     private int message2X = 0, message2Y = 0;
+    private int statsX = 0, statsY = 0;
     
     //image to render
     private Bitmap image;
     
+    //the key of the image we have acquired (if any)
+    private Assets.ImageMenuKey imageKey;
+    
     //time we have displayed text
     private long time;
     
@@ -66,6 +71,9 @@ public class GameoverScreen implements Screen, Disposable
     //list of buttons
     private HashMap<Key, Button> buttons;
     
+    //the cached overlay, image, messages and buttons
+    private ScreenLayer layer;
+    
     /**
      * Keys to access each button
      * @author GOD
@@ -84,6 +92,9 @@ public class GameoverScreen implements Screen, Disposable
         //create buttons hash map
         this.buttons = new HashMap<Key, Button>();
         
+        //create the layer for our static content
+        this.layer = new ScreenLayer();
+        
         //the start location of the button
         int y = ScreenManager.BUTTON_Y;
         int x = (GamePanel.WIDTH / 2) - (MenuScreen.BUTTON_WIDTH / 2);
@@ -108,7 +119,7 @@ public class GameoverScreen implements Screen, Disposable
     private void addButton(final int x, final int y, final Key key, final String description)
     {
     	//create new button
-    	Button button = new Button(Images.getImage(Assets.ImageMenuKey.Button));
+    	Button button = new Button(Assets.getImage(Assets.ImageMenuKey.Button));
     	
     	//position the button
     	button.setX(x);
@@ -144,6 +155,9 @@ public class GameoverScreen implements Screen, Disposable
         {
         	button.positionText(screen.getPaint());
         }
+        
+        //draw the content again on the next render
+        layer.invalidate();
     }
     
     /**
@@ -152,18 +166,22 @@ public class GameoverScreen implements Screen, Disposable
      * @param record Is this a personal best record
      * @param message The message we want displayed
      * @param restartText The text to be displayed for the restart button
+     * @throws Exception
      */
     public void setMessage(
     	final boolean win, 
     	final boolean record, 
     	final String message, 
     	final String message2, 
-    	final String restartText)
+    	final String restartText) throws Exception
     {
         //assign the message(s)
         this.message = message;
         this.message2 = message2;
         
+        //the stats are assigned separately
+        this.stats = "";
+        
         //update restart text
         this.buttons.get(Key.Restart).setDescription(0, restartText);
         
@@ -175,7 +193,7 @@ public class GameoverScreen implements Screen, Disposable
         {
 	        //assign metrics
         	this.paint = new Paint();
-        	this.paint.setTypeface(Font.getFont(Assets.FontGameKey.Default));
+        	this.paint.setTypeface(Assets.getFont(Assets.FontGameKey.Default));
         	this.paint.setColor(Color.WHITE);
         	this.paint.setTextSize(64f);
         }
@@ -189,20 +207,63 @@ public class GameoverScreen implements Screen, Disposable
         this.message2X = this.messageX;
         this.message2Y = this.messageY + tmp.height() + (int)(tmp.height() * 1.5);
         
+        //determine which image we show
+        final Assets.ImageMenuKey key;
+        
         if (!record)
         {
-	        //determine which image we show
-	        this.image = (win) ? Images.getImage(Assets.ImageMenuKey.Winner) : Images.getImage(Assets.ImageMenuKey.GameOver);
+        	key = (win) ? Assets.ImageMenuKey.Winner : Assets.ImageMenuKey.GameOver;
         }
         else
         {
-        	//assign the new record image
-        	this.image = Images.getImage(Assets.ImageMenuKey.NewRecord);
+        	//the new record image
+        	key = Assets.ImageMenuKey.NewRecord;
         }
         
+        //make sure the image is available, then release the previous image
+        AssetCache.acquire(screen.getPanel().getActivity(), key);
+        
+        if (this.imageKey != null)
+        	AssetCache.release(this.imageKey);
+        
+        //assign the image
+        this.imageKey = key;
+        this.image = Assets.getImage(key);
+        
         //position image accordingly
     	this.imageX = (GamePanel.WIDTH / 2) - (this.image.getWidth() / 2);
         this.imageY = (int)(GamePanel.HEIGHT * .022);
+        
+        //the content has changed
+        this.layer.invalidate();
+    }
+    
+    /**
+     * Assign the stats, displayed below the messages.<br>
+     * This needs to be called after setMessage()
+     * @param stats The stats of the score (rank etc...)
+     */
+    public void setStats(final String stats)
+    {
+        this.stats = stats;
+        
+        //create paint text object for the stats
+        if (this.paintStats == null)
+        {
+        	this.paintStats = new Paint(this.paint);
+        	this.paintStats.setTextSize(40f);
+        }
+        
+        //get the rectangle around the stats
+        Rect tmp = new Rect();
+        this.paintStats.getTextBounds(stats, 0, stats.length(), tmp);
+        
+        //center the stats below the second message
+        this.statsX = (GamePanel.WIDTH / 2) - (tmp.width() / 2);
+        this.statsY = this.message2Y + (this.message2Y - this.messageY);
+        
+        //the content has changed
+        this.layer.invalidate();
     }
     
     /**
@@ -256,7 +317,7 @@ public class GameoverScreen implements Screen, Disposable
 	                    screen.setState(ScreenManager.State.Running);
 	                    
 	                    //play sound effect
-	                    Audio.play(Assets.AudioMenuKey.Selection);
+	                    Assets.playSound(Assets.AudioMenuKey.Selection);
 	                    
 	                    //we don't request additional motion events
 	                    return false;
@@ -267,7 +328,7 @@ public class GameoverScreen implements Screen, Disposable
 	                    screen.setState(ScreenManager.State.Ready);
 	                    
 	                    //play sound effect
-	                    Audio.play(Assets.AudioMenuKey.Selection);
+	                    Assets.playSound(Assets.AudioMenuKey.Selection);
 	                    
 	                    //we don't request additional motion events
 	                    return false;
@@ -275,7 +336,7 @@ public class GameoverScreen implements Screen, Disposable
 	        		case Rate:
 	                    
 	                    //play sound effect
-	                    Audio.play(Assets.AudioMenuKey.Selection);
+	                    Assets.playSound(Assets.AudioMenuKey.Selection);
 	                    
 	                    //go to rate game page
 	                    screen.getPanel().getActivity().openWebpage(MainActivity.WEBPAGE_RATE_URL);
@@ -293,6 +354,15 @@ public class GameoverScreen implements Screen, Disposable
         return true;
     }
     
+    /**
+     * Is anything animating on the game over screen?
+     * @return true if we are waiting to display the menu or the game in the background is in motion, false otherwise
+     */
+    public boolean isAnimating()
+    {
+    	return (!hasDisplay() || screen.getScreenGame().isAnimating());
+    }
+    
     @Override
     public void update() throws Exception
     {
@@ -318,31 +388,85 @@ public class GameoverScreen implements Screen, Disposable
     {
         if (hasDisplay())
         {
-            //only darken the background when the menu is displayed
+            //only darken the background when the menu is displayed, outside the layer so it follows the quality level
             ScreenManager.darkenBackground(canvas);
             
-            //draw the image if it exists
-            if (this.image != null)
-            	canvas.drawBitmap(this.image, this.imageX, this.imageY, this.paint);
-            
-            //render messages
-            canvas.drawText(this.message, messageX, messageY, this.paint);
-            canvas.drawText(this.message2, message2X, message2Y, this.paint);
+        	//draw the menu to the layer, if not done already
+        	if (!layer.isValid())
+        	{
+        		renderContent(layer.begin(canvas));
+        		layer.end();
+        	}
+        	
+        	//render the cached menu
+        	layer.render(canvas);
+        }
+    }
+    
+    /**
+     * Render the static content of the game over menu
+     * @param canvas Object used to render pixels
+     */
+    private void renderContent(final Canvas canvas)
+    {
+        //draw the image if it exists
+        if (this.image != null)
+        	canvas.drawBitmap(this.image, this.imageX, this.imageY, this.paint);
         
-            //render the buttons
-            for (Key key : Key.values())
-            {
-            	buttons.get(key).render(canvas, screen.getPaint());
-            }
+        //render messages
+        canvas.drawText(this.message, messageX, messageY, this.paint);
+        canvas.drawText(this.message2, message2X, message2Y, this.paint);
+        
+        //render the stats (if any)
+        if (this.stats.length() > 0)
+        	canvas.drawText(this.stats, statsX, statsY, this.paintStats);
+    
+        //render the buttons
+        for (Key key : Key.values())
+        {
+        	buttons.get(key).render(canvas, screen.getPaint());
         }
     }
     
+    @Override
+    public void onEnter()
+    {
+        //draw the content again on the next render
+        if (layer != null)
+            layer.invalidate();
+    }
+    
+    @Override
+    public void onExit()
+    {
+        //release the cached pixels, the layer is created again when displayed
+        if (layer != null)
+            layer.dispose();
+    }
+    
     @Override
     public void dispose()
     {
+        //we no longer need the image
+        if (imageKey != null)
+        {
+        	AssetCache.release(imageKey);
+        	imageKey = null;
+        }
+        
+        image = null;
+        
+        if (layer != null)
+        {
+        	layer.dispose();
+        	layer = null;
+        }
+        
         if (paint != null)
         	paint = null;
         
+        paintStats = null;
+        
         if (buttons != null)
         {
         	for (Key key : Key.values())
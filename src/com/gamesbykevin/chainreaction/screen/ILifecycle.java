@@ -0,0 +1,18 @@
+package com.gamesbykevin.chainreaction.screen;
+
+/**
+ * A screen that is told when it is displayed, so it only holds its resources while in use
+ * @author GOD
+ */
+public interface ILifecycle
+{
+    /**
+     * The screen is now displayed
+     */
+    public void onEnter();
+    
+    /**
+     * The screen is no longer displayed, release anything that can be created again
+     */
+    public void onExit();
+}
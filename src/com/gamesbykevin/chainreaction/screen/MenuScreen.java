@@ -5,11 +5,10 @@ import android.graphics.Canvas;
 import android.view.MotionEvent;
 
 import com.gamesbykevin.androidframework.awt.Button;
-import com.gamesbykevin.androidframework.resources.Audio;
 import com.gamesbykevin.androidframework.resources.Disposable;
-import com.gamesbykevin.androidframework.resources.Images;
 import com.gamesbykevin.androidframework.screen.Screen;
 import com.gamesbykevin.chainreaction.MainActivity;
+import com.gamesbykevin.chainreaction.assets.AssetLoader;
 import com.gamesbykevin.chainreaction.assets.Assets;
 import com.gamesbykevin.chainreaction.panel.GamePanel;
 
@@ -19,7 +18,7 @@ import java.util.HashMap;
  * Our main menu
  * @author ABRAHAM
  */
-public class MenuScreen implements Screen, Disposable
+public class MenuScreen implements Screen, Disposable, ILifecycle
 {
     //the logo
     private final Bitmap logo;
@@ -30,6 +29,9 @@ public class MenuScreen implements Screen, Disposable
     //the buttons on the menu screen
     private HashMap<Key, Button> buttons;
     
+    //the cached logo and buttons
+    private ScreenLayer layer;
+    
     /**
      * Button text to display to exit the game
      */
@@ -81,7 +83,7 @@ public class MenuScreen implements Screen, Disposable
     public MenuScreen(final ScreenManager screen)
     {
         //store reference to the logo
-        this.logo = Images.getImage(Assets.ImageMenuKey.Logo);
+        this.logo = Assets.getImage(Assets.ImageMenuKey.Logo);
         
         //store our screen reference
         this.screen = screen;
@@ -89,6 +91,9 @@ public class MenuScreen implements Screen, Disposable
         //create a new hash map
         this.buttons = new HashMap<Key, Button>();
         
+        //create the layer for our static content
+        this.layer = new ScreenLayer();
+        
         double x = ScreenManager.BUTTON_X;
         double y = ScreenManager.BUTTON_Y;
         
@@ -165,7 +170,7 @@ public class MenuScreen implements Screen, Disposable
     private void addButton(final double x, final double y, final String desc, final Key key, final Assets.ImageMenuKey imageKey)
     {
     	//create button of specified image
-        Button button = new Button(Images.getImage(imageKey));
+        Button button = new Button(Assets.getImage(imageKey));
         
         //set the location
         button.setX(x);
@@ -185,7 +190,9 @@ public class MenuScreen implements Screen, Disposable
     @Override
     public void reset()
     {
-        //do we need anything here
+        //draw the content again on the next render
+        if (layer != null)
+        	layer.invalidate();
     }
     
     @Override
@@ -211,7 +218,7 @@ public class MenuScreen implements Screen, Disposable
         			{
 		        		case Instructions:
 		                    //play sound effect
-		                    Audio.play(Assets.AudioMenuKey.Selection);
+		                    Assets.playSound(Assets.AudioMenuKey.Selection);
 		                    
 		                    //go to instructions
 		                    this.screen.getPanel().getActivity().openWebpage(MainActivity.WEBPAGE_GAME_INSTRUCTIONS_URL);
@@ -221,7 +228,7 @@ public class MenuScreen implements Screen, Disposable
 		                    
 		        		case Facebook:
 		                    //play sound effect
-		                    Audio.play(Assets.AudioMenuKey.Selection);
+		                    Assets.playSound(Assets.AudioMenuKey.Selection);
 		                    
 		                    //go to instructions
 		                    this.screen.getPanel().getActivity().openWebpage(MainActivity.WEBPAGE_FACEBOOK_URL);
@@ -231,7 +238,7 @@ public class MenuScreen implements Screen, Disposable
 		                    
 		        		case Twitter:
 		                    //play sound effect
-		                    Audio.play(Assets.AudioMenuKey.Selection);
+		                    Assets.playSound(Assets.AudioMenuKey.Selection);
 		                    
 		                    //go to instructions
 		                    this.screen.getPanel().getActivity().openWebpage(MainActivity.WEBPAGE_TWITTER_URL);
@@ -247,14 +254,14 @@ public class MenuScreen implements Screen, Disposable
 		                    notify = false;
 		                    
 		                    //play sound effect
-		                    Audio.play(Assets.AudioMenuKey.Selection);
+		                    Assets.playSound(Assets.AudioMenuKey.Selection);
 		                    
 		                    //we do not request any additional events
 		                    return false;
 		                    
 	        			case Exit:
 	                        //play sound effect
-	                        Audio.play(Assets.AudioMenuKey.Selection);
+	                        Assets.playSound(Assets.AudioMenuKey.Selection);
 	                        
 	                        //exit game
 	                        this.screen.getPanel().getActivity().finish();
@@ -267,14 +274,14 @@ public class MenuScreen implements Screen, Disposable
 	                        screen.setState(ScreenManager.State.Options);
 	                        
 	                        //play sound effect
-	                        Audio.play(Assets.AudioMenuKey.Selection);
+	                        Assets.playSound(Assets.AudioMenuKey.Selection);
 	                        
 	                        //we do not request any additional events
 	                        return false;
 	                        
 	    				case More: 
 	    	                //play sound effect
-	    	                Audio.play(Assets.AudioMenuKey.Selection);
+	    	                Assets.playSound(Assets.AudioMenuKey.Selection);
 	    	                
 	    	                //go to web page
 	    	                this.screen.getPanel().getActivity().openWebpage(MainActivity.WEBPAGE_MORE_GAMES_URL);
@@ -284,7 +291,7 @@ public class MenuScreen implements Screen, Disposable
 	    	                
 						case Rate:
 			                //play sound effect
-			                Audio.play(Assets.AudioMenuKey.Selection);
+			                Assets.playSound(Assets.AudioMenuKey.Selection);
 			                
 			                //go to web page
 			                this.screen.getPanel().getActivity().openWebpage(MainActivity.WEBPAGE_RATE_URL);
@@ -303,15 +310,21 @@ public class MenuScreen implements Screen, Disposable
         return true;
     }
     
+    /**
+     * Is anything animating on the menu?
+     * @return true if we are starting a new game or the game in the background is in motion, false otherwise
+     */
+    public boolean isAnimating()
+    {
+    	return (reset || getScreen().getScreenGame().isAnimating());
+    }
+    
     @Override
     public void update() throws Exception
     {
     	//only reset if we notified the user by displaying the splash screen
-        if (reset && notify)
+        if (reset && notify && AssetLoader.isReady(AssetLoader.Group.Game))
         {
-            //load game assets
-            Assets.load(getScreen().getPanel().getActivity());
-
             //create the game
             getScreen().getScreenGame().createGame();
 
@@ -335,52 +348,95 @@ public class MenuScreen implements Screen, Disposable
         if (reset)
         {
             //render splash screen
-            canvas.drawBitmap(Images.getImage(Assets.ImageMenuKey.Splash), 0, 0, null);
+            canvas.drawBitmap(Assets.getImage(Assets.ImageMenuKey.Splash), 0, 0, null);
             
             //we notified the user
             notify = true;
         }
         else
         {
-	        //draw main logo
-	        canvas.drawBitmap(logo, ScreenManager.LOGO_X, ScreenManager.LOGO_Y, null);
-	
-	        //draw the menu buttons
-	        if (buttons != null)
-	        {
-	        	for (Key key : Key.values())
-	        	{
-	        		//get the current button
-	        		Button button = buttons.get(key);
-	        		
-	        		//render the button accordingly
-	        		switch (key)
-	        		{
-		        		case Instructions:
-		        		case Facebook:
-		        		case Twitter:
-		        			button.render(canvas);
-		        			break;
-		        			
-		        		case Start:
-	        			case Exit:
-	        			case Settings: 
-        				case More: 
-    					case Rate:
-	        				button.render(canvas, getScreen().getPaint());
-	        				break;
-	        				
-        				default:
-        					throw new Exception("Key is not handled here: " + key);
-	        		}
-	        	}
-	        }
+        	//without a game the layer covers the background, so it doesn't need transparency
+        	layer.setOpaque(!getScreen().hasGame());
+        	
+        	//draw the logo and buttons to the layer, if not done already
+        	if (!layer.isValid())
+        	{
+        		renderContent(getScreen().beginLayer(layer, canvas));
+        		layer.end();
+        	}
+        	
+        	//render the cached logo and buttons
+        	layer.render(canvas);
+        }
+    }
+    
+    /**
+     * Render the static content of the menu
+     * @param canvas Object used to render pixels
+     * @throws Exception
+     */
+    private void renderContent(final Canvas canvas) throws Exception
+    {
+        //draw main logo
+        canvas.drawBitmap(logo, ScreenManager.LOGO_X, ScreenManager.LOGO_Y, null);
+
+        //draw the menu buttons
+        if (buttons != null)
+        {
+        	for (Key key : Key.values())
+        	{
+        		//get the current button
+        		Button button = buttons.get(key);
+        		
+        		//render the button accordingly
+        		switch (key)
+        		{
+	        		case Instructions:
+	        		case Facebook:
+	        		case Twitter:
+	        			button.render(canvas);
+	        			break;
+	        			
+	        		case Start:
+        			case Exit:
+        			case Settings: 
+    				case More: 
+					case Rate:
+        				button.render(canvas, getScreen().getPaint());
+        				break;
+        				
+    				default:
+    					throw new Exception("Key is not handled here: " + key);
+        		}
+        	}
         }
     }
     
+    @Override
+    public void onEnter()
+    {
+        //draw the content again on the next render
+        if (layer != null)
+            layer.invalidate();
+    }
+    
+    @Override
+    public void onExit()
+    {
+        //release the cached pixels, the layer is created again when displayed
+        if (layer != null)
+            layer.dispose();
+    }
+    
     @Override
     public void dispose()
     {
+        if (layer != null)
+        {
+        	layer.dispose();
+        	layer = null;
+        }
+        
         if (buttons != null)
         {
             for (Button button : buttons.values())
@@ -9,7 +9,6 @@ import java.util.HashMap;
 import com.gamesbykevin.androidframework.awt.Button;
 import com.gamesbykevin.androidframework.resources.Audio;
 import com.gamesbykevin.androidframework.resources.Disposable;
-import com.gamesbykevin.androidframework.resources.Images;
 import com.gamesbykevin.androidframework.screen.Screen;
 import com.gamesbykevin.chainreaction.MainActivity;
 import com.gamesbykevin.chainreaction.assets.Assets;
@@ -20,7 +19,7 @@ import com.gamesbykevin.chainreaction.storage.settings.Settings;
  * This screen will contain the game options
  * @author GOD
  */
-public class OptionsScreen implements Screen, Disposable
+public class OptionsScreen implements Screen, Disposable, ILifecycle
 {
     //our logo reference
     private final Bitmap logo;
@@ -34,6 +33,9 @@ public class OptionsScreen implements Screen, Disposable
     //our storage settings object
     private Settings settings;
     
+    //the cached logo and buttons
+    private ScreenLayer layer;
+    
     //buttons to access each button in the list
     public enum Key
     {
@@ -43,10 +45,13 @@ public class OptionsScreen implements Screen, Disposable
     public OptionsScreen(final ScreenManager screen)
     {
         //our logo reference
-        this.logo = Images.getImage(Assets.ImageMenuKey.Logo);
+        this.logo = Assets.getImage(Assets.ImageMenuKey.Logo);
 
         //create buttons hash map
         this.buttons = new HashMap<Key, Button>();
+        
+        //create the layer for our static content
+        this.layer = new ScreenLayer();
 
         //store our screen reference
         this.screen = screen;
@@ -121,17 +126,17 @@ public class OptionsScreen implements Screen, Disposable
      */
     private void addIcons()
     {
-        Button tmp = new Button(Images.getImage(Assets.ImageMenuKey.Instructions));
+        Button tmp = new Button(Assets.getImage(Assets.ImageMenuKey.Instructions));
         tmp.setX(60);
         tmp.setY(GamePanel.HEIGHT - (MenuScreen.ICON_DIMENSION * 1.25));
         this.buttons.put(Key.Instructions, tmp);
         
-        tmp = new Button(Images.getImage(Assets.ImageMenuKey.Facebook));
+        tmp = new Button(Assets.getImage(Assets.ImageMenuKey.Facebook));
         tmp.setX(195);
         tmp.setY(GamePanel.HEIGHT - (MenuScreen.ICON_DIMENSION * 1.25));
         this.buttons.put(Key.Facebook, tmp);
         
-        tmp = new Button(Images.getImage(Assets.ImageMenuKey.Twitter));
+        tmp = new Button(Assets.getImage(Assets.ImageMenuKey.Twitter));
         tmp.setX(330);
         tmp.setY(GamePanel.HEIGHT - (MenuScreen.ICON_DIMENSION * 1.25));
         this.buttons.put(Key.Twitter, tmp);
@@ -139,7 +144,7 @@ public class OptionsScreen implements Screen, Disposable
     
     private void addButtonBack(final int x, final int y)
     {
-        Button button = new Button(Images.getImage(Assets.ImageMenuKey.Button));
+        Button button = new Button(Assets.getImage(Assets.ImageMenuKey.Button));
         button.addDescription("Go  Back");
         button.setX(x);
         button.setY(y);
@@ -148,7 +153,7 @@ public class OptionsScreen implements Screen, Disposable
     
     private void addButtonSound(final int x, final int y)
     {
-        Button button = new Button(Images.getImage(Assets.ImageMenuKey.Button));
+        Button button = new Button(Assets.getImage(Assets.ImageMenuKey.Button));
         button.addDescription("Sound: On");
         button.addDescription("Sound: Off");
         button.setX(x);
@@ -158,9 +163,10 @@ public class OptionsScreen implements Screen, Disposable
 
     private void addButtonMode(final int x, final int y)
     {
-        Button button = new Button(Images.getImage(Assets.ImageMenuKey.Button));
+        Button button = new Button(Assets.getImage(Assets.ImageMenuKey.Button));
         button.addDescription("Mode: React");
         button.addDescription("Mode: Capture");
+        button.addDescription("Mode: Stress");
         button.setX(x);
         button.setY(y);
         this.buttons.put(Key.Mode, button);
@@ -168,7 +174,7 @@ public class OptionsScreen implements Screen, Disposable
     
     private void addButtonVibrate(final int x, final int y)
     {
-        Button button = new Button(Images.getImage(Assets.ImageMenuKey.Button));
+        Button button = new Button(Assets.getImage(Assets.ImageMenuKey.Button));
         button.addDescription("Vibrate: On");
         button.addDescription("Vibrate: Off");
         button.setX(x);
@@ -184,6 +190,9 @@ public class OptionsScreen implements Screen, Disposable
     public void setIndex(final Key key, final int index)
     {
     	buttons.get(key).setIndex(index);
+    	
+    	//the button text has changed
+    	layer.invalidate();
     }
     
     /**
@@ -202,6 +211,10 @@ public class OptionsScreen implements Screen, Disposable
     @Override
     public void reset()
     {
+    	//draw the content again on the next render
+    	if (layer != null)
+    		layer.invalidate();
+    	
         if (buttons != null)
         {
         	for (Key key : Key.values())
@@ -267,6 +280,9 @@ public class OptionsScreen implements Screen, Disposable
     					//change index
     					button.setIndex(button.getIndex() + 1);
     					
+    					//the button has changed
+    					layer.invalidate();
+    					
     	                //store our settings
     	                settings.save();
     	                
@@ -274,7 +290,7 @@ public class OptionsScreen implements Screen, Disposable
     	                getScreen().setState(ScreenManager.State.Ready);
     	                
     	                //play sound effect
-    	                Audio.play(Assets.AudioMenuKey.Selection);
+    	                Assets.playSound(Assets.AudioMenuKey.Selection);
     	                
     	                //no need to continue
     	                return false;
@@ -286,9 +302,12 @@ public class OptionsScreen implements Screen, Disposable
     					
     					//position the text
     			        button.positionText(getScreen().getPaint());
+    			        
+    			        //the button text has changed
+    			        layer.invalidate();
     					
     	                //play sound effect
-    	                Audio.play(Assets.AudioMenuKey.Selection);
+    	                Assets.playSound(Assets.AudioMenuKey.Selection);
     	                
                         //no need to continue
                         return false;
@@ -301,11 +320,14 @@ public class OptionsScreen implements Screen, Disposable
     					//position the text
     			        button.positionText(getScreen().getPaint());
     			        
+    			        //the button text has changed
+    			        layer.invalidate();
+    			        
                         //flip setting
                         Audio.setAudioEnabled(!Audio.isAudioEnabled());
                         
                         //play sound effect
-                        Audio.play(Assets.AudioMenuKey.Selection);
+                        Assets.playSound(Assets.AudioMenuKey.Selection);
                         
                         //exit loop
                         return false;
@@ -313,7 +335,7 @@ public class OptionsScreen implements Screen, Disposable
     				case Instructions:
     					
     	                //play sound effect
-    	                Audio.play(Assets.AudioMenuKey.Selection);
+    	                Assets.playSound(Assets.AudioMenuKey.Selection);
     	                
     	                //go to instructions
     					getScreen().getPanel().getActivity().openWebpage(MainActivity.WEBPAGE_GAME_INSTRUCTIONS_URL);
@@ -324,7 +346,7 @@ public class OptionsScreen implements Screen, Disposable
     				case Facebook:
     					
     	                //play sound effect
-    	                Audio.play(Assets.AudioMenuKey.Selection);
+    	                Assets.playSound(Assets.AudioMenuKey.Selection);
     	                
     	                //go to instructions
     					getScreen().getPanel().getActivity().openWebpage(MainActivity.WEBPAGE_FACEBOOK_URL);
@@ -335,7 +357,7 @@ public class OptionsScreen implements Screen, Disposable
     				case Twitter:
     					
     	                //play sound effect
-    	                Audio.play(Assets.AudioMenuKey.Selection);
+    	                Assets.playSound(Assets.AudioMenuKey.Selection);
     	                
     	                //go to instructions
     					getScreen().getPanel().getActivity().openWebpage(MainActivity.WEBPAGE_TWITTER_URL);
@@ -363,6 +385,27 @@ public class OptionsScreen implements Screen, Disposable
     
     @Override
     public void render(final Canvas canvas) throws Exception
+    {
+    	//without a game the layer covers the background, so it doesn't need transparency
+    	layer.setOpaque(!getScreen().hasGame());
+    	
+    	//draw the logo and buttons to the layer, if not done already
+    	if (!layer.isValid())
+    	{
+    		renderContent(getScreen().beginLayer(layer, canvas));
+    		layer.end();
+    	}
+    	
+    	//render the cached logo and buttons
+    	layer.render(canvas);
+    }
+    
+    /**
+     * Render the static content of the options
+     * @param canvas Object used to render pixels
+     * @throws Exception
+     */
+    private void renderContent(final Canvas canvas) throws Exception
     {
         //draw our main logo
         canvas.drawBitmap(logo, ScreenManager.LOGO_X, ScreenManager.LOGO_Y, null);
@@ -394,9 +437,31 @@ public class OptionsScreen implements Screen, Disposable
     	}
     }
     
+    @Override
+    public void onEnter()
+    {
+        //draw the content again on the next render
+        if (layer != null)
+            layer.invalidate();
+    }
+    
+    @Override
+    public void onExit()
+    {
+        //release the cached pixels, the layer is created again when displayed
+        if (layer != null)
+            layer.dispose();
+    }
+    
     @Override
     public void dispose()
     {
+        if (layer != null)
+        {
+        	layer.dispose();
+        	layer = null;
+        }
+        
         if (settings != null)
         {
             settings.dispose();
@@ -13,7 +13,7 @@ import com.gamesbykevin.chainreaction.panel.GamePanel;
  * The pause screen
  * @author ABRAHAM
  */
-public class PauseScreen implements Screen, Disposable
+public class PauseScreen implements Screen, Disposable, ILifecycle
 {
     /**
      * Custom message displayed on screen
@@ -32,6 +32,9 @@ public class PauseScreen implements Screen, Disposable
     //store the previous state
     private ScreenManager.State previous;
     
+    //the cached message
+    private ScreenLayer layer;
+    
     private static final float DEFAULT_FONT_SIZE = 96f;
     
     public PauseScreen(final ScreenManager screen)
@@ -52,6 +55,9 @@ public class PauseScreen implements Screen, Disposable
         //store the dimensions
         pixelW = tmp.width();
         pixelH = tmp.height();
+        
+        //create the layer for our static content
+        this.layer = new ScreenLayer();
     }
     
     /**
@@ -81,7 +87,9 @@ public class PauseScreen implements Screen, Disposable
     @Override
     public void reset()
     {
-        //do we need anything here
+        //draw the content again on the next render
+        if (layer != null)
+        	layer.invalidate();
     }
     
     @Override
@@ -111,18 +119,48 @@ public class PauseScreen implements Screen, Disposable
     {
         if (paint != null)
         {
-            //calculate middle
-            final int x = (GamePanel.WIDTH / 2) - (pixelW / 2);
-            final int y = (GamePanel.HEIGHT / 2) - (pixelH / 2);
-             
-            //draw text
-            canvas.drawText(MESSAGE, x, y, paint);
+        	//draw the message to the layer, if not done already
+        	if (!layer.isValid())
+        	{
+	            //calculate middle
+	            final int x = (GamePanel.WIDTH / 2) - (pixelW / 2);
+	            final int y = (GamePanel.HEIGHT / 2) - (pixelH / 2);
+	             
+	            //draw text
+	            layer.begin(canvas).drawText(MESSAGE, x, y, paint);
+	            layer.end();
+        	}
+        	
+        	//render the cached message
+        	layer.render(canvas);
         }
     }
     
+    @Override
+    public void onEnter()
+    {
+        //draw the content again on the next render
+        if (layer != null)
+            layer.invalidate();
+    }
+    
+    @Override
+    public void onExit()
+    {
+        //release the cached pixels, the layer is created again when displayed
+        if (layer != null)
+            layer.dispose();
+    }
+    
     @Override
     public void dispose()
     {
+        if (layer != null)
+        {
+        	layer.dispose();
+        	layer = null;
+        }
+        
         if (paint != null)
             paint = null;
     }
@@ -0,0 +1,161 @@
+package com.gamesbykevin.chainreaction.screen;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+
+import com.gamesbykevin.androidframework.resources.Disposable;
+import com.gamesbykevin.chainreaction.panel.GamePanel;
+
+/**
+ * A cached layer containing the static content of a screen.<br>
+ * The content is drawn once and then copied to the canvas every frame until the layer is invalidated.<br>
+ * A layer that covers everything under it is opaque and uses half the memory of a layer that is see through.
+ * @author GOD
+ */
+public final class ScreenLayer implements Disposable
+{
+	//the cached pixel data
+	private Bitmap bitmap;
+
+	//the canvas used to draw on our cached pixel data
+	private Canvas canvas;
+
+	//is the cached content up to date
+	private boolean valid = false;
+
+	//does the content cover the entire layer
+	private boolean opaque = false;
+
+	//where the layer is drawn (in game coordinates)
+	private final Rect destination;
+
+	/**
+	 * Create a new layer
+	 */
+	public ScreenLayer()
+	{
+		//the layer covers the entire game window
+		this.destination = new Rect(0, 0, GamePanel.WIDTH, GamePanel.HEIGHT);
+	}
+
+	/**
+	 * Flag the layer to be drawn again on the next render
+	 */
+	public void invalidate()
+	{
+		this.valid = false;
+	}
+
+	/**
+	 * Is the cached content up to date?
+	 * @return true if the layer can be rendered without drawing the content again, false otherwise
+	 */
+	public boolean isValid()
+	{
+		return (this.valid && this.bitmap != null && !this.bitmap.isRecycled());
+	}
+
+	/**
+	 * Set if the content covers the entire layer.<br>
+	 * The change takes effect the next time the layer is drawn
+	 * @param opaque true if nothing under the layer is visible, false if the layer is see through
+	 */
+	public void setOpaque(final boolean opaque)
+	{
+		if (this.opaque != opaque)
+		{
+			this.opaque = opaque;
+
+			//the content needs to be drawn again
+			invalidate();
+		}
+	}
+
+	/**
+	 * Does the content cover the entire layer?
+	 * @return true if nothing under the layer is visible, false otherwise
+	 */
+	public boolean isOpaque()
+	{
+		return this.opaque;
+	}
+
+	/**
+	 * Get the pixel format of the layer
+	 * @return RGB_565 if the layer is opaque, ARGB_8888 if the layer needs transparency
+	 */
+	private Bitmap.Config getConfig()
+	{
+		return (this.opaque) ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+	}
+
+	/**
+	 * Prepare the layer to be drawn.<br>
+	 * The layer is created at the pixel size of the target canvas so there is no loss in quality,
+	 * and the returned canvas is scaled so the content can be drawn using the game coordinates.
+	 * @param target The canvas the layer will eventually be rendered to
+	 * @return The canvas where the static content is to be drawn
+	 */
+	public Canvas begin(final Canvas target)
+	{
+		//the actual pixel dimensions of the surface
+		final int width = (target.getWidth() > 0) ? target.getWidth() : GamePanel.WIDTH;
+		final int height = (target.getHeight() > 0) ? target.getHeight() : GamePanel.HEIGHT;
+
+		//create the bitmap if it does not exist or the surface size or format has changed
+		if (bitmap == null || bitmap.isRecycled() || bitmap.getWidth() != width || bitmap.getHeight() != height || bitmap.getConfig() != getConfig())
+		{
+			//recycle the previous layer
+			if (bitmap != null)
+				bitmap.recycle();
+
+			//create our layer
+			this.bitmap = Bitmap.createBitmap(width, height, getConfig());
+
+			//create the canvas to write to our layer
+			this.canvas = new Canvas(this.bitmap);
+
+			//scale so we can draw using the game coordinates
+			this.canvas.scale(width / (float)GamePanel.WIDTH, height / (float)GamePanel.HEIGHT);
+		}
+
+		//remove the previous content
+		this.bitmap.eraseColor((this.opaque) ? Color.BLACK : Color.TRANSPARENT);
+
+		//return the canvas to draw on
+		return this.canvas;
+	}
+
+	/**
+	 * Flag that the static content has been drawn
+	 */
+	public void end()
+	{
+		this.valid = true;
+	}
+
+	/**
+	 * Render the cached layer
+	 * @param target The canvas to write the layer to
+	 */
+	public void render(final Canvas target)
+	{
+		if (isValid())
+			target.drawBitmap(this.bitmap, null, this.destination, null);
+	}
+
+	@Override
+	public void dispose()
+	{
+		if (bitmap != null)
+		{
+			bitmap.recycle();
+			bitmap = null;
+		}
+
+		canvas = null;
+		valid = false;
+	}
+}
@@ -1,18 +1,23 @@
 package com.gamesbykevin.chainreaction.screen;
 
+import android.content.ComponentCallbacks2;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Typeface;
-import com.gamesbykevin.androidframework.resources.Audio;
 
 import com.gamesbykevin.androidframework.resources.Disposable;
-import com.gamesbykevin.androidframework.resources.Images;
 import com.gamesbykevin.androidframework.screen.Screen;
+import com.gamesbykevin.chainreaction.assets.AssetCache;
+import com.gamesbykevin.chainreaction.assets.AssetLoader;
 import com.gamesbykevin.chainreaction.assets.Assets;
 import com.gamesbykevin.chainreaction.panel.GamePanel;
+import com.gamesbykevin.chainreaction.storage.settings.Settings;
+import com.gamesbykevin.chainreaction.storage.snapshot.Snapshot;
+import com.gamesbykevin.chainreaction.thread.Quality;
 
-import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.EnumSet;
 
 /**
  * This class will contain the game screens
@@ -34,12 +39,90 @@ public final class ScreenManager implements Screen, Disposable
     //our game panel
     private final GamePanel panel;
     
-    //the screens in our main screen
-    private HashMap<State, Screen> screens;
+    //the screens in our main screen, each is created the first time it is needed
+    private EnumMap<State, Screen> screens;
+    
+    //the states whose screens are currently displayed
+    private final EnumSet<State> visible = EnumSet.noneOf(State.class);
     
     //the paint object used for the button text
     private Paint paint;
     
+    //the time of the motion event currently being processed
+    private long eventTime;
+    
+    //has the music been loaded
+    private boolean music = false;
+    
+    /**
+     * The background is drawn behind every screen, so it is in use as long as the manager exists
+     */
+    private static final Enum<?>[] SCREEN_KEYS = 
+    {
+    	Assets.ImageMenuKey.Background,
+    };
+    
+    /**
+     * The images captured by the buttons and logos of the menu, in use once the screen is created
+     */
+    private static final Enum<?>[] READY_KEYS = 
+    {
+    	Assets.ImageMenuKey.Button,
+    	Assets.ImageMenuKey.Facebook,
+    	Assets.ImageMenuKey.Instructions,
+    	Assets.ImageMenuKey.Twitter,
+    	Assets.ImageMenuKey.Logo,
+    };
+    
+    /**
+     * The images captured by the buttons and logos of the options, in use once the screen is created
+     */
+    private static final Enum<?>[] OPTIONS_KEYS = READY_KEYS;
+    
+    /**
+     * The images captured by the buttons of the exit screen, in use once the screen is created
+     */
+    private static final Enum<?>[] EXIT_KEYS = 
+    {
+    	Assets.ImageMenuKey.Cancel,
+    	Assets.ImageMenuKey.Confirm,
+    };
+    
+    /**
+     * The images captured by the buttons of the game over screen, in use once the screen is created
+     */
+    private static final Enum<?>[] GAMEOVER_KEYS = 
+    {
+    	Assets.ImageMenuKey.Button,
+    };
+    
+    /**
+     * The screens without any images of their own
+     */
+    private static final Enum<?>[] NO_KEYS = new Enum<?>[0];
+    
+    /**
+     * The assets in use on the menu
+     */
+    private static final Enum<?>[] MENU_KEYS = 
+    {
+    	Assets.ImageMenuKey.Splash,
+    };
+    
+    /**
+     * The assets in use while playing the game
+     */
+    private static final Enum<?>[] GAME_KEYS = 
+    {
+    	Assets.ImageMenuKey.Splash,
+    	Assets.AudioGameKey.Explosion,
+    	Assets.AudioGameKey.Lose,
+    	Assets.AudioGameKey.Win,
+    };
+    
+    //the assets acquired for the current state
+    private Enum<?>[] stateKeys = new Enum<?>[0];
+    
     /**
      * The x-coordinate where we want the logo to be displayed
      */
@@ -83,23 +166,47 @@ public final class ScreenManager implements Screen, Disposable
     /**
      * Create our main screen
      * @param panel The reference to our game panel
+     * @throws Exception
      */
-    public ScreenManager(final GamePanel panel)
+    public ScreenManager(final GamePanel panel) throws Exception
     {
         //store our game panel reference
         this.panel = panel;
         
-        //create new hash map
-        this.screens = new HashMap<State, Screen>();
-        this.screens.put(State.Ready, new MenuScreen(this));
-        this.screens.put(State.Paused, new PauseScreen(this));
-        this.screens.put(State.Exit, new ExitScreen(this));
-        this.screens.put(State.Options, new OptionsScreen(this));
-        this.screens.put(State.GameOver, new GameoverScreen(this));
-        this.screens.put(State.Running, new GameScreen(this));
+        //enable or disable the sound with the settings read during the splash
+        Settings.apply();
         
-        //default to the ready state
-        setState(State.Ready);
+        //the background is needed for as long as the manager exists
+        AssetCache.acquire(panel.getActivity(), SCREEN_KEYS);
+        
+        //if the music is already loaded it will start with the state
+        this.music = AssetLoader.isReady(AssetLoader.Group.Music);
+        
+        //the screens are created when first needed
+        this.screens = new EnumMap<State, Screen>(State.class);
+        
+        //continue the saved game (if any), otherwise default to the ready state
+        if (!restoreGame())
+        	setState(State.Ready);
+    }
+    
+    /**
+     * Continue the game saved when the process was last paused
+     * @return true if the game was restored and is running, false otherwise
+     * @throws Exception
+     */
+    private boolean restoreGame() throws Exception
+    {
+    	//the game needs its assets to continue
+    	if (!Snapshot.exists(getPanel().getActivity()) || !AssetLoader.isReady(AssetLoader.Group.Game))
+    		return false;
+    	
+    	if (!getScreenGame().restoreGame())
+    		return false;
+    	
+    	//go straight back to the game
+    	setState(State.Running);
+    	return true;
     }
     
     @Override
@@ -108,6 +215,32 @@ public final class ScreenManager implements Screen, Disposable
         return getScreen(getState()).update(action, x, y);
     }
     
+    /**
+     * Update the current screen with a motion event
+     * @param action The action of the MotionEvent
+     * @param x (x-coordinate)
+     * @param y (y-coordinate)
+     * @param time The time the motion event occurred (milliseconds)
+     * @return true if we want additional motion events, false otherwise
+     * @throws Exception
+     */
+    public boolean update(final int action, final float x, final float y, final long time) throws Exception
+    {
+    	//store the time so the screens can access it
+    	this.eventTime = time;
+    	
+    	return update(action, x, y);
+    }
+    
+    /**
+     * Get the time of the motion event being processed
+     * @return The time the motion event occurred (milliseconds)
+     */
+    public long getEventTime()
+    {
+    	return this.eventTime;
+    }
+    
     /**
      * Get the paint object
      * @return The paint object primarily used for the menus
@@ -140,6 +273,22 @@ public final class ScreenManager implements Screen, Disposable
     @Override
     public void update() throws Exception
     {
+    	//the music loads last, so start it once it is ready
+    	if (!music && AssetLoader.isReady(AssetLoader.Group.Music))
+    	{
+    		//flag the music as loaded
+    		music = true;
+    		
+    		//play the music for the current state
+    		if (getState() == State.Ready || getState() == State.Options)
+    			Assets.playMusic(Assets.AudioMenuKey.Theme);
+    		else if (getState() == State.Running)
+    			Assets.playMusic(Assets.AudioGameKey.Music);
+    	}
+    	
+    	//update the music crossfade
+    	Assets.updateMusic();
+    	
     	//update current screen
         getScreen(getState()).update();
     }
@@ -158,29 +307,108 @@ public final class ScreenManager implements Screen, Disposable
         return this.state;
     }
     
+    /**
+     * Get the screen of the state, creating it the first time it is needed
+     * @param state The state
+     * @return The screen displayed in the state
+     */
     public Screen getScreen(final State state)
     {
-        return screens.get(state);
+        Screen screen = screens.get(state);
+        
+        if (screen == null)
+        {
+            screen = createScreen(state);
+            screens.put(state, screen);
+        }
+        
+        return screen;
+    }
+    
+    /**
+     * Create the screen of the state, acquiring the images it captures first
+     * @param state The state
+     * @return The new screen
+     */
+    private Screen createScreen(final State state)
+    {
+        try
+        {
+            //the buttons and logos capture their images when created
+            AssetCache.acquire(getPanel().getActivity(), getKeys(state));
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+        
+        switch (state)
+        {
+            case Ready:
+                return new MenuScreen(this);
+                
+            case Paused:
+                return new PauseScreen(this);
+                
+            case Exit:
+                return new ExitScreen(this);
+                
+            case Options:
+                return new OptionsScreen(this);
+                
+            case GameOver:
+                return new GameoverScreen(this);
+                
+            case Running:
+            default:
+                return new GameScreen(this);
+        }
+    }
+    
+    /**
+     * Get the images captured by the screen of the state
+     * @param state The state
+     * @return The keys of the images, in use as long as the screen exists
+     */
+    private static Enum<?>[] getKeys(final State state)
+    {
+        switch (state)
+        {
+            case Ready:
+                return READY_KEYS;
+                
+            case Options:
+                return OPTIONS_KEYS;
+                
+            case Exit:
+                return EXIT_KEYS;
+                
+            case GameOver:
+                return GAMEOVER_KEYS;
+                
+            default:
+                return NO_KEYS;
+        }
     }
     
     public GameoverScreen getScreenGameover()
     {
-        return (GameoverScreen)screens.get(State.GameOver);
+        return (GameoverScreen)getScreen(State.GameOver);
     }
     
     public PauseScreen getScreenPaused()
     {
-        return (PauseScreen)screens.get(State.Paused);
+        return (PauseScreen)getScreen(State.Paused);
     }
     
     public GameScreen getScreenGame()
     {
-        return (GameScreen)screens.get(State.Running);
+        return (GameScreen)getScreen(State.Running);
     }
     
     public OptionsScreen getScreenOptions()
     {
-        return (OptionsScreen)screens.get(State.Options);
+        return (OptionsScreen)getScreen(State.Options);
     }
     
     /**
@@ -194,14 +422,26 @@ public final class ScreenManager implements Screen, Disposable
 	        //if pausing store the previous state
 	        if (state == State.Paused)
 	        {
-	            //stop sound
-	            Audio.stop();
+	            //stop sound, the music will continue from here when resumed
+	            Assets.stopAudio();
+	            
+	            //save the game in progress, in case the process is killed while paused
+	            if (getState() == State.Running && getScreenGame().getGame() != null && !getScreenGame().getGame().hasReset())
+	            {
+	            	getScreenGame().getGame().pause();
+	            	
+	            	if (getScreenGame().getGame().canSave())
+	            		Snapshot.save(getPanel().getActivity(), getScreenGame().getGame());
+	            }
 	            
 	            //set the previous state
 	            getScreenPaused().setStatePrevious(getState());
 	        }
 	        else if (state == State.GameOver)
 	        {
+	        	//the game is over, so there is nothing to continue
+	        	Snapshot.clear(getPanel().getActivity());
+	        	
 	            if (getState() != State.Paused)
 	            {
 	                //reset screen
@@ -210,29 +450,211 @@ public final class ScreenManager implements Screen, Disposable
 	        }
 	        else if (state == State.Ready)
 	        {
+	        	//the game was left, so there is nothing to continue
+	        	Snapshot.clear(getPanel().getActivity());
+	        	
 	        	//if we are on the menu for the first time or coming from any state besides the options
 	        	if (getState() == null || getState() != State.Options)
 	        	{
-	        		//stop all sound
-	        		Audio.stop();
+	        		//stop all sound effects
+	        		Assets.stopSounds();
 	        		
-	        		//play menu theme
-	        		Audio.play(Assets.AudioMenuKey.Theme, true);
+	        		//crossfade to the menu theme
+	        		Assets.playMusic(Assets.AudioMenuKey.Theme);
 	        	}
 	        }
 	        else if (state == State.Running)
 	        {
-	        	//stop all sound
-	        	Audio.stop();
+	        	//stop all sound effects
+	        	Assets.stopSounds();
 	        	
-	        	//play song
-	        	Audio.play(Assets.AudioGameKey.Music, true);
+	        	//crossfade to the game music, or continue where it was paused
+	        	Assets.playMusic(Assets.AudioGameKey.Music);
 	        }
     	}
     	finally
     	{
+    		//acquire the assets needed for the new state
+    		setStateKeys(state);
+    		
         	//assign the state
 	        this.state = state;
+	        
+	        //let the screens know if they are displayed
+	        setVisible();
+	        
+	        //make sure the game thread renders the new state
+	        getPanel().wake();
+    	}
+    }
+    
+    /**
+     * Acquire the assets used in the state, and release the assets of the previous state.<br>
+     * Released assets are the first to be evicted when memory is low
+     * @param state The new state
+     */
+    private void setStateKeys(final State state)
+    {
+    	final Enum<?>[] keys;
+    	
+    	switch (state)
+    	{
+    		case Running:
+    		case Paused:
+    			keys = GAME_KEYS;
+    			break;
+    			
+    		case Ready:
+    			keys = MENU_KEYS;
+    			break;
+    			
+    		//the other states are displayed over the previous state, so keep its assets
+    		default:
+    			keys = this.stateKeys;
+    			break;
+    	}
+    	
+    	//if the assets haven't changed there is nothing to do
+    	if (keys == this.stateKeys)
+    		return;
+    	
+    	try
+    	{
+    		//acquire the new assets first so assets in both states stay loaded
+    		AssetCache.acquire(getPanel().getActivity(), keys);
+    	}
+    	catch (Exception e)
+    	{
+    		e.printStackTrace();
+    	}
+    	
+    	//release the assets from the previous state
+    	AssetCache.release(this.stateKeys);
+    	this.stateKeys = keys;
+    }
+    
+    /**
+     * Is there a game to draw under the current screen?
+     * @return true if the game screen exists and has created the game, false otherwise
+     */
+    boolean hasGame()
+    {
+    	//check without creating the game screen
+    	final Screen screen = screens.get(State.Running);
+    	
+    	return (screen != null && ((GameScreen)screen).getGame() != null);
+    }
+    
+    /**
+     * Prepare the layer of a screen to be drawn.<br>
+     * An opaque layer starts with the background, since it hides the background drawn under it
+     * @param layer The layer of the screen
+     * @param canvas The canvas the layer will eventually be rendered to
+     * @return The canvas where the content of the screen is to be drawn
+     */
+    Canvas beginLayer(final ScreenLayer layer, final Canvas canvas)
+    {
+    	final Canvas content = layer.begin(canvas);
+    	
+    	if (layer.isOpaque())
+    		content.drawBitmap(Assets.getImage(Assets.ImageMenuKey.Background), 0, 0, null);
+    	
+    	return content;
+    }
+    
+    /**
+     * The system is low on memory, release the cached layers of the screens.<br>
+     * A layer is created again the next time its screen is drawn
+     * @param level The level provided by onTrimMemory
+     */
+    public void trimMemory(final int level)
+    {
+    	//keep the layers while there is enough memory, so nothing has to be drawn again
+    	if (level < ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW)
+    		return;
+    	
+    	for (Screen screen : screens.values())
+    	{
+    		//every screen with a layer releases it when it is no longer displayed
+    		if (screen instanceof ILifecycle)
+    			((ILifecycle)screen).onExit();
+    	}
+    	
+    	//the displayed screens draw their content again
+    	for (State state : visible)
+    	{
+    		final Screen screen = screens.get(state);
+    		
+    		if (screen instanceof ILifecycle)
+    			((ILifecycle)screen).onEnter();
+    	}
+    }
+    
+    /**
+     * Notify the screens that are no longer displayed, then the screens that now are.<br>
+     * The game is drawn under the other screens once it exists, and the paused screen is drawn over the state it paused
+     */
+    private void setVisible()
+    {
+    	final EnumSet<State> current = EnumSet.of(getState());
+    	
+    	if (hasGame())
+    		current.add(State.Running);
+    	
+    	if (getState() == State.Paused && getScreenPaused().getStatePrevious() != null)
+    		current.add(getScreenPaused().getStatePrevious());
+    	
+    	for (State state : State.values())
+    	{
+    		//only screens that exist need to know
+    		final Screen screen = screens.get(state);
+    		
+    		if (visible.contains(state) && !current.contains(state) && screen instanceof ILifecycle)
+    			((ILifecycle)screen).onExit();
+    	}
+    	
+    	for (State state : current)
+    	{
+    		//create the screen if needed, it is about to be drawn
+    		final Screen screen = getScreen(state);
+    		
+    		if (!visible.contains(state) && screen instanceof ILifecycle)
+    			((ILifecycle)screen).onEnter();
+    	}
+    	
+    	visible.clear();
+    	visible.addAll(current);
+    }
+    
+    /**
+     * Is anything animating in the current state?
+     * @return true if the current state needs to be updated every frame, false if it is static until the next change
+     */
+    public boolean isAnimating()
+    {
+    	//keep updating until the music crossfade is done, in any state
+    	if (Assets.isMusicFading())
+    		return true;
+    	
+    	switch (getState())
+    	{
+    		case Running:
+    			return true;
+    			
+    		case Ready:
+    			return ((MenuScreen)getScreen(State.Ready)).isAnimating();
+    			
+    		case Options:
+    			return (hasGame() && getScreenGame().isAnimating());
+    			
+    		case GameOver:
+    			return getScreenGameover().isAnimating();
+    			
+    		//nothing changes here until there is input
+    		case Paused:
+    		case Exit:
+    		default:
+    			return false;
     	}
     }
     
@@ -244,10 +666,11 @@ public final class ScreenManager implements Screen, Disposable
             canvas.drawColor(Color.BLACK);
             
             //draw the background
-            canvas.drawBitmap(Images.getImage(Assets.ImageMenuKey.Background), 0, 0, null);
+            canvas.drawBitmap(Assets.getImage(Assets.ImageMenuKey.Background), 0, 0, null);
             
-            //render the game
-            getScreenGame().render(canvas);
+            //render the game if it exists
+            if (hasGame())
+            	getScreenGame().render(canvas);
             
             //render the appropriate screen
             switch (getState())
@@ -255,7 +678,7 @@ public final class ScreenManager implements Screen, Disposable
                 case Ready:
                 	
                 	//darken the background if the game exists
-                	if (getScreenGame().getGame() != null)
+                	if (hasGame())
                 		darkenBackground(canvas);
                     
                     //draw menu
@@ -283,7 +706,7 @@ public final class ScreenManager implements Screen, Disposable
                 case Options:
                 	
                 	//darken the background if the game exists
-                	if (getScreenGame().getGame() != null)
+                	if (hasGame())
                 		darkenBackground(canvas);
                     
                     if (getScreen(getState()) != null)
@@ -328,6 +751,10 @@ public final class ScreenManager implements Screen, Disposable
      */
     public static final void darkenBackground(final Canvas canvas, int alpha)
     {
+        //the overlay is skipped when the quality is lowered
+        if (!Quality.hasOverlay())
+            return;
+        
         //keep in range
         if (alpha < 0)
             alpha = 0;
@@ -354,19 +781,28 @@ public final class ScreenManager implements Screen, Disposable
         if (paint != null)
         	paint = null;
         
+        //we no longer need these assets
+        AssetCache.release(SCREEN_KEYS);
+        AssetCache.release(this.stateKeys);
+        this.stateKeys = new Enum<?>[0];
+        
         if (screens != null)
         {
-            for (Screen screen : screens.values())
+            for (State state : screens.keySet())
             {
+                final Screen screen = screens.get(state);
+                
                 if (screen != null)
-                {
                     screen.dispose();
-                    screen = null;
-                }
+                
+                //the images captured by the screen are no longer in use
+                AssetCache.release(getKeys(state));
             }
             
             screens.clear();
             screens = null;
         }
+        
+        visible.clear();
     }
 }
\ No newline at end of file
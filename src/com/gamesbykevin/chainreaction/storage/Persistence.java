@@ -0,0 +1,258 @@
+package com.gamesbykevin.chainreaction.storage;
+
+import android.app.Activity;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Write the internal storage files in the background.<br>
+ * Saves made before the file is written are merged so only the latest content is written. Each file is written to a
+ * temporary file first then renamed, so a file is never left half written.
+ * @author GOD
+ */
+public final class Persistence
+{
+    /**
+     * The extension of the temporary file written before the rename
+     */
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    //the latest content waiting to be written for each file
+    private static final HashMap<File, byte[]> PENDING = new HashMap<File, byte[]>();
+
+    //the name of each file waiting to be written or being written, once for every write or task queued for it
+    private static final ArrayList<String> BUSY = new ArrayList<String>();
+
+    //the thread writing the files
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(new ThreadFactory()
+    {
+        @Override
+        public Thread newThread(final Runnable runnable)
+        {
+            final Thread thread = new Thread(runnable, "Persistence");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    //does nothing, used to wait for the writes queued before it
+    private static final Runnable NOTHING = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+        }
+    };
+
+    private Persistence()
+    {
+        //static class
+    }
+
+    /**
+     * Queue the content to be written.<br>
+     * If the file is already waiting to be written, the content replaces what was waiting
+     * @param activity Object needed to locate the internal storage
+     * @param filename The name of the file
+     * @param content The content of the file
+     */
+    public static void save(final Activity activity, final String filename, final String content)
+    {
+        save(activity, filename, content.getBytes());
+    }
+
+    /**
+     * Queue the content to be written.<br>
+     * If the file is already waiting to be written, the content replaces what was waiting
+     * @param activity Object needed to locate the internal storage
+     * @param filename The name of the file
+     * @param content The bytes of the file
+     */
+    public static void save(final Activity activity, final String filename, final byte[] content)
+    {
+        final File file = activity.getFileStreamPath(filename);
+
+        synchronized (PENDING)
+        {
+            //if the file was not waiting, queue the write
+            final boolean queued = PENDING.containsKey(file);
+
+            //only the latest content is written
+            PENDING.put(file, content);
+
+            if (!queued)
+            {
+                BUSY.add(filename);
+
+                WORKER.execute(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        write(file);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Write the content waiting for the file
+     * @param file The file to write
+     */
+    private static void write(final File file)
+    {
+        final byte[] content;
+
+        synchronized (PENDING)
+        {
+            content = PENDING.remove(file);
+        }
+
+        try
+        {
+            if (content != null)
+                replace(file, content);
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+        finally
+        {
+            release(file.getName());
+        }
+    }
+
+    /**
+     * The files are no longer being written, wake anything waiting to read them
+     * @param filenames The names of the files
+     */
+    private static void release(final String... filenames)
+    {
+        synchronized (PENDING)
+        {
+            for (String filename : filenames)
+            {
+                BUSY.remove(filename);
+            }
+
+            PENDING.notifyAll();
+        }
+    }
+
+    /**
+     * Replace the file with the content.<br>
+     * The content is written to a temporary file first then renamed, this blocks until done so only call it from a
+     * task on the writer thread
+     * @param file The file to replace
+     * @param content The bytes of the file
+     * @throws IOException
+     */
+    public static void replace(final File file, final byte[] content) throws IOException
+    {
+        final File temp = new File(file.getParentFile(), file.getName() + TEMP_EXTENSION);
+
+        final FileOutputStream output = new FileOutputStream(temp);
+
+        try
+        {
+            //write the content and make sure it reached the storage
+            output.write(content);
+            output.getFD().sync();
+        }
+        finally
+        {
+            output.close();
+        }
+
+        //replace the existing file
+        if (!temp.renameTo(file))
+            throw new IOException("Unable to rename " + temp + " to " + file);
+    }
+
+    /**
+     * Run a task on the writer thread.<br>
+     * Tasks and writes run in the order they were queued
+     * @param task The task to run, any exception should be handled by the task
+     * @param filenames The names of the files the task writes, reading them waits until the task is done
+     */
+    public static void submit(final Runnable task, final String... filenames)
+    {
+        synchronized (PENDING)
+        {
+            for (String filename : filenames)
+            {
+                BUSY.add(filename);
+            }
+        }
+
+        WORKER.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    task.run();
+                }
+                finally
+                {
+                    release(filenames);
+                }
+            }
+        });
+    }
+
+    /**
+     * Wait until all queued content is written.<br>
+     * Call this before the activity is finished or the surface is destroyed
+     */
+    public static void flush()
+    {
+        try
+        {
+            //the worker runs in order, so once this is done the writes before it are as well
+            WORKER.submit(NOTHING).get();
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Make sure the file is not waiting to be written before it is read.<br>
+     * Only writes and tasks for this file are waited on, anything else queued keeps running in the background
+     * @param filename The name of the file
+     * @return The name of the file, so this can be called when passing the name to the parent constructor
+     */
+    public static String await(final String filename)
+    {
+        synchronized (PENDING)
+        {
+            while (BUSY.contains(filename))
+            {
+                try
+                {
+                    PENDING.wait();
+                }
+                catch (InterruptedException e)
+                {
+                    //keep the interrupt for the caller and read what is there
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        return filename;
+    }
+}
@@ -0,0 +1,317 @@
+package com.gamesbykevin.chainreaction.storage.score;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import com.gamesbykevin.androidframework.resources.Disposable;
+import com.gamesbykevin.chainreaction.game.Game;
+
+/**
+ * A histogram of the scores for each mode and level, kept in a memory mapped file.<br>
+ * For every score we store how many games scored at least that much, so the rank and percentile of a score are a
+ * single lookup and nothing is read into the heap.<br>
+ * Each score below EXACT has its own bucket. Higher scores are counted in overflow buckets that each cover twice the
+ * scores of the one before, and a score is placed within its overflow bucket as if the games in it were spread evenly.
+ * @author GOD
+ */
+public final class Leaderboard implements Disposable
+{
+	/**
+	 * Identifies our file ("CRLB")
+	 */
+	private static final int MAGIC = 0x43524C42;
+
+	/**
+	 * The version of the file format
+	 */
+	private static final int VERSION = 2;
+
+	/**
+	 * The size of the header (magic, version, modes, levels, buckets)
+	 */
+	private static final int HEADER_SIZE = 20;
+
+	/**
+	 * The bits of the scores with a bucket of their own
+	 */
+	private static final int EXACT_BITS = 9;
+
+	/**
+	 * The scores below this have a bucket per point
+	 */
+	public static final int EXACT = 1 << EXACT_BITS;
+
+	/**
+	 * The number of overflow buckets, enough for any positive int
+	 */
+	private static final int OVERFLOW = Integer.SIZE - 1 - EXACT_BITS;
+
+	/**
+	 * The number of buckets of each histogram
+	 */
+	public static final int BUCKETS = EXACT + OVERFLOW;
+
+	/**
+	 * The number of levels we track, the first histogram of each mode is every level
+	 */
+	private static final int LEVELS = Game.Level.values().length;
+
+	/**
+	 * Use as the level to check every game of the mode
+	 */
+	public static final int ALL_LEVELS = -1;
+
+	//the open file
+	private RandomAccessFile file;
+
+	//the mapped histograms
+	private MappedByteBuffer buffer;
+
+	//the number of modes in the file
+	private final int modes;
+
+	/**
+	 * Open the leaderboard, the file is created if it does not exist or does not match
+	 * @param file The file of the leaderboard
+	 * @param modes The number of modes we track
+	 * @throws IOException
+	 */
+	public Leaderboard(final File file, final int modes) throws IOException
+	{
+		this.modes = modes;
+		this.file = new RandomAccessFile(file, "rw");
+
+		final long size = HEADER_SIZE + (long)modes * (LEVELS + 1) * BUCKETS * 4;
+
+		//make sure this is a file we can read
+		boolean valid = (this.file.length() == size);
+
+		if (valid)
+		{
+			this.file.seek(0);
+			valid = (this.file.readInt() == MAGIC && this.file.readInt() == VERSION &&
+				this.file.readInt() == modes && this.file.readInt() == LEVELS && this.file.readInt() == BUCKETS);
+		}
+
+		if (!valid)
+		{
+			//start with every count at 0
+			this.file.setLength(0);
+			this.file.setLength(size);
+			this.file.seek(0);
+			this.file.writeInt(MAGIC);
+			this.file.writeInt(VERSION);
+			this.file.writeInt(modes);
+			this.file.writeInt(LEVELS);
+			this.file.writeInt(BUCKETS);
+		}
+
+		this.buffer = this.file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+	}
+
+	/**
+	 * Get the position of the count
+	 * @param mode The mode
+	 * @param level The level, or ALL_LEVELS
+	 * @param bucket The bucket of the score
+	 * @return The byte position in the buffer
+	 */
+	private int getPosition(final int mode, final int level, final int bucket)
+	{
+		return HEADER_SIZE + (((mode * (LEVELS + 1)) + (level + 1)) * BUCKETS + bucket) * 4;
+	}
+
+	/**
+	 * Get the bucket of the score
+	 * @param score The score
+	 * @return The bucket the score is counted in
+	 */
+	private static int getBucket(final int score)
+	{
+		if (score < EXACT)
+			return Math.max(0, score);
+
+		//the overflow bucket is the position of the highest bit
+		return EXACT + (Integer.SIZE - 1 - Integer.numberOfLeadingZeros(score)) - EXACT_BITS;
+	}
+
+	/**
+	 * Get the lowest score of the bucket
+	 * @param bucket The bucket
+	 * @return The lowest score counted in the bucket
+	 */
+	private static int getLow(final int bucket)
+	{
+		return (bucket < EXACT) ? bucket : 1 << (bucket - EXACT + EXACT_BITS);
+	}
+
+	/**
+	 * Get the number of scores the bucket covers
+	 * @param bucket The bucket
+	 * @return 1 for the exact buckets, the width of the overflow bucket otherwise
+	 */
+	private static long getWidth(final int bucket)
+	{
+		return (bucket < EXACT) ? 1 : getLow(bucket);
+	}
+
+	/**
+	 * Get the number of games that scored at least the bucket
+	 * @param mode The mode
+	 * @param level The level, or ALL_LEVELS
+	 * @param bucket The bucket, past the last bucket is always 0
+	 * @return The number of games
+	 */
+	private int getAtLeast(final int mode, final int level, final int bucket)
+	{
+		return (bucket >= BUCKETS) ? 0 : buffer.getInt(getPosition(mode, level, bucket));
+	}
+
+	/**
+	 * Make sure the mode and level are tracked
+	 * @param mode The mode
+	 * @param level The level, or ALL_LEVELS
+	 * @return true if the mode and level are tracked, false otherwise
+	 */
+	private boolean isValid(final int mode, final int level)
+	{
+		return (mode >= 0 && mode < modes && level >= ALL_LEVELS && level < LEVELS);
+	}
+
+	/**
+	 * Add a finished game
+	 * @param mode The mode played
+	 * @param level The level reached
+	 * @param score The final score
+	 */
+	public void add(final int mode, final int level, final int score)
+	{
+		if (!isValid(mode, level) || level == ALL_LEVELS)
+			return;
+
+		final int bucket = getBucket(score);
+
+		//the game counts for every bucket up to its score, in the level and in every level
+		for (int b = 0; b <= bucket; b++)
+		{
+			final int all = getPosition(mode, ALL_LEVELS, b);
+			buffer.putInt(all, buffer.getInt(all) + 1);
+
+			final int position = getPosition(mode, level, b);
+			buffer.putInt(position, buffer.getInt(position) + 1);
+		}
+	}
+
+	/**
+	 * Get the number of games
+	 * @param mode The mode
+	 * @param level The level reached, or ALL_LEVELS
+	 * @return The number of games finished
+	 */
+	public int getGames(final int mode, final int level)
+	{
+		return (isValid(mode, level)) ? getAtLeast(mode, level, 0) : 0;
+	}
+
+	/**
+	 * Get the rank of the score
+	 * @param mode The mode
+	 * @param level The level reached, or ALL_LEVELS
+	 * @param score The score
+	 * @return The rank, 1 being the best, games with the same score share the rank
+	 */
+	public int getRank(final int mode, final int level, final int score)
+	{
+		if (!isValid(mode, level))
+			return 1;
+
+		final int bucket = getBucket(score);
+
+		//the games with a better score
+		final int better = getAtLeast(mode, level, bucket + 1);
+
+		if (bucket < EXACT)
+			return better + 1;
+
+		//the other games in the overflow bucket, the part above the score are counted as better
+		final int same = Math.max(0, getAtLeast(mode, level, bucket) - better - 1);
+		final long above = (getLow(bucket) + getWidth(bucket) - 1 - score) * same / getWidth(bucket);
+
+		return better + (int)above + 1;
+	}
+
+	/**
+	 * Get the percentile of the score
+	 * @param mode The mode
+	 * @param level The level reached, or ALL_LEVELS
+	 * @param score The score
+	 * @return The percent of games (0 - 100) with a lower score
+	 */
+	public int getPercentile(final int mode, final int level, final int score)
+	{
+		final int games = getGames(mode, level);
+
+		if (games == 0)
+			return 100;
+
+		final int bucket = getBucket(score);
+
+		//the games in a lower bucket
+		long lower = games - getAtLeast(mode, level, bucket);
+
+		//the part of the overflow bucket below the score
+		if (bucket >= EXACT)
+		{
+			final int same = getAtLeast(mode, level, bucket) - getAtLeast(mode, level, bucket + 1);
+			lower += (score - getLow(bucket)) * (long)same / getWidth(bucket);
+		}
+
+		return (int)(lower * 100L / games);
+	}
+
+	/**
+	 * Remove every game, the header stays the same
+	 */
+	public void clear()
+	{
+		for (int position = HEADER_SIZE; position < buffer.capacity(); position += 4)
+		{
+			buffer.putInt(position, 0);
+		}
+	}
+
+	/**
+	 * Make sure the counts are written to the file
+	 */
+	public void force()
+	{
+		buffer.force();
+	}
+
+	@Override
+	public void dispose()
+	{
+		try
+		{
+			if (buffer != null)
+			{
+				force();
+				buffer = null;
+			}
+
+			//the mapping stays valid until collected, closing the file is safe
+			if (file != null)
+			{
+				file.close();
+				file = null;
+			}
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+}
@@ -1,210 +1,862 @@
 package com.gamesbykevin.chainreaction.storage.score;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 
 import com.gamesbykevin.androidframework.io.storage.Internal;
-import com.gamesbykevin.chainreaction.screen.OptionsScreen;
+import com.gamesbykevin.androidframework.resources.Disposable;
+import com.gamesbykevin.chainreaction.game.Game;
+import com.gamesbykevin.chainreaction.storage.Persistence;
 import com.gamesbykevin.chainreaction.storage.settings.Settings;
 
 import android.app.Activity;
 
-public class Score extends Internal 
+/**
+ * Keep a record of every finished game.<br>
+ * Each game is appended to a log, and once the log has enough games it is folded into the history and a summary of
+ * each mode is written. When loading only the summary and the short log are read, no matter how long the history is.
+ * @author GOD
+ */
+public class Score implements Disposable
 {
 	/**
-	 * The file name to track our score
+	 * The file name of the original score file, only read once to keep the existing high scores
 	 */
 	private static final String FILE_NAME = "Score";
-	
-	//list of score records
-	private List<Record> records;
-	
+
+	/**
+	 * The file name of the summary of each mode
+	 */
+	private static final String SUMMARY_NAME = "Score.dat";
+
+	/**
+	 * The file name of the games not yet in the history
+	 */
+	private static final String LOG_NAME = "Score.log";
+
+	/**
+	 * The file name of every game played
+	 */
+	private static final String HISTORY_NAME = "Score.history";
+
+	/**
+	 * The file name of the leaderboard
+	 */
+	private static final String LEADERBOARD_NAME = "Score.rank";
+
+	/**
+	 * Identifies our files ("CRSC")
+	 */
+	private static final int MAGIC = 0x43525343;
+
+	/**
+	 * The version of the file format
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * The size of the log and history header (magic, version, generation)
+	 */
+	private static final int HEADER_SIZE = 12;
+
+	/**
+	 * The number of games we keep for each mode, ordered by score
+	 */
+	public static final int TOP_SIZE = 10;
+
+	/**
+	 * The number of games in the log before it is folded into the history
+	 */
+	private static final int COMPACT_RECORDS = 32;
+
+	//the directory of the internal storage, no activity is kept so the scores read during the splash don't keep it alive
+	private File directory;
+
+	//the summary for each mode
+	private Mode[] modes;
+
+	//the number of times the log has been folded into the history
+	private int generation = 0;
+
+	//the size of the history file covered by the summary
+	private long historyLength = 0;
+
+	//the games in the log, not yet in the history
+	private ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+	//the rank of each score
+	private Leaderboard leaderboard;
+
+	//the scores read during the splash, waiting for the first game
+	private static Score PREPARED;
+
+	/**
+	 * The number of modes tracked, the stress mode is a benchmark and is not scored
+	 */
+	private static final int MODES = Game.MODE_STRESS;
+
 	/**
 	 * Create new score object to track high score
-	 * @param screen Object to reference that has the modes we are tracking
+	 * @param length The number of modes we are tracking
+	 * @param activity Object needed to write data to internal storage
+	 */
+	private Score(final int length, final Activity activity)
+	{
+		this.directory = activity.getFilesDir();
+
+		//create the summary for each mode
+		this.modes = new Mode[length];
+
+		for (int modeIndex = 0; modeIndex < length; modeIndex++)
+		{
+			this.modes[modeIndex] = new Mode();
+		}
+
+		//make sure none of the files read here are still being written
+		Persistence.await(SUMMARY_NAME);
+		Persistence.await(HISTORY_NAME);
+		Persistence.await(LOG_NAME);
+		Persistence.await(LEADERBOARD_NAME);
+
+		try
+		{
+			//load the summary, if it can't be loaded build it from the history
+			final boolean summary = loadSummary();
+
+			if (!summary)
+				loadHistory();
+
+			//add the games in the log
+			loadLog(!summary);
+
+			//if we have never played, keep the high scores from the original file
+			if (getFile(SUMMARY_NAME).length() == 0 && getFile(HISTORY_NAME).length() == 0 && getFile(LOG_NAME).length() == 0)
+				loadOriginal(activity);
+
+			//open the leaderboard, if it does not match the summary build it again
+			this.leaderboard = new Leaderboard(getFile(LEADERBOARD_NAME), modes.length);
+
+			for (int modeIndex = 0; modeIndex < modes.length; modeIndex++)
+			{
+				if (leaderboard.getGames(modeIndex, Leaderboard.ALL_LEVELS) != modes[modeIndex].games)
+				{
+					loadLeaderboard();
+					break;
+				}
+			}
+		}
+		catch (Exception e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Read the scores before the first game is created.<br>
+	 * This is called during the splash, so the files are already loaded when the game needs them
+	 * @param activity Object needed to read the internal storage
+	 */
+	public static synchronized void prepare(final Activity activity)
+	{
+		if (PREPARED == null)
+			PREPARED = new Score(MODES, activity);
+	}
+
+	/**
+	 * Get the score object, using the scores read during the splash if they track the same modes
 	 * @param activity Object needed to write data to internal storage
+	 * @return The score object
+	 */
+	public static Score obtain(final Activity activity)
+	{
+		final Score score;
+
+		synchronized (Score.class)
+		{
+			score = PREPARED;
+			PREPARED = null;
+		}
+
+		if (score != null)
+		{
+			if (score.modes.length == MODES)
+				return score;
+
+			score.dispose();
+		}
+
+		return new Score(MODES, activity);
+	}
+
+	/**
+	 * Get the file in the internal storage
+	 * @param filename The name of the file
+	 * @return The file
+	 */
+	private File getFile(final String filename)
+	{
+		return new File(directory, filename);
+	}
+
+	/**
+	 * Load the summary of each mode
+	 * @return true if the summary was loaded, false if it does not exist or is not valid
+	 * @throws IOException
+	 */
+	private boolean loadSummary() throws IOException
+	{
+		final File file = getFile(SUMMARY_NAME);
+
+		if (!file.exists())
+			return false;
+
+		final DataInputStream input = new DataInputStream(new FileInputStream(file));
+
+		try
+		{
+			//make sure this is a file we can read
+			if (input.readInt() != MAGIC || input.readInt() != VERSION)
+				return false;
+
+			this.generation = input.readInt();
+			this.historyLength = input.readLong();
+
+			//modes may have been added since the summary was written
+			final int count = input.readInt();
+
+			for (int modeIndex = 0; modeIndex < count; modeIndex++)
+			{
+				final Mode mode = new Mode();
+				mode.read(input);
+
+				if (modeIndex < modes.length)
+					modes[modeIndex] = mode;
+			}
+
+			return true;
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+
+			//start over, the summary will be built from the history
+			for (int modeIndex = 0; modeIndex < modes.length; modeIndex++)
+			{
+				modes[modeIndex] = new Mode();
+			}
+
+			this.generation = 0;
+			this.historyLength = 0;
+			return false;
+		}
+		finally
+		{
+			input.close();
+		}
+	}
+
+	/**
+	 * Build the summary from the entire history.<br>
+	 * This is only needed if the summary is missing or was not valid
+	 * @throws IOException
+	 */
+	private void loadHistory() throws IOException
+	{
+		final File file = getFile(HISTORY_NAME);
+
+		if (file.length() < HEADER_SIZE)
+			return;
+
+		final DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+		try
+		{
+			if (input.readInt() != MAGIC || input.readInt() != VERSION)
+				return;
+
+			//the generation is only kept in the summary
+			input.readInt();
+
+			//only whole records
+			final long count = (file.length() - HEADER_SIZE) / Record.SIZE;
+
+			for (long i = 0; i < count; i++)
+			{
+				add(Record.read(input));
+			}
+
+			this.historyLength = HEADER_SIZE + count * Record.SIZE;
+		}
+		finally
+		{
+			input.close();
+		}
+	}
+
+	/**
+	 * Add the games in the log that are not already in the summary
+	 * @param rebuilt Was the summary built from the history, if so we can't tell if the log was folded so it is added
+	 * @throws IOException
+	 */
+	private void loadLog(final boolean rebuilt) throws IOException
+	{
+		//remove anything after the summary, it was from a fold that did not finish and will be folded again
+		final File history = getFile(HISTORY_NAME);
+
+		if (!rebuilt && history.length() > historyLength)
+			truncate(history, historyLength);
+
+		final File file = getFile(LOG_NAME);
+
+		if (file.length() < HEADER_SIZE)
+			return;
+
+		final byte[] data = new byte[(int)file.length()];
+		final DataInputStream input = new DataInputStream(new FileInputStream(file));
+
+		try
+		{
+			input.readFully(data);
+		}
+		finally
+		{
+			input.close();
+		}
+
+		final DataInputStream records = new DataInputStream(new ByteArrayInputStream(data));
+
+		if (records.readInt() != MAGIC || records.readInt() != VERSION)
+		{
+			file.delete();
+			return;
+		}
+
+		final int logGeneration = records.readInt();
+
+		//the log was already folded into the summary if it is from another generation
+		if (rebuilt)
+		{
+			this.generation = logGeneration;
+		}
+		else if (logGeneration != generation)
+		{
+			file.delete();
+			return;
+		}
+
+		//only whole records, a partial record is from a write that did not finish
+		final int count = (data.length - HEADER_SIZE) / Record.SIZE;
+
+		for (int i = 0; i < count; i++)
+		{
+			add(Record.read(records));
+		}
+
+		//keep the records to be folded later
+		this.log.write(data, HEADER_SIZE, count * Record.SIZE);
+
+		//remove the partial record (if any)
+		if (HEADER_SIZE + count * Record.SIZE < data.length)
+			truncate(file, HEADER_SIZE + count * Record.SIZE);
+	}
+
+	/**
+	 * Build the leaderboard from the history and the log.<br>
+	 * This is only needed when the leaderboard is new or was not updated with the last games
+	 * @throws IOException
+	 */
+	private void loadLeaderboard() throws IOException
+	{
+		leaderboard.clear();
+
+		final File file = getFile(HISTORY_NAME);
+
+		if (file.length() >= HEADER_SIZE)
+		{
+			final DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+			try
+			{
+				//skip the header
+				input.readInt();
+				input.readInt();
+				input.readInt();
+
+				//only the history covered by the summary
+				final long count = (Math.min(file.length(), historyLength) - HEADER_SIZE) / Record.SIZE;
+
+				for (long i = 0; i < count; i++)
+				{
+					final Record record = Record.read(input);
+					leaderboard.add(record.getMode(), record.getLevel(), record.getScore());
+				}
+			}
+			finally
+			{
+				input.close();
+			}
+		}
+
+		//add the games not yet in the history
+		final DataInputStream input = new DataInputStream(new ByteArrayInputStream(log.toByteArray()));
+
+		for (int i = log.size() / Record.SIZE; i > 0; i--)
+		{
+			final Record record = Record.read(input);
+			leaderboard.add(record.getMode(), record.getLevel(), record.getScore());
+		}
+	}
+
+	/**
+	 * Keep the high scores of the original score file, as games in the log
+	 * @param activity Object needed to read the internal storage
+	 */
+	private void loadOriginal(final Activity activity)
+	{
+		final Internal original = new Internal(FILE_NAME, activity);
+
+		try
+		{
+			//if content exists load it
+			if (original.getContent().toString().trim().length() > 0)
+			{
+				//split the content into an array (each score for each mode)
+				final String[] data = original.getContent().toString().split(Settings.SEPARATOR);
+
+				for (int modeIndex = 0; modeIndex < modes.length && modeIndex < data.length; modeIndex++)
+				{
+					final int score = Integer.parseInt(data[modeIndex]);
+
+					//only the score is known
+					if (score > 0)
+						add(modeIndex, 0, score, 0, 0);
+				}
+			}
+		}
+		catch (Exception e)
+		{
+			e.printStackTrace();
+		}
+		finally
+		{
+			original.dispose();
+		}
+	}
+
+	/**
+	 * Shorten the file
+	 * @param file The file
+	 * @param length The new length
+	 * @throws IOException
+	 */
+	private static void truncate(final File file, final long length) throws IOException
+	{
+		final RandomAccessFile output = new RandomAccessFile(file, "rw");
+
+		try
+		{
+			output.setLength(length);
+		}
+		finally
+		{
+			output.close();
+		}
+	}
+
+	/**
+	 * Add a record to the summary
+	 * @param record The finished game
+	 * @return true if the record is a new high score, false otherwise
+	 */
+	private boolean add(final Record record)
+	{
+		//skip modes that no longer exist
+		if (record.getMode() < 0 || record.getMode() >= modes.length)
+			return false;
+
+		return modes[record.getMode()].add(record);
+	}
+
+	/**
+	 * Add a finished game.<br>
+	 * The game is written to the log in the background
+	 * @param modeIndex The mode played
+	 * @param level The level reached
+	 * @param score The final score
+	 * @param exploded The number of balls exploded
+	 * @param duration How long the game lasted (milliseconds)
+	 * @return true if the score is a new high score, false otherwise
+	 */
+	public boolean add(final int modeIndex, final int level, final int score, final int exploded, final long duration)
+	{
+		final Record record = new Record(modeIndex, level, score, exploded, (int)Math.min(Integer.MAX_VALUE, duration));
+
+		//update the summary
+		final boolean result = add(record);
+
+		//update the leaderboard
+		if (leaderboard != null)
+			leaderboard.add(record.getMode(), record.getLevel(), record.getScore());
+
+		try
+		{
+			//the bytes of the record
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream(Record.SIZE);
+			record.write(new DataOutputStream(bytes));
+			final byte[] data = bytes.toByteArray();
+
+			//keep the record to be folded later
+			this.log.write(data);
+
+			//append to the log in the background
+			final File file = getFile(LOG_NAME);
+			final int generation = this.generation;
+
+			Persistence.submit(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					try
+					{
+						append(file, generation, data);
+					}
+					catch (IOException e)
+					{
+						e.printStackTrace();
+					}
+				}
+			}, LOG_NAME);
+
+			//if the log is large enough, fold it into the history
+			if (log.size() >= COMPACT_RECORDS * Record.SIZE)
+				compact();
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Append the records to the file, writing the header if the file is new
+	 * @param file The log or history
+	 * @param generation The generation written in the header
+	 * @param data The records
+	 * @throws IOException
+	 */
+	private static void append(final File file, final int generation, final byte[] data) throws IOException
+	{
+		final RandomAccessFile output = new RandomAccessFile(file, "rw");
+
+		try
+		{
+			if (output.length() < HEADER_SIZE)
+			{
+				output.setLength(0);
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				output.writeInt(generation);
+			}
+
+			output.seek(output.length());
+			output.write(data);
+			output.getFD().sync();
+		}
+		finally
+		{
+			output.close();
+		}
+	}
+
+	/**
+	 * Fold the log into the history and write a new summary.<br>
+	 * The history is appended first, then the summary is replaced, then the log is removed. If this is interrupted
+	 * the summary still matches the history length and generation it was written with, so loading repairs the rest
+	 * @throws IOException
+	 */
+	private void compact() throws IOException
+	{
+		//the records to append to the history
+		final byte[] data = log.toByteArray();
+		log.reset();
+
+		//the history will start where the summary says it ends
+		final long previous = this.historyLength;
+
+		//the log is now part of the summary
+		this.generation++;
+		this.historyLength = Math.max(previous, HEADER_SIZE) + data.length;
+
+		//the summary to write
+		final byte[] summary = getSummary();
+
+		final File history = getFile(HISTORY_NAME);
+		final File summaryFile = getFile(SUMMARY_NAME);
+		final File logFile = getFile(LOG_NAME);
+
+		Persistence.submit(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					//remove anything from a fold that did not finish
+					if (history.length() > previous)
+						truncate(history, previous);
+
+					//add the games to the history
+					append(history, 0, data);
+
+					//write the summary, this completes the fold
+					Persistence.replace(summaryFile, summary);
+
+					//the log is no longer needed
+					logFile.delete();
+				}
+				catch (IOException e)
+				{
+					e.printStackTrace();
+				}
+			}
+		}, HISTORY_NAME, SUMMARY_NAME, LOG_NAME);
+	}
+
+	/**
+	 * Get the bytes of the summary
+	 * @return The summary of each mode
+	 * @throws IOException
 	 */
-	public Score(final OptionsScreen screen, final Activity activity) 
-	{
-		super(FILE_NAME, activity);
-		
-		//create list for our records
-		this.records = new ArrayList<Record>();
-		
-        try
-        {
-            //get the # of the modes in the settings
-            final int length = screen.getButtons().get(OptionsScreen.Key.Mode).getDescriptions().size();
-            
-            //if content exists load it
-            if (super.getContent().toString().trim().length() > 0)
-            {
-                //split the content into an array (each score for each mode)
-                final String[] data = super.getContent().toString().split(Settings.SEPARATOR);
-                
-                //load the score of each mode
-                for (int modeIndex = 0; modeIndex < length; modeIndex++)
-                {
-                	//if we are out of bounds of the existing data array, there is a new mode we need to track the high score
-                	if (modeIndex >= data.length)
-                	{
-                		//add default score to our array list
-	                	this.records.add(new Record(modeIndex, 0));
-                	}
-                	else
-                	{
-	                	//get the score for the specified mode index
-	                	final int score = Integer.parseInt(data[modeIndex]);
-	                	
-	                	//add loaded score to our array list
-	                	this.records.add(new Record(modeIndex, score));
-                	}
-                }
-            }
-            else
-            {
-            	//else set a default score for each mode
-                for (int modeIndex = 0; modeIndex < length; modeIndex++)
-                {
-                	//add default 0 score
-                	this.records.add(new Record(modeIndex, 0));
-                }
-            }
-        }
-        catch (Exception e)
-        {
-            e.printStackTrace();
-        }
-	}
-	
-    /**
-     * Save the scores to the internal storage
-     */
-    @Override
-    public void save()
-    {
-        try
-        {
-            //remove all existing content
-            super.getContent().delete(0, super.getContent().length());
-
-            //save every record in our array list, to the internal storage
-            for (Record record : records)
-            {
-            	//add score
-            	super.getContent().append(record.getScore());
-            	
-            	//add delimiter to separate each mode score
-        		super.getContent().append(Settings.SEPARATOR);
-            }
-            
-            //remove the last character since there won't be any additional settings
-            super.getContent().deleteCharAt(super.getContent().length() - 1);
-
-            //save data
-            super.save();
-        }
-        catch (Exception e)
-        {
-            e.printStackTrace();
-        }
-    }
-    
-    /**
-     * Get the high score
-     * @param modeIndex The specified game mode index
-     * @return The high score for the specified mode index
-     */
-    public int getHighScore(final int modeIndex)
-    {
-    	//check each record
-    	for (Record record : records)
-    	{
-    		//if the mode does not match, skip it
-    		if (record.getMode() != modeIndex)
-    			continue;
-    		
-    		//return our score
-    		return record.getScore();
-    	}
-    	
-    	//if the mode was not found return 0
-    	return 0;
-    }
-    
-    /**
-     * Update the score
-     * @param modeIndex The mode we are checking
-     * @param score The score we are checking
-     * @return true if the score was updated with a new record, false otherwise
-     */
-    public boolean updateScore(final int modeIndex, final int score)
-    {
-    	//check each record
-    	for (Record record : records)
-    	{
-    		//if the mode does not match, skip it
-    		if (record.getMode() != modeIndex)
-    			continue;
-    		
-    		//if the score is bigger, we have a new record
-    		if (score > record.getScore())
-    		{
-    			//set the new record
-    			record.setScore(score);
-    			
-    			//save to internal storage
-    			save();
-    			
-    			//score was updated successful
-    			return true;
-    		}
-    		else
-    		{
-    			//no need to check the remaining
-    			break;
-    		}
-    	}
-    	
-    	//score was not updated
-    	return false;
-    }
-    
-    @Override
-    public void dispose()
-    {
-        super.dispose();
-        
-        if (records != null)
-        {
-        	records.clear();
-        	records = null;
-        }
-    }
-	
-    /**
-     * A score record for a specific game mode
-     */
-	private class Record
-	{
-		private final int mode;
-		private int score;
-		
+	private byte[] getSummary() throws IOException
+	{
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream output = new DataOutputStream(bytes);
+
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+		output.writeInt(generation);
+		output.writeLong(historyLength);
+		output.writeInt(modes.length);
+
+		for (Mode mode : modes)
+		{
+			mode.write(output);
+		}
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Get the high score
+	 * @param modeIndex The specified game mode index
+	 * @return The high score for the specified mode index
+	 */
+	public int getHighScore(final int modeIndex)
+	{
+		return (modeIndex < 0 || modeIndex >= modes.length) ? 0 : modes[modeIndex].getHighScore();
+	}
+
+	/**
+	 * Get the leaderboard
+	 * @return The rank of each score for each mode and level, null if it could not be opened
+	 */
+	public Leaderboard getLeaderboard()
+	{
+		return this.leaderboard;
+	}
+
+	@Override
+	public void dispose()
+	{
+		//write and close the leaderboard in the background
+		if (this.leaderboard != null)
+		{
+			final Leaderboard leaderboard = this.leaderboard;
+
+			Persistence.submit(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					leaderboard.dispose();
+				}
+			}, LEADERBOARD_NAME);
+
+			this.leaderboard = null;
+		}
+
+		this.directory = null;
+		this.modes = null;
+		this.log = null;
+	}
+
+	/**
+	 * The summary of the games played in a mode
+	 */
+	private static class Mode
+	{
+		//the number of games played
+		private int games;
+
+		//the totals of every game
+		private long totalScore, totalExploded, totalDuration;
+
+		//the best level reached
+		private int bestLevel;
+
+		//the best games, ordered by score
+		private final Record[] top = new Record[TOP_SIZE];
+
+		//the number of best games
+		private int count;
+
 		/**
-		 * Create record of score
-		 * @param mode The mode the score is for
-		 * @param score The score for that mode
+		 * Add a finished game
+		 * @param record The finished game
+		 * @return true if the score is a new high score, false otherwise
 		 */
-		public Record(final int mode, final int score)
+		private boolean add(final Record record)
+		{
+			final boolean result = (record.getScore() > getHighScore());
+
+			this.games++;
+			this.totalScore += record.getScore();
+			this.totalExploded += record.getExploded();
+			this.totalDuration += record.getDuration();
+			this.bestLevel = Math.max(this.bestLevel, record.getLevel());
+
+			//find where the game is ranked
+			int rank = count;
+
+			while (rank > 0 && top[rank - 1].getScore() < record.getScore())
+			{
+				rank--;
+			}
+
+			//insert the game if it made the top
+			if (rank < TOP_SIZE)
+			{
+				final int last = Math.min(count, TOP_SIZE - 1);
+
+				for (int i = last; i > rank; i--)
+				{
+					top[i] = top[i - 1];
+				}
+
+				top[rank] = record;
+				count = Math.min(count + 1, TOP_SIZE);
+			}
+
+			return result;
+		}
+
+		/**
+		 * Get the high score
+		 * @return The best score, 0 if no games were played
+		 */
+		private int getHighScore()
+		{
+			return (count == 0) ? 0 : top[0].getScore();
+		}
+
+		private void write(final DataOutputStream output) throws IOException
+		{
+			output.writeInt(games);
+			output.writeLong(totalScore);
+			output.writeLong(totalExploded);
+			output.writeLong(totalDuration);
+			output.writeInt(bestLevel);
+			output.writeInt(count);
+
+			for (int i = 0; i < count; i++)
+			{
+				top[i].write(output);
+			}
+		}
+
+		private void read(final DataInputStream input) throws IOException
+		{
+			this.games = input.readInt();
+			this.totalScore = input.readLong();
+			this.totalExploded = input.readLong();
+			this.totalDuration = input.readLong();
+			this.bestLevel = input.readInt();
+
+			final int count = input.readInt();
+
+			if (count < 0 || count > TOP_SIZE)
+				throw new IOException("Invalid top count: " + count);
+
+			for (int i = 0; i < count; i++)
+			{
+				top[i] = Record.read(input);
+			}
+
+			this.count = count;
+		}
+	}
+
+	/**
+	 * A finished game
+	 */
+	public static final class Record
+	{
+		/**
+		 * The number of bytes of a record (mode, level, score, exploded, duration)
+		 */
+		private static final int SIZE = 14;
+
+		private final int mode, level, score, exploded, duration;
+
+		/**
+		 * Create record of a finished game
+		 * @param mode The mode played
+		 * @param level The level reached
+		 * @param score The final score
+		 * @param exploded The number of balls exploded
+		 * @param duration How long the game lasted (milliseconds)
+		 */
+		private Record(final int mode, final int level, final int score, final int exploded, final int duration)
 		{
 			this.mode = mode;
-			setScore(score);
+			this.level = level;
+			this.score = score;
+			this.exploded = exploded;
+			this.duration = duration;
+		}
+
+		public int getMode() { return this.mode; }
+
+		public int getLevel() { return this.level; }
+
+		public int getScore() { return this.score; }
+
+		public int getExploded() { return this.exploded; }
+
+		public int getDuration() { return this.duration; }
+
+		private void write(final DataOutputStream output) throws IOException
+		{
+			output.writeByte(mode);
+			output.writeByte(level);
+			output.writeInt(score);
+			output.writeInt(exploded);
+			output.writeInt(duration);
+		}
+
+		private static Record read(final DataInputStream input) throws IOException
+		{
+			return new Record(input.readUnsignedByte(), input.readUnsignedByte(), input.readInt(), input.readInt(), input.readInt());
 		}
-		
-		private int getMode() { return this.mode; }
-		
-		private int getScore() { return this.score; }
-		
-		private final void setScore(final int score) { this.score = score; }
 	}
-}
\ No newline at end of file
+}
@@ -4,6 +4,7 @@ import android.app.Activity;
 import com.gamesbykevin.androidframework.io.storage.Internal;
 import com.gamesbykevin.androidframework.resources.Audio;
 import com.gamesbykevin.chainreaction.screen.OptionsScreen;
+import com.gamesbykevin.chainreaction.storage.Persistence;
 
 /**
  * Save the settings to the internal storage
@@ -19,9 +20,12 @@ public final class Settings extends Internal
      */
     public static final String SEPARATOR = ";";
     
+    //the sound option read during the splash, waiting for the game thread (-1 if there is none)
+    private static volatile int PREPARED = -1;
+    
     public Settings(final OptionsScreen screen, final Activity activity)
     {
-        super("Settings", activity);
+        super(Persistence.await("Settings"), activity);
         
         //store our screen reference object
         this.screen = screen;
@@ -69,7 +73,54 @@ public final class Settings extends Internal
     }
     
     /**
-     * Save the settings to the internal storage
+     * Read the settings before the options screen exists.<br>
+     * This is called during the splash, the sound option is kept until {@link #apply()} is called on the game thread
+     * @param activity Object needed to read the internal storage
+     */
+    public static void prepare(final Activity activity)
+    {
+        try
+        {
+            final Internal settings = new Internal(Persistence.await("Settings"), activity);
+            
+            //if content exists check the sound option
+            if (settings.getContent().toString().trim().length() > 0)
+            {
+                final String[] data = settings.getContent().toString().split(SEPARATOR);
+                
+                //the options are saved in the order of the keys
+                final int position = OptionsScreen.Key.Sound.ordinal();
+                
+                if (position < data.length)
+                    PREPARED = Integer.parseInt(data[position]);
+            }
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Apply the settings read during the splash.<br>
+     * This is called on the game thread before anything plays, so the audio is only changed where it is used
+     */
+    public static void apply()
+    {
+        final int sound = PREPARED;
+        
+        //nothing was read, or it was already applied
+        if (sound < 0)
+            return;
+        
+        PREPARED = -1;
+        
+        Audio.setAudioEnabled(sound == 0);
+    }
+    
+    /**
+     * Save the settings to the internal storage.<br>
+     * The file is written in the background
      */
     @Override
     public void save()
@@ -92,8 +143,8 @@ public final class Settings extends Internal
             //remove the last character since there won't be any additional settings
             super.getContent().deleteCharAt(super.getContent().length() - 1);
 
-            //save data
-            super.save();
+            //queue the data to be written
+            Persistence.save(super.getActivity(), super.getFilename(), super.getContent().toString());
         }
         catch (Exception e)
         {
@@ -0,0 +1,176 @@
+package com.gamesbykevin.chainreaction.storage.snapshot;
+
+import android.app.Activity;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.gamesbykevin.chainreaction.game.Game;
+import com.gamesbykevin.chainreaction.storage.Persistence;
+
+/**
+ * A binary snapshot of the game in progress.<br>
+ * The game is written to a buffer created once, so saving when paused takes a fraction of a millisecond, and the file
+ * is written in the background. If the process is killed while paused, the game continues from the snapshot.
+ * @author GOD
+ */
+public final class Snapshot
+{
+    /**
+     * The file name of the snapshot
+     */
+    private static final String FILE_NAME = "Snapshot";
+
+    /**
+     * Identifies our file ("CRSN")
+     */
+    private static final int MAGIC = 0x4352534E;
+
+    /**
+     * The version of the file format
+     */
+    private static final int VERSION = 4;
+
+    /**
+     * The starting size of the buffer, enough for a couple hundred balls
+     */
+    private static final int INITIAL_CAPACITY = 16384;
+
+    //the buffer the game is written to
+    private static ByteBuffer BUFFER = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+    //has a snapshot been written during this process
+    private static boolean SAVED = false;
+
+    private Snapshot()
+    {
+        //static class
+    }
+
+    /**
+     * Get the file of the snapshot
+     * @param activity Object needed to locate the internal storage
+     * @return The file
+     */
+    private static File getFile(final Activity activity)
+    {
+        return activity.getFileStreamPath(FILE_NAME);
+    }
+
+    /**
+     * Is there a game to continue?
+     * @param activity Object needed to locate the internal storage
+     * @return true if a snapshot exists, false otherwise
+     */
+    public static boolean exists(final Activity activity)
+    {
+        return (getFile(activity).length() > 0);
+    }
+
+    /**
+     * Save the game in progress
+     * @param activity Object needed to locate the internal storage
+     * @param game The game to save
+     */
+    public static void save(final Activity activity, final Game game)
+    {
+        while (true)
+        {
+            try
+            {
+                BUFFER.clear();
+                BUFFER.putInt(MAGIC);
+                BUFFER.putInt(VERSION);
+                game.write(BUFFER);
+                break;
+            }
+            catch (BufferOverflowException e)
+            {
+                //the game doesn't fit, so make the buffer larger
+                BUFFER = ByteBuffer.allocate(BUFFER.capacity() * 2);
+            }
+        }
+
+        //write a copy in the background, the buffer is reused
+        Persistence.save(activity, FILE_NAME, Arrays.copyOf(BUFFER.array(), BUFFER.position()));
+        SAVED = true;
+    }
+
+    /**
+     * Remove the snapshot, the game in progress is over.<br>
+     * The file is emptied in the background
+     * @param activity Object needed to locate the internal storage
+     */
+    public static void clear(final Activity activity)
+    {
+        //only write the file if there is a snapshot
+        if (!SAVED && !exists(activity))
+            return;
+
+        Persistence.save(activity, FILE_NAME, new byte[0]);
+        SAVED = false;
+    }
+
+    /**
+     * Continue the saved game
+     * @param activity Object needed to locate the internal storage
+     * @param game The game to restore
+     * @return true if the game was restored, false if there is no snapshot or it could not be read, the snapshot is
+     * then removed and the game may be partly overwritten, so it needs to be created again
+     */
+    public static boolean restore(final Activity activity, final Game game)
+    {
+        //make sure the snapshot is not still being written
+        Persistence.await(FILE_NAME);
+
+        final File file = getFile(activity);
+
+        try
+        {
+            final int length = (int)file.length();
+
+            if (length < 8)
+                return false;
+
+            //make sure the snapshot fits
+            if (BUFFER.capacity() < length)
+                BUFFER = ByteBuffer.allocate(length);
+
+            final DataInputStream input = new DataInputStream(new FileInputStream(file));
+
+            try
+            {
+                input.readFully(BUFFER.array(), 0, length);
+            }
+            finally
+            {
+                input.close();
+            }
+
+            BUFFER.clear();
+            BUFFER.limit(length);
+
+            //make sure this is a snapshot we can read
+            if (BUFFER.getInt() != MAGIC || BUFFER.getInt() != VERSION)
+            {
+                clear(activity);
+                return false;
+            }
+
+            game.read(BUFFER);
+            return true;
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+
+            //the snapshot can't be read, don't try it again
+            clear(activity);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.gamesbykevin.chainreaction.thread;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed size queue of touch and memory events.<br>
+ * The android ui thread is the only producer and the main game thread is the only consumer,
+ * so no locks are needed and all storage is allocated up front.
+ * @author GOD
+ */
+public final class EventQueue
+{
+    /**
+     * A motion event (action, x, y, time)
+     */
+    public static final int TYPE_TOUCH = 0;
+
+    /**
+     * The system is low on memory, the action is the trim level
+     */
+    public static final int TYPE_TRIM = 1;
+
+    /**
+     * The default number of events the queue can hold
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    //the event data, each event is stored at the same index in every array
+    private final int[] types;
+    private final int[] actions;
+    private final float[] xs;
+    private final float[] ys;
+    private final long[] times;
+
+    //used to wrap the index, the capacity is a power of 2
+    private final int mask;
+
+    //the next event to be read (only written by the consumer)
+    private final AtomicLong head = new AtomicLong();
+
+    //the next event to be written (only written by the producer)
+    private final AtomicLong tail = new AtomicLong();
+
+    //the current event polled by the consumer
+    private int type, action;
+    private float x, y;
+    private long time;
+
+    /**
+     * Create a new event queue
+     * @param capacity The maximum number of events, will be rounded up to a power of 2
+     */
+    public EventQueue(final int capacity)
+    {
+    	//round up to the next power of 2
+    	int size = 1;
+
+    	while (size < capacity)
+    		size <<= 1;
+
+    	this.mask = size - 1;
+
+    	//allocate our storage
+    	this.types = new int[size];
+    	this.actions = new int[size];
+    	this.xs = new float[size];
+    	this.ys = new float[size];
+    	this.times = new long[size];
+    }
+
+    /**
+     * Add an event to the queue.<br>
+     * This is only to be called from the producer thread
+     * @param type The type of event
+     * @param action The action of the motion event
+     * @param x (x-coordinate)
+     * @param y (y-coordinate)
+     * @param time The time the event occurred (milliseconds)
+     * @return true if the event was added, false if the queue is full
+     */
+    public boolean offer(final int type, final int action, final float x, final float y, final long time)
+    {
+    	final long index = tail.get();
+
+    	//if the queue is full we can't add the event
+    	if (index - head.get() > mask)
+    		return false;
+
+    	//write the event data
+    	final int position = (int)(index & mask);
+    	this.types[position] = type;
+    	this.actions[position] = action;
+    	this.xs[position] = x;
+    	this.ys[position] = y;
+    	this.times[position] = time;
+
+    	//publish the event to the consumer
+    	tail.lazySet(index + 1);
+
+    	//event was added
+    	return true;
+    }
+
+    /**
+     * Get the number of events that can still be added.<br>
+     * This is only to be called from the producer thread, the consumer can only free more room
+     * @return The number of free slots in the queue
+     */
+    public int getRemaining()
+    {
+    	return (int)(mask + 1 - (tail.get() - head.get()));
+    }
+
+    /**
+     * Remove the next event from the queue.<br>
+     * The event data can then be read using the getters. This is only to be called from the consumer thread
+     * @return true if an event was removed, false if the queue is empty
+     */
+    public boolean poll()
+    {
+    	final long index = head.get();
+
+    	//if there are no events, we are done
+    	if (index >= tail.get())
+    		return false;
+
+    	//read the event data
+    	final int position = (int)(index & mask);
+    	this.type = types[position];
+    	this.action = actions[position];
+    	this.x = xs[position];
+    	this.y = ys[position];
+    	this.time = times[position];
+
+    	//free the slot for the producer
+    	head.lazySet(index + 1);
+
+    	//event was removed
+    	return true;
+    }
+
+    /**
+     * Get the type of the current event
+     * @return The type of event, TYPE_TOUCH or TYPE_TRIM
+     */
+    public int getType()
+    {
+    	return this.type;
+    }
+
+    /**
+     * Get the action of the current event
+     * @return The action of the motion event
+     */
+    public int getAction()
+    {
+    	return this.action;
+    }
+
+    /**
+     * Get the x-coordinate of the current event
+     * @return The x-coordinate
+     */
+    public float getX()
+    {
+    	return this.x;
+    }
+
+    /**
+     * Get the y-coordinate of the current event
+     * @return The y-coordinate
+     */
+    public float getY()
+    {
+    	return this.y;
+    }
+
+    /**
+     * Get the time of the current event
+     * @return The time the event occurred (milliseconds)
+     */
+    public long getTime()
+    {
+    	return this.time;
+    }
+}
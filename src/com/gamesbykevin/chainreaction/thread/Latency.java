@@ -0,0 +1,196 @@
+package com.gamesbykevin.chainreaction.thread;
+
+import android.os.SystemClock;
+
+/**
+ * Measure how long it takes for input to be reflected on screen.<br>
+ * The game stamps the input when the simulation first reacts to it, and the main thread
+ * completes the measurement once that frame has been posted to the screen.<br>
+ * All methods are to be called from the main game thread.
+ * @author GOD
+ */
+public final class Latency
+{
+    /**
+     * The number of milliseconds covered by each bucket in the histogram
+     */
+    public static final int BUCKET_SIZE = 8;
+
+    /**
+     * The number of buckets in the histogram, the last bucket contains everything larger
+     */
+    public static final int BUCKETS = 32;
+
+    /**
+     * How many samples we collect between each report
+     */
+    private static final int REPORT_SAMPLES = 30;
+
+    //histogram from the motion event to the first update that reacts to it
+    private static final int[] TICK = new int[BUCKETS];
+
+    //histogram from the motion event to the first frame posted that reacts to it
+    private static final int[] FRAME = new int[BUCKETS];
+
+    //the time of the earliest input waiting for the frame to be posted, -1 if none
+    private static long pending = -1;
+
+    //the number of frame samples collected
+    private static int samples = 0;
+
+    private Latency()
+    {
+    	//no instances
+    }
+
+    /**
+     * Stamp the input.<br>
+     * This is called during the update that first reacts to the input
+     * @param eventTime The time of the motion event (uptime milliseconds)
+     */
+    public static void input(final long eventTime)
+    {
+    	//only measure the earliest input until the frame is posted
+    	if (pending >= 0)
+    		return;
+
+    	//store the time of the input
+    	pending = eventTime;
+
+    	//record the time until the update reacted
+    	add(TICK, SystemClock.uptimeMillis() - eventTime);
+    }
+
+    /**
+     * The frame has been posted to the screen.<br>
+     * If an input is waiting, record the time it took to get here
+     */
+    public static void posted()
+    {
+    	//if no input is waiting, there is nothing to measure
+    	if (pending < 0)
+    		return;
+
+    	//record the time until the frame was posted
+    	add(FRAME, SystemClock.uptimeMillis() - pending);
+
+    	//nothing is waiting now
+    	pending = -1;
+
+    	//keep track of the number of samples
+    	samples++;
+
+    	//if debugging print the latency along with the other stats
+    	if (MainThread.DEBUG && samples % REPORT_SAMPLES == 0)
+    		report();
+    }
+
+    /**
+     * Add the sample to the histogram
+     * @param histogram The histogram we are adding to
+     * @param milliseconds The measured latency
+     */
+    private static void add(final int[] histogram, final long milliseconds)
+    {
+    	//determine the bucket
+    	int index = (int)(milliseconds / BUCKET_SIZE);
+
+    	//keep in range
+    	if (index < 0)
+    		index = 0;
+    	if (index >= BUCKETS)
+    		index = BUCKETS - 1;
+
+    	histogram[index]++;
+    }
+
+    /**
+     * Get the latency at the specified percentile of the histogram
+     * @param histogram The histogram we are checking
+     * @param percentile The percentile we want (0 - 100)
+     * @return The upper limit of the bucket (milliseconds) containing the percentile, 0 if there are no samples
+     */
+    private static int getPercentile(final int[] histogram, final int percentile)
+    {
+    	//count the samples
+    	int total = 0;
+
+    	for (int i = 0; i < histogram.length; i++)
+    	{
+    		total += histogram[i];
+    	}
+
+    	//no samples yet
+    	if (total == 0)
+    		return 0;
+
+    	//the number of samples at the percentile
+    	final int target = (int)Math.ceil(total * (percentile / 100.0));
+
+    	int count = 0;
+
+    	for (int i = 0; i < histogram.length; i++)
+    	{
+    		count += histogram[i];
+
+    		if (count >= target)
+    			return (i + 1) * BUCKET_SIZE;
+    	}
+
+    	return histogram.length * BUCKET_SIZE;
+    }
+
+    /**
+     * Get the input to update latency at the specified percentile
+     * @param percentile The percentile we want (0 - 100)
+     * @return The latency (milliseconds)
+     */
+    public static int getTickPercentile(final int percentile)
+    {
+    	return getPercentile(TICK, percentile);
+    }
+
+    /**
+     * Get the input to screen latency at the specified percentile
+     * @param percentile The percentile we want (0 - 100)
+     * @return The latency (milliseconds)
+     */
+    public static int getFramePercentile(final int percentile)
+    {
+    	return getPercentile(FRAME, percentile);
+    }
+
+    /**
+     * Print the latency histogram
+     */
+    public static void report()
+    {
+    	System.out.println("Input latency update p50 " + getTickPercentile(50) + "ms p95 " + getTickPercentile(95) + "ms, frame p50 " + getFramePercentile(50) + "ms p95 " + getFramePercentile(95) + "ms");
+
+    	//print each bucket that has samples
+    	final StringBuilder builder = new StringBuilder("Input latency histogram (frame):");
+
+    	for (int i = 0; i < BUCKETS; i++)
+    	{
+    		if (FRAME[i] > 0)
+    			builder.append(" <").append((i + 1) * BUCKET_SIZE).append("ms=").append(FRAME[i]);
+    	}
+
+    	System.out.println(builder.toString());
+    }
+
+    /**
+     * Remove all samples
+     */
+    public static void reset()
+    {
+    	for (int i = 0; i < BUCKETS; i++)
+    	{
+    		TICK[i] = 0;
+    		FRAME[i] = 0;
+    	}
+
+    	pending = -1;
+    	samples = 0;
+    }
+}
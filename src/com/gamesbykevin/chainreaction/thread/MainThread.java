@@ -5,6 +5,8 @@ import android.view.SurfaceHolder;
 import com.gamesbykevin.androidframework.anim.Animation;
 import com.gamesbykevin.chainreaction.panel.GamePanel;
 
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * Our main thread containing the game loop
  * @author ABRAHAM
@@ -16,11 +18,6 @@ public class MainThread extends Thread
      */
     public static final boolean DEBUG = false;
     
-    /**
-     * The default time to sleep when paused
-     */
-    private static final long DEFAULT_PAUSE_SLEEP = 250L;
-    
     //the assigned frames per second for this game
     public static final int FPS = 30;
     
@@ -31,7 +28,7 @@ public class MainThread extends Thread
     private final SurfaceHolder holder;
     
     //is the thread running
-    private boolean running;
+    private volatile boolean running;
     
     //our canvas to render image(s)
     private Canvas canvas;
@@ -43,7 +40,10 @@ public class MainThread extends Thread
     public static final int COMPLETE_THREAD_ATTEMPTS = 1000;
     
     //do we pause the update/render
-    private boolean pause = false;
+    private volatile boolean pause = false;
+    
+    //has something changed since the last frame (input, state, surface events)
+    private volatile boolean dirty = true;
     
     public MainThread(SurfaceHolder holder, GamePanel panel)
     {
@@ -77,8 +77,8 @@ public class MainThread extends Thread
             	//if the game is paused we won't continue
             	if (isPaused())
             	{
-            		//sleep for a short time
-            		sleep(DEFAULT_PAUSE_SLEEP);
+            		//park the thread until we are resumed
+            		LockSupport.park(this);
             		
             		//don't continue since the thread is paused
             		continue;
@@ -86,10 +86,16 @@ public class MainThread extends Thread
             	
                 //get the start time of this update
                 final long startTime = System.nanoTime();
+                
+                //any change after this point will require another frame
+                this.dirty = false;
 
                 //assign the canvas null
                 setCanvas(null);
 
+                //the time spent updating and drawing, without the time blocked waiting for the surface
+                long workNanos = 0;
+
                 try 
                 {
                     //attempt to lock the canvas to edit the pixels of the surface
@@ -98,12 +104,16 @@ public class MainThread extends Thread
                     //make sure no other threads are accessing the holder
                     synchronized (getHolder())
                     {
+                        final long workStart = System.nanoTime();
+                        
                         //update our game panel
                         getPanel().update();
 
                         //if the canvas object was obtained and we did not pause, render
                         if (getCanvas() != null && !isPaused())
                             getPanel().draw(getCanvas());
+                        
+                        workNanos = System.nanoTime() - workStart;
                     }
                 }
                 catch (Exception e)
@@ -119,6 +129,12 @@ public class MainThread extends Thread
                         {
                             //render the pixels on the canvas to the screen
                         	getHolder().unlockCanvasAndPost(getCanvas());
+                        	
+                        	//the frame is now on screen, measure the input latency (if any)
+                        	Latency.posted();
+                        	
+                        	//record the time to the first frame the player can interact with
+                        	Startup.posted(getPanel());
                         }
                         catch (Exception e)
                         {
@@ -127,8 +143,14 @@ public class MainThread extends Thread
                     }
                 }
 
+                //the time of the frame, including the time waiting for the surface
+                final long timeNanos = System.nanoTime() - startTime;
+                
+                //lower or raise the visual quality to fit the frame in the budget, waiting for vsync is not our work
+                Quality.frame(workNanos);
+                
                 //calculate the number of milliseconds elapsed
-                final long timeMillis = (System.nanoTime() - startTime) / Animation.NANO_SECONDS_PER_MILLISECOND;
+                final long timeMillis = timeNanos / Animation.NANO_SECONDS_PER_MILLISECOND;
 
                 //determine the amount of time to sleep
                 long waitTime = targetTime - timeMillis;
@@ -177,6 +199,10 @@ public class MainThread extends Thread
                         System.out.println("Average FPS " + fpsAverage);
                     }
                 }
+                
+                //if nothing is animating and nothing has changed, park until woken
+                if (!this.dirty && isRunning() && !getPanel().isAnimating())
+                	LockSupport.park(this);
             }
         }
         catch (Exception ex)
@@ -198,6 +224,24 @@ public class MainThread extends Thread
     public void setPause(final boolean pause)
     {
     	this.pause = pause;
+    	
+    	//if resuming, make sure the thread isn't parked
+    	if (!pause)
+    		wake();
+    }
+    
+    /**
+     * Wake the thread.<br>
+     * This is called when the user touches the screen, the state changes, or the surface changes
+     * so the next frame reflects the change right away, even if the thread is idle.
+     */
+    public void wake()
+    {
+    	//flag that we need at least 1 more frame
+    	this.dirty = true;
+    	
+    	//un-park the thread (if parked)
+    	LockSupport.unpark(this);
     }
     
     /**
@@ -216,6 +260,10 @@ public class MainThread extends Thread
     public void setRunning(final boolean running)
     {
         this.running = running;
+        
+        //if stopping, make sure the thread isn't parked so it can finish
+        if (!running)
+        	LockSupport.unpark(this);
     }
     
     /**
@@ -0,0 +1,159 @@
+package com.gamesbykevin.chainreaction.thread;
+
+import com.gamesbykevin.androidframework.anim.Animation;
+
+/**
+ * Lower the visual quality when frames take longer than the budget, and raise it again when there is room.<br>
+ * The main thread reports the time of every frame, and once per window the average decides the level. Only how
+ * things are drawn changes, the game is updated the same at every level.<br>
+ * All methods are to be called from the main game thread.
+ * @author GOD
+ */
+public final class Quality
+{
+    /**
+     * Everything is drawn at full quality
+     */
+    public static final int LEVEL_HIGH = 0;
+
+    /**
+     * Bitmaps are drawn without filtering
+     */
+    public static final int LEVEL_MEDIUM = 1;
+
+    /**
+     * Every other explosion frame is skipped, and the background is not darkened behind menus
+     */
+    public static final int LEVEL_LOW = 2;
+
+    /**
+     * Small balls are drawn as plain circles
+     */
+    public static final int LEVEL_LOWEST = 3;
+
+    /**
+     * The number of frames averaged before the level can change
+     */
+    private static final int WINDOW = MainThread.FPS;
+
+    /**
+     * The time we have for each frame (nanoseconds)
+     */
+    private static final long BUDGET = Animation.NANO_SECONDS_PER_MILLISECOND * Animation.MILLISECONDS_PER_SECOND / MainThread.FPS;
+
+    /**
+     * Lower the level when the average frame is above this part of the budget
+     */
+    private static final double LOWER_RATIO = 0.9;
+
+    /**
+     * Raise the level when the average frame is below this part of the budget
+     */
+    private static final double RAISE_RATIO = 0.5;
+
+    /**
+     * Balls smaller than this are drawn as circles at the lowest level (game pixels)
+     */
+    private static final double CIRCLE_DIMENSION = 32;
+
+    //the current level
+    private static int level = LEVEL_HIGH;
+
+    //the total time of the frames in the window (nanoseconds)
+    private static long total = 0;
+
+    //the number of frames in the window
+    private static int frames = 0;
+
+    private Quality()
+    {
+        //static class
+    }
+
+    /**
+     * Add the time of a frame.<br>
+     * When the window is full, the level is lowered or raised by one if needed
+     * @param time The time to update and render the frame (nanoseconds)
+     */
+    public static void frame(final long time)
+    {
+        total += time;
+
+        if (++frames < WINDOW)
+            return;
+
+        final long average = total / frames;
+
+        //start the next window
+        total = 0;
+        frames = 0;
+
+        if (average > BUDGET * LOWER_RATIO && level < LEVEL_LOWEST)
+        {
+            setLevel(level + 1);
+        }
+        else if (average < BUDGET * RAISE_RATIO && level > LEVEL_HIGH)
+        {
+            setLevel(level - 1);
+        }
+    }
+
+    /**
+     * Assign the level
+     * @param level The level, LEVEL_HIGH through LEVEL_LOWEST
+     */
+    public static void setLevel(final int level)
+    {
+        Quality.level = Math.max(LEVEL_HIGH, Math.min(LEVEL_LOWEST, level));
+
+        //if debugging show the change
+        if (MainThread.DEBUG)
+            System.out.println("Quality level " + Quality.level);
+    }
+
+    /**
+     * Get the level
+     * @return The current level, LEVEL_HIGH through LEVEL_LOWEST
+     */
+    public static int getLevel()
+    {
+        return level;
+    }
+
+    /**
+     * Are bitmaps filtered when scaled?
+     * @return true if filtering is enabled, false otherwise
+     */
+    public static boolean hasFilter()
+    {
+        return (level < LEVEL_MEDIUM);
+    }
+
+    /**
+     * Get the number of explosion frames each frame drawn covers
+     * @return 1 to draw every frame, 2 to draw every other frame
+     */
+    public static int getExplosionStep()
+    {
+        return (level < LEVEL_LOW) ? 1 : 2;
+    }
+
+    /**
+     * Is the background darkened behind menus?
+     * @return true if the overlay is drawn, false otherwise
+     */
+    public static boolean hasOverlay()
+    {
+        return (level < LEVEL_LOW);
+    }
+
+    /**
+     * Is the ball drawn as a plain circle?
+     * @param dimension The size of the ball (game pixels)
+     * @return true if the ball is small enough and the level is the lowest, false otherwise
+     */
+    public static boolean hasCircle(final double dimension)
+    {
+        return (level >= LEVEL_LOWEST && dimension < CIRCLE_DIMENSION);
+    }
+}
@@ -0,0 +1,204 @@
+package com.gamesbykevin.chainreaction.thread;
+
+import android.app.Activity;
+import android.os.SystemClock;
+
+import com.gamesbykevin.chainreaction.assets.AssetLoader;
+import com.gamesbykevin.chainreaction.balls.Balls;
+import com.gamesbykevin.chainreaction.panel.GamePanel;
+import com.gamesbykevin.chainreaction.player.Player;
+import com.gamesbykevin.chainreaction.storage.Persistence;
+import com.gamesbykevin.chainreaction.storage.score.Score;
+import com.gamesbykevin.chainreaction.storage.settings.Settings;
+import com.gamesbykevin.chainreaction.storage.snapshot.Snapshot;
+
+/**
+ * The work done while the splash is displayed.<br>
+ * The assets are decoded, the settings and scores are read, and a board is updated without being drawn so the
+ * collision code is compiled before the first game. The splash moves on once this is done, and the time until the
+ * first frame the player can interact with is recorded.
+ * @author GOD
+ */
+public final class Startup
+{
+    /**
+     * The least amount of time the splash is displayed (milliseconds)
+     */
+    public static final long MINIMUM_DISPLAY = 500L;
+
+    /**
+     * The file name where the time to the first interactive frame is saved
+     */
+    public static final String FILE_NAME = "Startup";
+
+    /**
+     * The number of balls updated in the warm up, below the parallel threshold so no workers are created
+     */
+    private static final int WARM_UP_BALLS = Balls.PARALLEL_THRESHOLD / 2;
+
+    /**
+     * The number of updates in the warm up
+     */
+    private static final int WARM_UP_TICKS = MainThread.FPS * 3;
+
+    /**
+     * The most time spent updating the balls, so slow devices are not kept on the splash (milliseconds)
+     */
+    private static final long WARM_UP_LIMIT = 300L;
+
+    /**
+     * The seed of the warm up board
+     */
+    private static final long SEED = 20161L;
+
+    //the time the splash was created (uptime milliseconds), -1 if the splash was not displayed
+    private static volatile long started = -1;
+
+    //the time from the splash to the first interactive frame (milliseconds), -1 if not measured yet
+    private static volatile long interactive = -1;
+
+    private Startup()
+    {
+        //static class
+    }
+
+    /**
+     * Start the warm up in the background
+     * @param activity The splash activity, needed to load assets and read the internal storage
+     * @param listener Notified from the background thread once the warm up is done
+     */
+    public static void start(final Activity activity, final Runnable listener)
+    {
+        //the splash is displayed from here
+        started = SystemClock.uptimeMillis();
+        interactive = -1;
+
+        //start loading the game assets
+        AssetLoader.start(activity);
+
+        final Thread thread = new Thread("Warm up")
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    warmUp(activity);
+                }
+                finally
+                {
+                    //move on even if part of the warm up failed
+                    listener.run();
+                }
+            }
+        };
+
+        //don't keep the application alive
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Do the warm up, returning once the first screen can be displayed
+     * @param activity The splash activity
+     */
+    private static void warmUp(final Activity activity)
+    {
+        //read the settings and scores while the assets decode
+        Settings.prepare(activity);
+        Score.prepare(activity);
+
+        //update a board nobody sees
+        warmUpBalls();
+
+        try
+        {
+            //the menu needs its assets, and a saved game needs the game assets to continue
+            AssetLoader.await(AssetLoader.Group.Menu);
+
+            if (Snapshot.exists(activity))
+                AssetLoader.await(AssetLoader.Group.Game);
+        }
+        catch (InterruptedException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Update a board of balls without drawing or sound, the cascade starts from the middle of the screen
+     */
+    private static void warmUpBalls()
+    {
+        final Player player = new Player();
+        final Balls balls = new Balls(player);
+
+        try
+        {
+            //nothing is heard during the warm up
+            balls.setSound(false);
+            balls.reset(WARM_UP_BALLS, SEED);
+
+            //start the cascade in the middle of the screen
+            player.getBall().setX(GamePanel.WIDTH / 2);
+            player.getBall().setY(GamePanel.HEIGHT / 2);
+            player.getBall().setExpand(true);
+            player.setTurn(false);
+
+            final long limit = SystemClock.uptimeMillis() + WARM_UP_LIMIT;
+
+            for (int tick = 0; tick < WARM_UP_TICKS && SystemClock.uptimeMillis() < limit; tick++)
+            {
+                player.update();
+                balls.update();
+            }
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+        finally
+        {
+            balls.dispose();
+            player.dispose();
+        }
+    }
+
+    /**
+     * Get the time left before the splash can move on
+     * @return The time remaining of the minimum display (milliseconds), 0 if it has passed
+     */
+    public static long getDelay()
+    {
+        return Math.max(0, started + MINIMUM_DISPLAY - SystemClock.uptimeMillis());
+    }
+
+    /**
+     * A frame has been posted to the screen.<br>
+     * The first time the posted frame is interactive, the time since the splash was created is recorded
+     * @param panel The game panel
+     */
+    public static void posted(final GamePanel panel)
+    {
+        //if the splash was not displayed, or we already measured, there is nothing to do
+        if (started < 0 || interactive >= 0 || !panel.isInteractive())
+            return;
+
+        interactive = SystemClock.uptimeMillis() - started;
+
+        if (MainThread.DEBUG)
+            System.out.println("Time to interactive " + interactive + "ms");
+
+        //keep the last measurement
+        Persistence.save(panel.getActivity(), FILE_NAME, Long.toString(interactive));
+    }
+
+    /**
+     * Get the time from the splash to the first interactive frame
+     * @return The time (milliseconds), -1 if not measured yet
+     */
+    public static long getTimeToInteractive()
+    {
+        return interactive;
+    }
+}
@@ -0,0 +1,162 @@
+package com.gamesbykevin.chainreaction.thread;
+
+import java.util.concurrent.CyclicBarrier;
+
+import com.gamesbykevin.androidframework.resources.Disposable;
+
+/**
+ * A fixed group of threads that run the same job together.<br>
+ * The calling thread takes part as worker 0, and {@link #run(Job)} returns once every worker has finished. The
+ * threads wait on barriers between jobs, so running a job does not create any objects.
+ * @author GOD
+ */
+public final class Workers implements Disposable
+{
+    /**
+     * The work done by each worker
+     */
+    public interface Job
+    {
+        /**
+         * Do this worker's share of the job
+         * @param index The index of the worker, 0 is the calling thread
+         * @param count The number of workers
+         */
+        public void run(final int index, final int count);
+    }
+
+    //the number of workers, including the calling thread
+    private final int count;
+
+    //the threads of workers 1 and up
+    private final Thread[] threads;
+
+    //every worker waits here for a job, and again when the job is done
+    private final CyclicBarrier start, finish;
+
+    //the job being run, the barriers make it visible to the workers
+    private Job job;
+
+    //the first exception or error thrown by a worker during the job
+    private volatile Throwable failure;
+
+    /**
+     * Create the workers
+     * @param count The number of workers, including the calling thread
+     */
+    public Workers(final int count)
+    {
+        this.count = Math.max(1, count);
+        this.start = new CyclicBarrier(this.count);
+        this.finish = new CyclicBarrier(this.count);
+        this.threads = new Thread[this.count - 1];
+
+        for (int i = 0; i < threads.length; i++)
+        {
+            final int index = i + 1;
+
+            threads[i] = new Thread("Worker " + index)
+            {
+                @Override
+                public void run()
+                {
+                    work(index);
+                }
+            };
+
+            //the workers never keep the process alive
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+    }
+
+    /**
+     * Get the number of workers
+     * @return The number of workers, including the calling thread
+     */
+    public int getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * The loop of a worker thread, until the workers are disposed
+     * @param index The index of the worker
+     */
+    private void work(final int index)
+    {
+        try
+        {
+            while (true)
+            {
+                start.await();
+
+                try
+                {
+                    job.run(index, count);
+                }
+                catch (Throwable e)
+                {
+                    //record anything thrown, the worker still has to reach the finish or the caller waits forever
+                    failure = e;
+                }
+
+                finish.await();
+            }
+        }
+        catch (Exception e)
+        {
+            //the barrier was broken, the workers are disposed
+        }
+    }
+
+    /**
+     * Run the job on every worker, returning once all are done
+     * @param job The job to run
+     * @throws Exception If the job failed on any worker
+     */
+    public void run(final Job job) throws Exception
+    {
+        this.job = job;
+        this.failure = null;
+
+        //nothing to wait for with a single worker
+        if (threads.length == 0)
+        {
+            job.run(0, count);
+            return;
+        }
+
+        start.await();
+
+        try
+        {
+            job.run(0, count);
+        }
+        finally
+        {
+            finish.await();
+        }
+
+        final Throwable cause = failure;
+
+        if (cause instanceof Error)
+            throw (Error)cause;
+        if (cause != null)
+            throw (Exception)cause;
+    }
+
+    @Override
+    public void dispose()
+    {
+        //stop each worker
+        for (int i = 0; i < threads.length; i++)
+        {
+            threads[i].interrupt();
+        }
+
+        start.reset();
+        finish.reset();
+        job = null;
+    }
+}